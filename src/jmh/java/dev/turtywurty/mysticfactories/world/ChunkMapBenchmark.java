@@ -0,0 +1,101 @@
+package dev.turtywurty.mysticfactories.world;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link ChunkMap} with the {@code HashMap<ChunkPos, Chunk>} it replaced, at 10k and 100k loaded chunks.
+ * <p>
+ * The random lookups hit chunks scattered over the whole table, the tile walk reads every tile of a row of chunks in
+ * order the way tile accessors do, so most of its lookups hit the same chunk as the one before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChunkMapBenchmark {
+    private static final int LOOKUPS = 4096;
+    private static final int WALK_CHUNKS = 8;
+    private static final int WALK_TILES = WALK_CHUNKS * Chunk.SIZE * Chunk.SIZE;
+
+    @Param({"10000", "100000"})
+    public int chunkCount;
+
+    private ChunkMap chunkMap;
+    private Map<ChunkPos, Chunk> hashMap;
+    private final int[] lookupX = new int[LOOKUPS];
+    private final int[] lookupZ = new int[LOOKUPS];
+    private int side;
+
+    @Setup
+    public void setup() {
+        this.side = (int) Math.ceil(Math.sqrt(this.chunkCount));
+        this.chunkMap = new ChunkMap();
+        this.hashMap = new HashMap<>();
+        for (int i = 0; i < this.chunkCount; i++) {
+            var chunk = new Chunk(new ChunkPos(i % this.side - this.side / 2, i / this.side - this.side / 2));
+            this.chunkMap.put(chunk);
+            this.hashMap.put(chunk.getPos(), chunk);
+        }
+
+        var random = new SplittableRandom(0);
+        for (int i = 0; i < LOOKUPS; i++) {
+            int index = random.nextInt(this.chunkCount);
+            this.lookupX[i] = index % this.side - this.side / 2;
+            this.lookupZ[i] = index / this.side - this.side / 2;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void chunkMapRandomLookup(Blackhole blackhole) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            blackhole.consume(this.chunkMap.get(this.lookupX[i], this.lookupZ[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void hashMapRandomLookup(Blackhole blackhole) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            blackhole.consume(this.hashMap.get(new ChunkPos(this.lookupX[i], this.lookupZ[i])));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WALK_TILES)
+    public void chunkMapTileWalk(Blackhole blackhole) {
+        int minX = -this.side / 2 * Chunk.SIZE;
+        int minZ = -this.side / 2 * Chunk.SIZE;
+        for (int z = minZ; z < minZ + Chunk.SIZE; z++) {
+            for (int x = minX; x < minX + WALK_CHUNKS * Chunk.SIZE; x++) {
+                blackhole.consume(this.chunkMap.get(ChunkPos.toChunkCoordinate(x), ChunkPos.toChunkCoordinate(z)));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WALK_TILES)
+    public void hashMapTileWalk(Blackhole blackhole) {
+        int minX = -this.side / 2 * Chunk.SIZE;
+        int minZ = -this.side / 2 * Chunk.SIZE;
+        for (int z = minZ; z < minZ + Chunk.SIZE; z++) {
+            for (int x = minX; x < minX + WALK_CHUNKS * Chunk.SIZE; x++) {
+                blackhole.consume(this.hashMap.get(
+                        new ChunkPos(ChunkPos.toChunkCoordinate(x), ChunkPos.toChunkCoordinate(z))));
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package dev.turtywurty.mysticfactories.world;
+
+import dev.turtywurty.mysticfactories.client.world.ClientWorld;
+import dev.turtywurty.mysticfactories.init.WorldTypes;
+import dev.turtywurty.mysticfactories.util.registry.RegistryScanner;
+import dev.turtywurty.mysticfactories.world.tile.TilePos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the int-coordinate world accessors against the {@link TilePos} and {@code Optional} ones they replaced on
+ * the hot paths. Run with the {@code gc} profiler, as the build does, and check that {@code gc.alloc.rate.norm} is
+ * 0 B/op for the raw accessors.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WorldAccessBenchmark {
+    private static final int CHUNKS_PER_SIDE = 4;
+    private static final int TILES_PER_SIDE = CHUNKS_PER_SIDE * Chunk.SIZE;
+    private static final int TILES = TILES_PER_SIDE * TILES_PER_SIDE;
+
+    private World world;
+
+    @Setup
+    public void setup() {
+        RegistryScanner.scanForRegistryHolders();
+        this.world = new ClientWorld(WorldTypes.OVERWORLD, 0L);
+        List<ChunkPos> positions = new ArrayList<>();
+        for (int z = 0; z < CHUNKS_PER_SIDE; z++) {
+            for (int x = 0; x < CHUNKS_PER_SIDE; x++) {
+                positions.add(new ChunkPos(x, z));
+            }
+        }
+
+        this.world.addChunks(positions, added -> {});
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TILES)
+    public void getTileRaw(Blackhole blackhole) {
+        for (int y = 0; y < TILES_PER_SIDE; y++) {
+            for (int x = 0; x < TILES_PER_SIDE; x++) {
+                blackhole.consume(this.world.getTileRaw(x, y));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TILES)
+    public void isSolid(Blackhole blackhole) {
+        for (int y = 0; y < TILES_PER_SIDE; y++) {
+            for (int x = 0; x < TILES_PER_SIDE; x++) {
+                blackhole.consume(this.world.isSolid(x, y));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TILES)
+    public void getBiomeRaw(Blackhole blackhole) {
+        for (int y = 0; y < TILES_PER_SIDE; y++) {
+            for (int x = 0; x < TILES_PER_SIDE; x++) {
+                blackhole.consume(this.world.getBiomeRaw(x, y));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TILES)
+    public void getTileOptional(Blackhole blackhole) {
+        for (int y = 0; y < TILES_PER_SIDE; y++) {
+            for (int x = 0; x < TILES_PER_SIDE; x++) {
+                blackhole.consume(this.world.getTile(new TilePos(x, y)));
+            }
+        }
+    }
+}
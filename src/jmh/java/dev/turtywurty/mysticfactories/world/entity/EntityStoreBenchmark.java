@@ -0,0 +1,80 @@
+package dev.turtywurty.mysticfactories.world.entity;
+
+import dev.turtywurty.mysticfactories.util.registry.RegistryScanner;
+import dev.turtywurty.mysticfactories.world.tileentity.impl.CactusTileEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds 10k entities to a world that already tracks 10k and removes them again in a different order, the churn of one
+ * busy tick. Compares {@link EntityStore} with the {@code contains}-guarded {@link ArrayList}s it replaced; a tick's
+ * worth should cost milliseconds.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EntityStoreBenchmark {
+    private static final int RESIDENT = 10_000;
+    private static final int CHURN = 10_000;
+
+    private final EntityStore<Entity> store = new EntityStore<>();
+    private final List<Entity> list = new ArrayList<>();
+    private final List<Entity> added = new ArrayList<>(CHURN);
+    private final List<Entity> removed = new ArrayList<>(CHURN);
+
+    @Setup
+    public void setup() {
+        RegistryScanner.scanForRegistryHolders();
+        for (int i = 0; i < RESIDENT; i++) {
+            var entity = new CactusTileEntity();
+            this.store.add(entity);
+            this.list.add(entity);
+        }
+
+        for (int i = 0; i < CHURN; i++) {
+            this.added.add(new CactusTileEntity());
+        }
+
+        this.removed.addAll(this.added);
+        Collections.shuffle(this.removed, new Random(0));
+    }
+
+    @Benchmark
+    public int entityStore() {
+        for (Entity entity : this.added) {
+            this.store.add(entity);
+        }
+
+        for (Entity entity : this.removed) {
+            this.store.remove(entity);
+        }
+
+        return this.store.size();
+    }
+
+    @Benchmark
+    public int arrayList() {
+        for (Entity entity : this.added) {
+            if (!this.list.contains(entity)) {
+                this.list.add(entity);
+            }
+        }
+
+        for (Entity entity : this.removed) {
+            this.list.remove(entity);
+        }
+
+        return this.list.size();
+    }
+}
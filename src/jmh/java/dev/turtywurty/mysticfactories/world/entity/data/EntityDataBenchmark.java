@@ -0,0 +1,102 @@
+package dev.turtywurty.mysticfactories.world.entity.data;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTagInput;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTagOutput;
+import dev.turtywurty.mysticfactories.util.registry.RegistryScanner;
+import dev.turtywurty.mysticfactories.world.tileentity.TileEntity;
+import dev.turtywurty.mysticfactories.world.tileentity.impl.CactusTileEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link BinaryEntityDataWriter binary} entity data format with the {@link JsonEntityDataWriter JSON}
+ * one, encoding tile entities to a byte payload and decoding them back. Times are per entity. The payload sizes do
+ * not depend on the run, so setup prints them once per trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EntityDataBenchmark {
+    private static final int ENTITIES = 1000;
+
+    private final List<TileEntity> entities = new ArrayList<>(ENTITIES);
+    private byte[] binaryPayload;
+    private byte[] jsonPayload;
+
+    @Setup
+    public void setup() {
+        RegistryScanner.scanForRegistryHolders();
+        for (int i = 0; i < ENTITIES; i++) {
+            this.entities.add(new CactusTileEntity(null, i % 256 - 128, i / 256 - 2));
+        }
+
+        this.binaryPayload = encodeBinary();
+        this.jsonPayload = encodeJson();
+        System.out.printf("Payload for %d entities: binary %d bytes, json %d bytes%n",
+                ENTITIES, this.binaryPayload.length, this.jsonPayload.length);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITIES)
+    public byte[] encodeBinary() {
+        var output = new BinaryTagOutput();
+        for (TileEntity entity : this.entities) {
+            var writer = new BinaryEntityDataWriter();
+            entity.writeData(writer);
+            output.write(writer.toTag());
+        }
+
+        return output.toByteArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITIES)
+    public byte[] encodeJson() {
+        var array = new JsonArray(ENTITIES);
+        for (TileEntity entity : this.entities) {
+            var writer = new JsonEntityDataWriter();
+            entity.writeData(writer);
+            array.add(writer.toJson());
+        }
+
+        return array.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITIES)
+    public void decodeBinary(Blackhole blackhole) throws IOException {
+        var input = new BinaryTagInput(this.binaryPayload);
+        for (int i = 0; i < ENTITIES; i++) {
+            var entity = new CactusTileEntity();
+            entity.readData(new BinaryEntityDataReader(input.read()));
+            blackhole.consume(entity);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITIES)
+    public void decodeJson(Blackhole blackhole) {
+        JsonArray array = JsonParser.parseString(new String(this.jsonPayload, StandardCharsets.UTF_8)).getAsJsonArray();
+        for (JsonElement element : array) {
+            var entity = new CactusTileEntity();
+            entity.readData(new JsonEntityDataReader(element));
+            blackhole.consume(entity);
+        }
+    }
+}
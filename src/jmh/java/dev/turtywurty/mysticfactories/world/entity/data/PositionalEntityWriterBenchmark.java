@@ -0,0 +1,69 @@
+package dev.turtywurty.mysticfactories.world.entity.data;
+
+import dev.turtywurty.mysticfactories.util.binary.BinaryTagOutput;
+import dev.turtywurty.mysticfactories.util.registry.RegistryScanner;
+import dev.turtywurty.mysticfactories.world.tileentity.TileEntity;
+import dev.turtywurty.mysticfactories.world.tileentity.impl.CactusTileEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes 100k cactus tile entities, the bulk of a desert's tile entities, with the {@link PositionalEntityWriter}
+ * against one {@link BinaryEntityDataWriter} tag tree per entity. Times and {@code gc.alloc.rate.norm} are per
+ * entity; setup prints the payload sizes once per trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PositionalEntityWriterBenchmark {
+    private static final int ENTITIES = 100_000;
+
+    private final List<TileEntity> entities = new ArrayList<>(ENTITIES);
+
+    @Setup
+    public void setup() {
+        RegistryScanner.scanForRegistryHolders();
+        for (int i = 0; i < ENTITIES; i++) {
+            this.entities.add(new CactusTileEntity(null, i % 1024 - 512, i / 1024 - 50));
+        }
+
+        System.out.printf("Payload for %d entities: positional %d bytes, tags %d bytes%n",
+                ENTITIES, writePositional().length, writeTags().length);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITIES)
+    public byte[] writePositional() {
+        var output = new BinaryTagOutput();
+        var writer = new PositionalEntityWriter(output);
+        for (TileEntity entity : this.entities) {
+            writer.write(entity);
+        }
+
+        return output.toByteArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITIES)
+    public byte[] writeTags() {
+        var output = new BinaryTagOutput();
+        for (TileEntity entity : this.entities) {
+            var writer = new BinaryEntityDataWriter();
+            entity.writeData(writer);
+            output.writeKey(entity.getType().getId().toString());
+            output.write(writer.toTag());
+        }
+
+        return output.toByteArray();
+    }
+}
@@ -29,10 +29,17 @@ import dev.turtywurty.mysticfactories.util.Identifier;
 import dev.turtywurty.mysticfactories.util.registry.RegistryKeys;
 import dev.turtywurty.mysticfactories.util.registry.RegistryLifecycle;
 import dev.turtywurty.mysticfactories.util.registry.RegistryScanner;
+import dev.turtywurty.mysticfactories.world.ChunkCompressionPolicy;
+import dev.turtywurty.mysticfactories.world.ChunkEvictionPolicy;
+import dev.turtywurty.mysticfactories.world.ChunkIOService;
 import dev.turtywurty.mysticfactories.world.ChunkPos;
+import dev.turtywurty.mysticfactories.world.ChunkStorage;
+import dev.turtywurty.mysticfactories.world.World;
+import dev.turtywurty.mysticfactories.world.WorldData;
+import dev.turtywurty.mysticfactories.world.WorldType;
+import dev.turtywurty.mysticfactories.world.biome.Biome;
 import dev.turtywurty.mysticfactories.world.biome.BiomeMapExporter;
 import dev.turtywurty.mysticfactories.world.entity.Entity;
-import dev.turtywurty.mysticfactories.world.tile.TilePos;
 import org.jetbrains.annotations.Nullable;
 import org.joml.Vector2d;
 import org.joml.Vector2f;
@@ -41,13 +48,25 @@ import org.lwjgl.opengl.GL11;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
 
 public class GameClient implements Runnable {
     private static final int TARGET_UPS = 30;
+    private static final Path SAVE_DIRECTORY = Path.of("saves", "world");
+    private static final Duration JOURNAL_SYNC_INTERVAL = Duration.ofMillis(500);
     private static final Logger LOGGER = LoggerFactory.getLogger(GameClient.class);
+    // Runs the parallel chunk generation stages, leaving a core for the thread ticking the world.
+    private static final ForkJoinPool GENERATION_POOL =
+            new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
 
     private final Window window;
     private final Thread gameThread;
@@ -57,6 +76,7 @@ public class GameClient implements Runnable {
     private GameRenderer gameRenderer;
     private @Nullable IntegratedServer integratedServer; // null when connected to remote
     private ClientWorld clientWorld;
+    private @Nullable Entity serverPlayer; // integrated server's copy of the local player
     private WorldRenderer worldRenderer;
     private boolean loadingWorld;
     private boolean loadingScreenShown;
@@ -199,9 +219,24 @@ public class GameClient implements Runnable {
 
         if (this.clientWorld != null && !pauseIntegrated) {
             this.clientWorld.tick(deltaTime);
+            syncServerPlayer();
         }
     }
 
+    /**
+     * Movement is applied on the client, so mirror it onto the integrated server's player to keep the chunks
+     * around it loaded.
+     */
+    private void syncServerPlayer() {
+        if (this.serverPlayer == null)
+            return;
+
+        this.clientWorld.getLocalPlayer().ifPresent(localPlayer -> {
+            Vector2d pos = localPlayer.getPosition();
+            this.serverPlayer.setPosition(pos.x, pos.y);
+        });
+    }
+
     private void render(double alpha) {
         if (this.gameRenderer != null) {
             WorldRenderer renderer = this.clientWorld != null ?
@@ -213,6 +248,10 @@ public class GameClient implements Runnable {
     }
 
     private void cleanup() {
+        if (this.integratedServer != null) {
+            saveWorlds(this.integratedServer);
+        }
+
         if (this.worldRenderer != null) {
             this.worldRenderer.cleanup();
         }
@@ -226,6 +265,24 @@ public class GameClient implements Runnable {
         this.window.destroy();
     }
 
+    private static Path regionDirectory(WorldType worldType) {
+        return SAVE_DIRECTORY.resolve(worldType.getId().namespace()).resolve(worldType.getId().path()).resolve("region");
+    }
+
+    private static void saveWorlds(IntegratedServer server) {
+        server.shutdown();
+
+        ServerWorld overworld = server.getWorld(WorldTypes.OVERWORLD).orElse(null);
+        if (overworld == null)
+            return;
+
+        try {
+            overworld.getWorldData().writeJson(SAVE_DIRECTORY.resolve("level.json"));
+        } catch (IOException exception) {
+            LOGGER.error("Failed to save world data!", exception);
+        }
+    }
+
     private void handleWorldLoading() {
         if (!this.loadingWorld)
             return;
@@ -268,6 +325,7 @@ public class GameClient implements Runnable {
         // Spawn a local player and bind it
         var player = EntityTypes.PLAYER.create(overworld);
         overworld.addEntity(player);
+        this.serverPlayer = player;
         connection.sendEntitySpawn(WorldTypes.OVERWORLD, player);
         connection.sendPlayerBind(WorldTypes.OVERWORLD, player.getUuid());
         this.camera.setFollowTargetScale(this.clientWorld.getTileSize());
@@ -296,12 +354,8 @@ public class GameClient implements Runnable {
                                 return "Biome: unknown";
 
                             Vector2d pos = localPlayerOpt.get().getPosition();
-                            var tilePos = new TilePos(
-                                    (int) Math.floor(pos.x),
-                                    (int) Math.floor(pos.y));
-                            return this.clientWorld.getBiome(tilePos)
-                                    .map(biome -> "Biome: " + biome.getId())
-                                    .orElse("Biome: unknown");
+                            Biome biome = this.clientWorld.getBiomeRaw((int) Math.floor(pos.x), (int) Math.floor(pos.y));
+                            return biome == null ? "Biome: unknown" : "Biome: " + biome.getId();
                         })
                         .position(8, 28)
                         .build());
@@ -362,18 +416,46 @@ public class GameClient implements Runnable {
             try {
                 updateLoadingScreen(0.05f, "Generating chunks...");
                 var integratedServer = new IntegratedServer();
-                var overworld = new ServerWorld(WorldTypes.OVERWORLD);
-                int totalChunks = 101 * 101;
-                int chunksGenerated = 0;
-                for (int chunkX = -50; chunkX <= 50; chunkX++) {
-                    for (int chunkY = -50; chunkY <= 50; chunkY++) {
-                        overworld.addChunk(new ChunkPos(chunkX, chunkY));
-                        chunksGenerated++;
-                        float progress = 0.05f + 0.6f * (chunksGenerated / (float) totalChunks);
-                        updateLoadingScreen(progress, "Generating chunks...");
+                Path worldDataPath = SAVE_DIRECTORY.resolve("level.json");
+                WorldData worldData = Files.exists(worldDataPath) ?
+                        WorldData.readJson(worldDataPath) :
+                        new WorldData(World.randomizeWorldSeed());
+                worldData.writeJson(worldDataPath);
+
+                var overworld = new ServerWorld(WorldTypes.OVERWORLD, worldData);
+                overworld.setChunkIO(new ChunkIOService(new ChunkStorage(regionDirectory(WorldTypes.OVERWORLD))));
+                overworld.setEvictionPolicy(new ChunkEvictionPolicy(4096, 128L * 1024 * 1024, 600));
+                overworld.setCompressionPolicy(new ChunkCompressionPolicy(150, 1024, Deflater.BEST_SPEED));
+                overworld.getGenerationPipeline().setParallelExecutor(GENERATION_POOL);
+                updateLoadingScreen(0.05f, "Recovering unsaved changes...");
+                overworld.openJournal(regionDirectory(WorldTypes.OVERWORLD).resolveSibling("tiles.journal"),
+                        JOURNAL_SYNC_INTERVAL);
+                // Only the spawn area is prepared up front; the world's chunk tickets load the rest as players move.
+                int radius = ServerWorld.SPAWN_CHUNK_RADIUS;
+                List<ChunkPos> spawnChunks = new ArrayList<>();
+                for (int chunkX = -radius; chunkX <= radius; chunkX++) {
+                    for (int chunkY = -radius; chunkY <= radius; chunkY++) {
+                        spawnChunks.add(new ChunkPos(chunkX, chunkY));
                     }
                 }
 
+                int totalChunks = spawnChunks.size();
+                long generationStart = System.nanoTime();
+                overworld.addChunks(spawnChunks, chunksAdded -> updateLoadingScreen(
+                        0.05f + 0.6f * (chunksAdded / (float) totalChunks), "Generating chunks..."));
+
+                if (LOGGER.isInfoEnabled()) {
+                    long generationNanos = System.nanoTime() - generationStart;
+                    long storageBytes = overworld.getChunkStorageBytes();
+                    ChunkStorage storage = overworld.getChunkIO().getStorage();
+                    LOGGER.info("Prepared {} chunks in {} ms on {} thread(s) ({} chunks/sec)",
+                            totalChunks, generationNanos / 1_000_000, GENERATION_POOL.getParallelism(),
+                            String.format("%.0f", totalChunks * 1e9 / generationNanos));
+                    LOGGER.info("{} chunks loaded from disk at {} chunks/sec, using {} KiB of tile and biome storage ({} bytes per chunk)",
+                            storage.getChunksLoaded(), String.format("%.0f", storage.getLoadThroughput()),
+                            storageBytes / 1024, storageBytes / totalChunks);
+                }
+
                 updateLoadingScreen(0.7f, "Exporting biome map...");
                 Path biomeMapPath = Path.of("build", "biome_map.png");
                 BiomeMapExporter.export(overworld, biomeMapPath);
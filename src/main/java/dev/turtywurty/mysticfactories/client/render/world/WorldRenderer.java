@@ -9,7 +9,6 @@ import dev.turtywurty.mysticfactories.client.world.ClientWorld;
 import dev.turtywurty.mysticfactories.world.Chunk;
 import dev.turtywurty.mysticfactories.world.ChunkPos;
 import dev.turtywurty.mysticfactories.world.entity.Entity;
-import dev.turtywurty.mysticfactories.world.tile.TilePos;
 import dev.turtywurty.mysticfactories.world.tile.TileType;
 import dev.turtywurty.mysticfactories.world.tileentity.StackedTileEntity;
 import org.joml.Matrix4f;
@@ -20,15 +19,22 @@ import org.lwjgl.opengl.GL15;
 import org.lwjgl.opengl.GL20;
 import org.lwjgl.opengl.GL30;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 
 public class WorldRenderer {
+    private static final int SIZE_SHIFT = Integer.numberOfTrailingZeros(Chunk.SIZE);
+    // Meshes of chunks that are not visible are evicted beyond this many cached chunks; visible ones are always kept.
+    private static final int MAX_CACHED_CHUNK_MESHES = 512;
+
     private final EntityRendererRegistry entityRendererRegistry;
     private final Matrix4f modelMatrix = new Matrix4f();
-    private final Map<ChunkPos, ChunkRenderData> chunkMeshes = new HashMap<>();
+    // Access ordered, so the eldest entry is the chunk that was least recently rendered.
+    private final LinkedHashMap<ChunkPos, ChunkRenderData> chunkMeshes = new LinkedHashMap<>(64, 0.75f, true);
     private final TileAtlas tileAtlas;
 
     public WorldRenderer(EntityRendererRegistry entityRendererRegistry) {
@@ -40,27 +46,30 @@ public class WorldRenderer {
         float tileSize = world.getTileSize();
         cullMissingChunks(world);
 
-        for (Map.Entry<ChunkPos, Chunk> chunkEntry : world.getChunks().entrySet()) {
-            ChunkPos chunkPos = chunkEntry.getKey();
+        int visibleChunks = 0;
+        for (Chunk chunk : world.getChunks().values()) {
+            ChunkPos chunkPos = chunk.getPos();
             if (!isChunkVisible(tileRenderContext, chunkPos, tileSize))
                 continue;
 
-            ChunkRenderData renderData = this.chunkMeshes.compute(chunkPos, (pos, existing) -> {
-                int modificationCount = chunkEntry.getValue().getModificationCount();
-                if (existing == null || existing.modificationCount != modificationCount) {
-                    if (existing != null) {
-                        existing.cleanup();
-                    }
-
-                    return buildChunkRenderData(chunkEntry.getValue(), tileSize, modificationCount);
+            visibleChunks++;
+            ChunkRenderData renderData = this.chunkMeshes.get(chunkPos);
+            if (renderData == null || renderData.chunk != chunk) {
+                if (renderData != null) {
+                    renderData.cleanup();
                 }
 
-                return existing;
-            });
+                renderData = buildChunkRenderData(chunk, tileSize);
+                this.chunkMeshes.put(chunkPos, renderData);
+            } else if (renderData.version != chunk.getModificationCount()) {
+                renderData = updateChunkRenderData(renderData, tileSize);
+            }
 
             renderData.render(tileRenderContext, this.modelMatrix, this.tileAtlas);
         }
 
+        evictColdMeshes(Math.max(MAX_CACHED_CHUNK_MESHES, visibleChunks));
+
         renderVisibleEntities(world, entityRenderContext, tileSize);
     }
 
@@ -127,6 +136,18 @@ public class WorldRenderer {
         return xOverlap && yOverlap;
     }
 
+    /**
+     * Drops the least recently rendered meshes beyond {@code limit}. Visible chunks were rendered last, so a limit of at
+     * least the visible chunk count never evicts a mesh that is rebuilt in the next frame.
+     */
+    private void evictColdMeshes(int limit) {
+        Iterator<ChunkRenderData> iterator = this.chunkMeshes.values().iterator();
+        while (this.chunkMeshes.size() > limit && iterator.hasNext()) {
+            iterator.next().cleanup();
+            iterator.remove();
+        }
+    }
+
     private void cullMissingChunks(ClientWorld world) {
         this.chunkMeshes.entrySet().removeIf(entry -> {
             boolean missing = !world.getChunks().containsKey(entry.getKey());
@@ -138,40 +159,103 @@ public class WorldRenderer {
         });
     }
 
-    private ChunkRenderData buildChunkRenderData(Chunk chunk, float tileSize, int modificationCount) {
-        Map<TileType, List<TilePos>> tilesByType = new HashMap<>();
-        for (Map.Entry<TilePos, TileType> entry : chunk.getTiles().entrySet()) {
-            tilesByType.computeIfAbsent(entry.getValue(), ignored -> new ArrayList<>()).add(entry.getKey());
+    private ChunkRenderData buildChunkRenderData(Chunk chunk, float tileSize) {
+        var renderData = new ChunkRenderData(chunk);
+        Set<TileType> types = new HashSet<>();
+        for (int index = 0; index < Chunk.AREA; index++) {
+            TileType type = chunk.getTileRaw(index, index >> SIZE_SHIFT);
+            renderData.layout[index] = type;
+            if (type != null) {
+                types.add(type);
+            }
+        }
+
+        for (TileType type : types) {
+            rebuildMesh(renderData, type, tileSize);
         }
 
-        Map<TileType, TileBatchMesh> meshes = new HashMap<>();
-        for (Map.Entry<TileType, List<TilePos>> entry : tilesByType.entrySet()) {
-            TileBatchMesh mesh = createMeshForTileType(entry.getKey(), entry.getValue(), tileSize);
-            if (mesh != null) {
-                meshes.put(entry.getKey(), mesh);
+        renderData.version = chunk.getModificationCount();
+        return renderData;
+    }
+
+    /**
+     * Rebuilds only the meshes of tile types that were added or removed since the render data was last updated,
+     * falling back to a full rebuild when the chunk's change log no longer covers that version.
+     */
+    private ChunkRenderData updateChunkRenderData(ChunkRenderData renderData, float tileSize) {
+        Chunk chunk = renderData.chunk;
+        Set<TileType> affected = new HashSet<>();
+        boolean tracked = chunk.getChangeLog().forEachChangeSince(renderData.version, index -> {
+            TileType previous = renderData.layout[index];
+            TileType current = chunk.getTileRaw(index, index >> SIZE_SHIFT);
+            if (previous == current)
+                return;
+
+            renderData.layout[index] = current;
+            if (previous != null) {
+                affected.add(previous);
             }
+
+            if (current != null) {
+                affected.add(current);
+            }
+        });
+
+        if (!tracked) {
+            renderData.cleanup();
+            ChunkRenderData rebuilt = buildChunkRenderData(chunk, tileSize);
+            this.chunkMeshes.put(chunk.getPos(), rebuilt);
+            return rebuilt;
         }
 
-        return new ChunkRenderData(meshes, modificationCount);
+        for (TileType type : affected) {
+            rebuildMesh(renderData, type, tileSize);
+        }
+
+        renderData.version = chunk.getModificationCount();
+        return renderData;
+    }
+
+    private void rebuildMesh(ChunkRenderData renderData, TileType tileType, float tileSize) {
+        TileBatchMesh previous = renderData.meshes.remove(tileType);
+        if (previous != null) {
+            previous.cleanup();
+        }
+
+        TileBatchMesh mesh = createMeshForTileType(tileType, renderData.layout, renderData.chunk.getPos(), tileSize);
+        if (mesh != null) {
+            renderData.meshes.put(tileType, mesh);
+        }
     }
 
-    private TileBatchMesh createMeshForTileType(TileType tileType, List<TilePos> positions, float tileSize) {
-        if (positions.isEmpty())
+    private TileBatchMesh createMeshForTileType(TileType tileType, TileType[] layout, ChunkPos chunkPos, float tileSize) {
+        int tileCount = 0;
+        for (TileType type : layout) {
+            if (type == tileType) {
+                tileCount++;
+            }
+        }
+
+        if (tileCount == 0)
             return null;
 
         TileAtlas.UV uv = this.tileAtlas.getUv(tileType);
         if (uv == null)
             return null;
 
-        int tileCount = positions.size();
         float[] vertices = new float[tileCount * 4 * 4]; // 4 vertices, each 4 floats (pos + uv)
         int[] indices = new int[tileCount * 6]; // 2 triangles per tile
 
+        int baseX = chunkPos.x * Chunk.SIZE;
+        int baseY = chunkPos.y * Chunk.SIZE;
         float halfTile = tileSize * 0.5f;
-        for (int i = 0; i < tileCount; i++) {
-            TilePos pos = positions.get(i);
-            float centerX = pos.x() * tileSize;
-            float centerY = pos.y() * tileSize;
+        int i = 0;
+        for (int index = 0; index < layout.length; index++) {
+            if (layout[index] != tileType)
+                continue;
+
+            float centerX = (baseX + (index & (Chunk.SIZE - 1))) * tileSize;
+            float centerY = (baseY + (index >> SIZE_SHIFT)) * tileSize;
 
             float left = centerX - halfTile;
             float right = centerX + halfTile;
@@ -208,6 +292,7 @@ public class WorldRenderer {
             indices[baseIndex + 3] = baseVertex + 2;
             indices[baseIndex + 4] = baseVertex + 3;
             indices[baseIndex + 5] = baseVertex;
+            i++;
         }
 
         int vao = GL30.glGenVertexArrays();
@@ -233,7 +318,17 @@ public class WorldRenderer {
         return new TileBatchMesh(vao, vbo, ebo, indices.length);
     }
 
-    private record ChunkRenderData(Map<TileType, TileBatchMesh> meshes, int modificationCount) {
+    private static final class ChunkRenderData {
+        private final Chunk chunk;
+        // Tile type per local index as of the meshes' version, so changes can be diffed against it.
+        private final TileType[] layout = new TileType[Chunk.AREA];
+        private final Map<TileType, TileBatchMesh> meshes = new HashMap<>();
+        private int version;
+
+        ChunkRenderData(Chunk chunk) {
+            this.chunk = chunk;
+        }
+
         void render(TileRenderContext context, Matrix4f modelMatrix, TileAtlas atlas) {
             context.shader().setUniform("uModel", modelMatrix.identity());
             atlas.bind(0);
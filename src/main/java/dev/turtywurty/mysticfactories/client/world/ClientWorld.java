@@ -17,7 +17,13 @@ public class ClientWorld extends World {
 
     public void applyFullState(WorldSnapshot snapshot) {
         this.chunks.clear();
-        this.chunks.putAll(snapshot.chunks());
+        for (ChunkSnapshot chunk : snapshot.chunks().values()) {
+            this.chunks.put(new Chunk(chunk));
+        }
+    }
+
+    public void applyChunk(ChunkSnapshot chunk) {
+        this.chunks.put(new Chunk(chunk));
     }
 
     public void clearEntities() {
@@ -31,10 +37,6 @@ public class ClientWorld extends World {
         return 16f;
     }
 
-    public Optional<Entity> getEntity(UUID id) {
-        return this.entities.stream().filter(entity -> entity.getUuid().equals(id)).findFirst();
-    }
-
     public void removeEntityById(UUID id) {
         getEntity(id).ifPresent(this::removeEntity);
     }
@@ -1,5 +1,7 @@
 package dev.turtywurty.mysticfactories.client.world;
 
+import dev.turtywurty.mysticfactories.world.ChunkPos;
+import dev.turtywurty.mysticfactories.world.ChunkSnapshot;
 import dev.turtywurty.mysticfactories.world.WorldConnection;
 import dev.turtywurty.mysticfactories.world.WorldSnapshot;
 import dev.turtywurty.mysticfactories.world.WorldType;
@@ -31,6 +33,22 @@ public final class LocalWorldConnection implements WorldConnection {
         this.clientWorld.setTile(pos, type);
     }
 
+    @Override
+    public void sendChunkUpdate(WorldType worldType, ChunkSnapshot chunk) {
+        if (!isActive(worldType))
+            return;
+
+        this.clientWorld.applyChunk(chunk);
+    }
+
+    @Override
+    public void sendChunkUnload(WorldType worldType, ChunkPos pos) {
+        if (!isActive(worldType))
+            return;
+
+        this.clientWorld.removeChunk(pos.x, pos.y);
+    }
+
     @Override
     public void sendFullState(WorldType worldType, WorldSnapshot snapshot) {
         this.activeWorldType = worldType;
@@ -107,7 +107,7 @@ public class Biomes {
                             64,
                             IntProvider.constant(1),
                             new RandomScatterPlacementShape(),
-                            (world, pos) -> world.getTile(pos).orElse(null) == TileTypes.SAND
+                            (world, pos) -> world.getTileRaw(pos.x, pos.y) == TileTypes.SAND
                                     && world.getTileEntity(pos).isEmpty(),
                             Optional.empty()))
                     .build());
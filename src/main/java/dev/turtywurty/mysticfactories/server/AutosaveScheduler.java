@@ -0,0 +1,118 @@
+package dev.turtywurty.mysticfactories.server;
+
+import dev.turtywurty.mysticfactories.world.Chunk;
+import dev.turtywurty.mysticfactories.world.ChunkPos;
+import dev.turtywurty.mysticfactories.world.World;
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+
+/**
+ * Periodically saves a world's unsaved chunks, spreading the work over as many ticks as needed to stay within a
+ * per-tick time budget.
+ * <p>
+ * Each cycle starts by collecting the chunks that are {@link Chunk#isUnsaved() unsaved}. Every tick after that saves
+ * queued chunks until the budget is used up, always saving at least one so a cycle is guaranteed to finish, unless
+ * the I/O queue is full, in which case the tick saves nothing and the cycle resumes once it has room again.
+ */
+public class AutosaveScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AutosaveScheduler.class);
+
+    private final int intervalTicks;
+    private final long tickBudgetNanos;
+    private final ArrayDeque<ChunkPos> queue = new ArrayDeque<>();
+    private long nextCycleTick;
+    private long cycleStartNanos;
+    private long cycleTickNanos;
+    private int cycleTicks;
+    private int cycleSaved;
+    @Getter
+    private @Nullable Report lastReport;
+
+    public AutosaveScheduler(int intervalTicks, long tickBudgetNanos) {
+        if (intervalTicks <= 0)
+            throw new IllegalArgumentException("intervalTicks must be positive");
+
+        if (tickBudgetNanos <= 0)
+            throw new IllegalArgumentException("tickBudgetNanos must be positive");
+
+        this.intervalTicks = intervalTicks;
+        this.tickBudgetNanos = tickBudgetNanos;
+        this.nextCycleTick = intervalTicks;
+    }
+
+    public boolean isCycleRunning() {
+        return !this.queue.isEmpty();
+    }
+
+    public void tick(World world, long time) {
+        if (this.queue.isEmpty()) {
+            if (time < this.nextCycleTick)
+                return;
+
+            this.nextCycleTick = time + this.intervalTicks;
+            if (!startCycle(world))
+                return;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + this.tickBudgetNanos;
+        do {
+            // The rest of the cycle waits for the I/O queue to drain.
+            if (world.isSaveQueueFull())
+                break;
+
+            ChunkPos pos = this.queue.poll();
+            Chunk chunk = world.getChunkRaw(pos.x, pos.y);
+            // Chunks unloaded since the cycle started were saved on their way out.
+            if (chunk != null && world.saveChunk(chunk)) {
+                this.cycleSaved++;
+            }
+        } while (!this.queue.isEmpty() && System.nanoTime() < deadline);
+
+        this.cycleTickNanos += System.nanoTime() - start;
+        this.cycleTicks++;
+        if (this.queue.isEmpty()) {
+            finishCycle(world);
+        }
+    }
+
+    private boolean startCycle(World world) {
+        for (Map.Entry<ChunkPos, Chunk> entry : world.getChunks().entrySet()) {
+            if (entry.getValue().isUnsaved()) {
+                this.queue.add(entry.getKey());
+            }
+        }
+
+        if (this.queue.isEmpty())
+            return false;
+
+        this.cycleStartNanos = System.nanoTime();
+        this.cycleTickNanos = 0;
+        this.cycleTicks = 0;
+        this.cycleSaved = 0;
+        return true;
+    }
+
+    private void finishCycle(World world) {
+        this.lastReport = new Report(this.cycleSaved, this.cycleTicks, this.cycleTickNanos,
+                System.nanoTime() - this.cycleStartNanos);
+        if (world.getChunkIO() != null) {
+            world.getChunkIO().flush();
+        }
+
+        LOGGER.info("Autosaved {} chunk(s) of {} over {} tick(s): {} ms on the tick thread, {} ms in total",
+                this.lastReport.chunksSaved(), world.getWorldType().getId(), this.lastReport.ticks(),
+                this.lastReport.tickNanos() / 1_000_000, this.lastReport.totalNanos() / 1_000_000);
+    }
+
+    /**
+     * @param tickNanos  the time spent saving on the tick thread
+     * @param totalNanos the wall-clock time from the start of the cycle to its end
+     */
+    public record Report(int chunksSaved, int ticks, long tickNanos, long totalNanos) {}
+}
@@ -0,0 +1,230 @@
+package dev.turtywurty.mysticfactories.server;
+
+import dev.turtywurty.mysticfactories.world.ChunkPos;
+import dev.turtywurty.mysticfactories.world.ChunkTicketManager;
+import dev.turtywurty.mysticfactories.world.World;
+import dev.turtywurty.mysticfactories.world.entity.Entity;
+import dev.turtywurty.mysticfactories.world.entity.impl.PlayerEntity;
+import org.joml.Vector2d;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Loads the chunks players are heading towards before their view distance reaches them.
+ * <p>
+ * Each tick, every player's position is extrapolated {@code lookaheadTicks} ahead from {@link Entity#getVelocity()},
+ * or from how far they moved since the last tick when the velocity is zero (as it is for players whose movement is
+ * applied on the client). The view-distance squares along that path that no ticket covers yet become the wanted set.
+ * Prefetches have a lower priority than ticketed chunks: they are only started while no other chunk load is pending,
+ * and at most {@code maxRequestsPerTick} at a time. Loads that fall out of the wanted set, for example because the
+ * player turned, are cancelled before the chunk is generated.
+ * <p>
+ * Whenever a player crosses into a new chunk, the chunks newly inside their view distance count as hits if they were
+ * already loaded and misses otherwise.
+ */
+public class ChunkPrefetcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChunkPrefetcher.class);
+    private static final double MIN_SPEED_PER_TICK = 1e-3;
+
+    private final int viewRadius;
+    private final int lookaheadTicks;
+    private final int maxRequestsPerTick;
+    private final Map<UUID, Track> tracks = new HashMap<>();
+    private final Set<Long> inFlight = new HashSet<>();
+    private long requested;
+    private long cancelled;
+    private long hits;
+    private long misses;
+
+    public ChunkPrefetcher(int viewRadius, int lookaheadTicks, int maxRequestsPerTick) {
+        if (viewRadius < 0)
+            throw new IllegalArgumentException("viewRadius cannot be negative");
+
+        if (lookaheadTicks <= 0)
+            throw new IllegalArgumentException("lookaheadTicks must be positive");
+
+        if (maxRequestsPerTick <= 0)
+            throw new IllegalArgumentException("maxRequestsPerTick must be positive");
+
+        this.viewRadius = viewRadius;
+        this.lookaheadTicks = lookaheadTicks;
+        this.maxRequestsPerTick = maxRequestsPerTick;
+    }
+
+    /**
+     * Call after the tickets have been applied for this tick, so ticketed chunks are already requested.
+     */
+    public void tick(World world, ChunkTicketManager tickets, double delta) {
+        Set<Long> wanted = new LinkedHashSet<>();
+        Set<UUID> present = new HashSet<>();
+        for (Entity entity : world.getEntities()) {
+            if (!(entity instanceof PlayerEntity player))
+                continue;
+
+            present.add(player.getUuid());
+            Vector2d position = player.getPosition();
+            int chunkX = ChunkPos.toChunkCoordinate((int) Math.floor(position.x));
+            int chunkZ = ChunkPos.toChunkCoordinate((int) Math.floor(position.y));
+            Track track = this.tracks.get(player.getUuid());
+            if (track == null) {
+                this.tracks.put(player.getUuid(), new Track(position, chunkX, chunkZ));
+                continue;
+            }
+
+            if (track.chunkX != chunkX || track.chunkZ != chunkZ) {
+                recordArrival(world, track.chunkX, track.chunkZ, chunkX, chunkZ);
+            }
+
+            Vector2d step = new Vector2d(player.getVelocity()).mul(delta);
+            if (step.lengthSquared() < MIN_SPEED_PER_TICK * MIN_SPEED_PER_TICK) {
+                step.set(position).sub(track.position);
+            }
+
+            track.update(position, chunkX, chunkZ);
+            if (step.lengthSquared() >= MIN_SPEED_PER_TICK * MIN_SPEED_PER_TICK) {
+                collectWanted(world, tickets, position, step, wanted);
+            }
+        }
+
+        this.tracks.keySet().retainAll(present);
+        cancelUnwanted(world, tickets, wanted);
+        issue(world, wanted);
+    }
+
+    public Report getReport() {
+        return new Report(this.requested, this.cancelled, this.hits, this.misses);
+    }
+
+    /**
+     * Logs the counters gathered so far and starts counting again.
+     */
+    public void logAndReset(World world) {
+        Report report = getReport();
+        if (report.hits() + report.misses() > 0 || report.requested() > 0) {
+            LOGGER.debug("Prefetch for {}: {} requested, {} cancelled, {} hits, {} misses ({}% hit rate)",
+                    world.getWorldType().getId(), report.requested(), report.cancelled(), report.hits(),
+                    report.misses(), String.format("%.1f", report.hitRate() * 100));
+        }
+
+        this.requested = 0;
+        this.cancelled = 0;
+        this.hits = 0;
+        this.misses = 0;
+    }
+
+    private void recordArrival(World world, int fromX, int fromZ, int toX, int toZ) {
+        for (int z = toZ - this.viewRadius; z <= toZ + this.viewRadius; z++) {
+            for (int x = toX - this.viewRadius; x <= toX + this.viewRadius; x++) {
+                if (Math.max(Math.abs(x - fromX), Math.abs(z - fromZ)) <= this.viewRadius)
+                    continue;
+
+                if (world.getChunkRaw(x, z) != null) {
+                    this.hits++;
+                } else {
+                    this.misses++;
+                }
+            }
+        }
+    }
+
+    private void collectWanted(World world, ChunkTicketManager tickets, Vector2d position, Vector2d step,
+                               Set<Long> wanted) {
+        double distance = step.length() * this.lookaheadTicks;
+        int samples = Math.max(1, (int) Math.ceil(distance / ChunkPos.SIZE));
+        for (int i = 1; i <= samples; i++) {
+            double scale = this.lookaheadTicks * (i / (double) samples);
+            int centerX = ChunkPos.toChunkCoordinate((int) Math.floor(position.x + step.x * scale));
+            int centerZ = ChunkPos.toChunkCoordinate((int) Math.floor(position.y + step.y * scale));
+            for (int z = centerZ - this.viewRadius; z <= centerZ + this.viewRadius; z++) {
+                for (int x = centerX - this.viewRadius; x <= centerX + this.viewRadius; x++) {
+                    if (!tickets.shouldBeLoaded(x, z) && world.getChunkRaw(x, z) == null) {
+                        wanted.add(ChunkPos.toLong(x, z));
+                    }
+                }
+            }
+        }
+    }
+
+    private void cancelUnwanted(World world, ChunkTicketManager tickets, Set<Long> wanted) {
+        List<ChunkPos> unwanted = new ArrayList<>();
+        this.inFlight.removeIf(key -> {
+            if (wanted.contains(key))
+                return false;
+
+            ChunkPos pos = ChunkPos.fromLong(key);
+            // Chunks a ticket now covers are still needed; the ticket shares the pending load.
+            if (!tickets.shouldBeLoaded(pos.x, pos.y)) {
+                unwanted.add(pos);
+            }
+
+            return true;
+        });
+
+        for (ChunkPos pos : unwanted) {
+            if (world.cancelChunkLoad(pos)) {
+                this.cancelled++;
+            }
+        }
+    }
+
+    private void issue(World world, Set<Long> wanted) {
+        int issued = 0;
+        for (long key : wanted) {
+            if (issued >= this.maxRequestsPerTick || world.getPendingChunkLoadCount() > this.inFlight.size())
+                return;
+
+            if (!this.inFlight.add(key))
+                continue;
+
+            ChunkPos pos = ChunkPos.fromLong(key);
+            this.requested++;
+            issued++;
+            world.addChunkAsync(pos).whenComplete((loaded, error) -> {
+                this.inFlight.remove(key);
+                if (loaded != null) {
+                    loaded.setLastAccessTime(world.getTime());
+                }
+            });
+        }
+    }
+
+    private static final class Track {
+        private final Vector2d position;
+        private int chunkX;
+        private int chunkZ;
+
+        private Track(Vector2d position, int chunkX, int chunkZ) {
+            this.position = new Vector2d(position);
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
+
+        private void update(Vector2d position, int chunkX, int chunkZ) {
+            this.position.set(position);
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
+    }
+
+    /**
+     * @param requested chunk loads started by the prefetcher
+     * @param cancelled started loads that were abandoned before the chunk was generated
+     * @param hits      chunks that were already loaded when they entered a player's view distance
+     * @param misses    chunks that were not
+     */
+    public record Report(long requested, long cancelled, long hits, long misses) {
+        public double hitRate() {
+            long total = this.hits + this.misses;
+            return total == 0 ? 0 : this.hits / (double) total;
+        }
+    }
+}
@@ -39,5 +39,7 @@ public class DedicatedServer extends Server implements Runnable {
                 break;
             }
         }
+
+        shutdown();
     }
 }
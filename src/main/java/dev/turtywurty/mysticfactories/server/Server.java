@@ -25,4 +25,11 @@ public abstract class Server {
     public void tick(double delta) {
         this.worlds.values().forEach(world -> world.tick(delta));
     }
+
+    /**
+     * Flushes every world's unsaved chunks to disk, blocking until they are written.
+     */
+    public void shutdown() {
+        this.worlds.values().forEach(ServerWorld::shutdown);
+    }
 }
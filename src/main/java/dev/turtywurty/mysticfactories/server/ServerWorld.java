@@ -1,50 +1,375 @@
 package dev.turtywurty.mysticfactories.server;
 
+import dev.turtywurty.mysticfactories.world.Chunk;
+import dev.turtywurty.mysticfactories.world.ChunkCompressionStats;
+import dev.turtywurty.mysticfactories.world.ChunkIOService;
+import dev.turtywurty.mysticfactories.world.ChunkPos;
+import dev.turtywurty.mysticfactories.world.ChunkStatus;
+import dev.turtywurty.mysticfactories.world.ChunkStorage;
+import dev.turtywurty.mysticfactories.world.ChunkStorageDeduplicator;
+import dev.turtywurty.mysticfactories.world.ChunkTicket;
+import dev.turtywurty.mysticfactories.world.ChunkTicketManager;
+import dev.turtywurty.mysticfactories.world.TicketType;
+import dev.turtywurty.mysticfactories.world.TileChangeJournal;
 import dev.turtywurty.mysticfactories.world.World;
 import dev.turtywurty.mysticfactories.world.WorldConnection;
 import dev.turtywurty.mysticfactories.world.WorldData;
 import dev.turtywurty.mysticfactories.world.WorldType;
 import dev.turtywurty.mysticfactories.world.entity.Entity;
+import dev.turtywurty.mysticfactories.world.entity.impl.PlayerEntity;
 import dev.turtywurty.mysticfactories.world.physics.CollisionResolver;
 import dev.turtywurty.mysticfactories.world.tile.TilePos;
 import dev.turtywurty.mysticfactories.world.tile.TileType;
+import dev.turtywurty.mysticfactories.world.tileentity.TileEntity;
+import lombok.Getter;
 import lombok.Setter;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Vector2d;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class ServerWorld extends World {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServerWorld.class);
+    private static final int PLAYER_CHUNK_RADIUS = 4;
+    public static final int SPAWN_CHUNK_RADIUS = PLAYER_CHUNK_RADIUS + 1;
+    private static final int EVICTION_INTERVAL_TICKS = 20;
+    /**
+     * How long a chunk no ticket reaches stays loaded, so walking back and forth over a border does not reload it.
+     */
+    private static final int UNTICKETED_UNLOAD_TICKS = 10 * 30;
+    private static final int PREFETCH_LOOKAHEAD_TICKS = 4 * 30;
+    private static final int PREFETCH_REQUESTS_PER_TICK = 2;
+    private static final int PREFETCH_REPORT_INTERVAL_TICKS = 60 * 30;
+    private static final int DEDUP_REPORT_INTERVAL_TICKS = 60 * 30;
+    private static final int AUTOSAVE_INTERVAL_TICKS = 30 * 60;
+    private static final long AUTOSAVE_TICK_BUDGET_NANOS = 2_000_000L;
+    /**
+     * Above this many tiles, a batch of writes to a chunk is sent as a chunk update rather than tile by tile.
+     */
+    private static final int MAX_TILE_UPDATES_PER_BATCH = 64;
+
     @Setter
     private WorldConnection connection;
+    @Getter
+    private final AutosaveScheduler autosave = new AutosaveScheduler(AUTOSAVE_INTERVAL_TICKS, AUTOSAVE_TICK_BUDGET_NANOS);
+    @Getter
+    private final ChunkTicketManager tickets = new ChunkTicketManager();
+    private final Map<UUID, ChunkTicket> playerTickets = new HashMap<>();
+    private @Nullable TileChangeJournal journal;
+    @Getter
+    private final ChunkPrefetcher prefetcher =
+            new ChunkPrefetcher(PLAYER_CHUNK_RADIUS, PREFETCH_LOOKAHEAD_TICKS, PREFETCH_REQUESTS_PER_TICK);
+
+    public ServerWorld(WorldType worldType, WorldData worldData) {
+        super(worldType, worldData);
+        this.tickets.addRegionTicket(TicketType.SPAWN, new ChunkPos(0, 0), SPAWN_CHUNK_RADIUS);
+    }
 
     public ServerWorld(WorldType worldType, long seed) {
-        super(worldType, new WorldData(seed));
+        this(worldType, new WorldData(seed));
     }
 
     public ServerWorld(WorldType worldType) {
         this(worldType, World.randomizeWorldSeed());
     }
 
+    /**
+     * Replays the journal left at {@code file} by a previous run, saves the chunks it touched, then starts journaling
+     * this world's tile edits to it. Requires chunk storage.
+     */
+    public void openJournal(Path file, Duration syncInterval) throws IOException {
+        ChunkIOService chunkIO = getChunkIO();
+        if (chunkIO == null)
+            throw new IllegalStateException("Cannot journal tile changes without chunk storage");
+
+        if (this.journal != null)
+            throw new IllegalStateException("A journal is already open for " + this.worldType.getId());
+
+        TileChangeJournal.Replay replay = TileChangeJournal.replay(file, this);
+        if (replay.applied() > 0) {
+            saveAll();
+            chunkIO.flush().join();
+            LOGGER.info("Recovered {} tile change(s) of {} from {}", replay.applied(), this.worldType.getId(), file);
+        }
+
+        if (replay.skipped() > 0) {
+            LOGGER.debug("Skipped {} journal record(s) of {} already held by saved chunks",
+                    replay.skipped(), this.worldType.getId());
+        }
+
+        this.journal = new TileChangeJournal(file, syncInterval, replay.nextSequence());
+    }
+
     @Override
     public void setTile(TilePos pos, TileType type) {
         super.setTile(pos, type);
+        if (isJournaling()) {
+            journaled(pos, this.journal.logSetTile(pos, type));
+        }
+
         if (this.connection != null) {
             this.connection.sendTileUpdate(this.worldType, pos, type);
         }
     }
 
+    @Override
+    public void setTileEntity(TilePos pos, TileEntity tileEntity) {
+        super.setTileEntity(pos, tileEntity);
+        if (isJournaling() && getChunkAt(pos.x, pos.y) != null) {
+            journaled(pos, this.journal.logSetTileEntity(pos, tileEntity));
+        }
+    }
+
+    @Override
+    public void pushTileEntity(TilePos pos, TileEntity tileEntity) {
+        super.pushTileEntity(pos, tileEntity);
+        if (isJournaling()) {
+            journaled(pos, this.journal.logPushTileEntity(pos, tileEntity));
+        }
+    }
+
+    @Override
+    public Optional<TileEntity> popTileEntity(TilePos pos) {
+        Optional<TileEntity> popped = super.popTileEntity(pos);
+        if (isJournaling() && popped.isPresent()) {
+            journaled(pos, this.journal.logPopTileEntity(pos));
+        }
+
+        return popped;
+    }
+
+    /**
+     * Writes made while a chunk is loaded or generated are not edits, and replaying them would apply them twice.
+     */
+    private boolean isJournaling() {
+        return this.journal != null && !isInstallingChunk();
+    }
+
+    /**
+     * Records that the chunk holding {@code pos} includes the journal record {@code sequence}, so its next save tells
+     * a replay to skip it.
+     */
+    private void journaled(TilePos pos, long sequence) {
+        Chunk chunk = getChunkAt(pos.x, pos.y);
+        if (chunk != null) {
+            chunk.setJournalSequence(sequence);
+        }
+    }
+
+    @Override
+    protected void onChunkSaved(Chunk chunk, CompletableFuture<Void> written) {
+        TileChangeJournal journal = this.journal;
+        if (journal == null)
+            return;
+
+        long sequence = journal.getSequence();
+        ChunkPos pos = chunk.getPos();
+        written.thenRun(() -> journal.release(pos, sequence));
+    }
+
+    /**
+     * Journals a region's batch of writes to the chunk as one record, then sends it as tile updates. Batches too large
+     * for that, and biome changes, which tile updates do not carry, send the whole chunk instead.
+     */
+    @Override
+    protected void onChunkModified(Chunk chunk, int[] changedTiles, boolean biomesChanged) {
+        if (isJournaling() && changedTiles.length > 0) {
+            chunk.setJournalSequence(this.journal.logSetTiles(chunk, changedTiles));
+        }
+
+        if (this.connection == null)
+            return;
+
+        if (biomesChanged || changedTiles.length > MAX_TILE_UPDATES_PER_BATCH) {
+            this.connection.sendChunkUpdate(this.worldType, chunk.snapshot());
+            return;
+        }
+
+        ChunkPos pos = chunk.getPos();
+        for (int index : changedTiles) {
+            int x = pos.x * Chunk.SIZE + (index & (Chunk.SIZE - 1));
+            int y = pos.y * Chunk.SIZE + index / Chunk.SIZE;
+            this.connection.sendTileUpdate(this.worldType, new TilePos(x, y), chunk.getTileRaw(x, y));
+        }
+    }
+
+    /**
+     * Sends players the bare surface of chunks they will need, so they can see them before features are placed. The
+     * full chunk follows from {@link #onChunkLoaded(Chunk)}. Only chunks requested in full are sent: neighbours
+     * generated only for their surface would never be unloaded from the client, and a chunk that has been loaded in
+     * the meantime is newer than its generated surface.
+     */
+    @Override
+    protected void onChunkSurfaceGenerated(Chunk chunk) {
+        ChunkPos pos = chunk.getPos();
+        if (this.connection == null || getChunkRaw(pos.x, pos.y) != null
+                || !getGenerationPipeline().isRequested(pos.x, pos.y, ChunkStatus.FULL))
+            return;
+
+        if (this.tickets.shouldBeLoaded(pos.x, pos.y)) {
+            this.connection.sendChunkUpdate(this.worldType, chunk.snapshot());
+        }
+    }
+
+    @Override
+    protected void onChunkLoaded(Chunk chunk) {
+        if (this.connection == null)
+            return;
+
+        this.connection.sendChunkUpdate(this.worldType, chunk.snapshot());
+        chunk.forEachTileEntity(tileEntity -> this.connection.sendEntitySpawn(this.worldType, tileEntity));
+    }
+
+    @Override
+    protected void onChunkUnloaded(Chunk chunk) {
+        if (this.connection == null)
+            return;
+
+        chunk.forEachTileEntity(tileEntity -> this.connection.sendEntityRemove(this.worldType, tileEntity.getUuid()));
+        this.connection.sendChunkUnload(this.worldType, chunk.getPos());
+    }
+
     @Override
     public void tick(double delta) {
+        this.time++;
+        runMainThreadTasks();
         processPendingEntityRemovals();
 
-        for (Entity entity : this.tickingEntities) {
+        updatePlayerTickets();
+        this.tickets.tick(this.time);
+        this.tickets.forEachTicketedChunk(this::requireChunk);
+        if (getChunkIO() != null) {
+            this.prefetcher.tick(this, this.tickets, delta);
+            if (this.time % PREFETCH_REPORT_INTERVAL_TICKS == 0) {
+                this.prefetcher.logAndReset(this);
+            }
+        }
+
+        this.tickingEntities.forEach(entity -> {
             if (entity.isRemoved())
-                continue;
+                return;
 
             CollisionResolver.moveEntity(this, entity, delta);
             if (entity.isRemoved())
-                continue;
+                return;
 
             entity.tick(delta);
-        }
+        });
 
         processPendingEntityRemovals();
+
+        if (this.time % EVICTION_INTERVAL_TICKS == 0) {
+            int evicted = unloadIdleChunks(UNTICKETED_UNLOAD_TICKS) + evictChunks();
+            if (evicted > 0) {
+                LOGGER.debug("Evicted {} idle chunk(s), {} remain loaded", evicted, this.chunks.size());
+            }
+
+            // Neighbours generated for chunks that have since been unloaded are not needed any more.
+            getGenerationPipeline().dropIdle(UNTICKETED_UNLOAD_TICKS);
+
+            int compressed = compressIdleChunks();
+            if (compressed > 0) {
+                ChunkCompressionStats stats = getChunkCompressionStats();
+                LOGGER.debug("Compressed {} idle chunk(s); {} hot ({} KiB), {} compressed ({} KiB, {}x, {} KiB saved)",
+                        compressed, stats.hotChunks(), stats.hotBytes() / 1024, stats.compressedChunks(),
+                        stats.compressedBytes() / 1024, String.format("%.1f", stats.compressionRatio()),
+                        stats.bytesSaved() / 1024);
+            }
+        }
+
+        if (this.time % DEDUP_REPORT_INTERVAL_TICKS == 0 && !this.chunks.isEmpty()) {
+            ChunkStorageDeduplicator deduplicator = getStorageDeduplicator();
+            LOGGER.debug("{} loaded chunk(s) share {} storage instance(s) ({}x dedup)", this.chunks.size(),
+                    deduplicator.getInstanceCount(), String.format("%.1f", deduplicator.getDedupRatio()));
+        }
+
+        if (getChunkIO() != null) {
+            this.autosave.tick(this, this.time);
+        }
+    }
+
+    /**
+     * Moves each player's ticket to the chunk they are in, and drops the tickets of players that left this world.
+     */
+    private void updatePlayerTickets() {
+        Set<UUID> present = new HashSet<>();
+        for (Entity entity : this.entities) {
+            if (!(entity instanceof PlayerEntity player))
+                continue;
+
+            present.add(player.getUuid());
+            Vector2d position = player.getPosition();
+            var pos = new ChunkPos(
+                    ChunkPos.toChunkCoordinate((int) Math.floor(position.x)),
+                    ChunkPos.toChunkCoordinate((int) Math.floor(position.y)));
+            ChunkTicket current = this.playerTickets.get(player.getUuid());
+            if (current != null && current.pos().equals(pos))
+                continue;
+
+            if (current != null) {
+                this.tickets.removeTicket(current);
+            }
+
+            ChunkTicket ticket = this.tickets.addRegionTicket(TicketType.PLAYER, pos, PLAYER_CHUNK_RADIUS);
+            this.playerTickets.put(player.getUuid(), ticket);
+        }
+
+        this.playerTickets.entrySet().removeIf(entry -> {
+            if (present.contains(entry.getKey()))
+                return false;
+
+            this.tickets.removeTicket(entry.getValue());
+            return true;
+        });
+    }
+
+    /**
+     * Saves every unsaved chunk and blocks until they have been written, then closes the chunk storage.
+     */
+    public void shutdown() {
+        ChunkIOService chunkIO = getChunkIO();
+        if (chunkIO == null)
+            return;
+
+        long start = System.nanoTime();
+        int saved = 0;
+        int queued;
+        // Chunks left over while the queue was full are saved once it has drained. Stops once a pass queues nothing,
+        // since writing or serializing keeps failing then.
+        do {
+            chunkIO.flush().join();
+            queued = saveAll();
+            saved += queued;
+        } while (queued > 0 && getUnsavedChunkCount() > 0);
+
+        chunkIO.close();
+        setChunkIO(null);
+        int unsaved = getUnsavedChunkCount();
+        if (unsaved > 0) {
+            LOGGER.error("{} chunk(s) of {} could not be saved", unsaved, this.worldType.getId(),
+                    chunkIO.getLastWriteFailure());
+        }
+
+        if (this.journal != null) {
+            // Records of chunks whose saves reached the disk are released; the rest are kept for the next replay.
+            this.journal.close();
+            this.journal = null;
+        }
+
+        ChunkStorage storage = chunkIO.getStorage();
+        LOGGER.info("Saved {} chunk(s) of {} in {} ms ({} chunks/sec written, {}% deduplicated on disk)", saved,
+                this.worldType.getId(), (System.nanoTime() - start) / 1_000_000,
+                String.format("%.0f", storage.getSaveThroughput()), String.format("%.1f", storage.getDedupRatio() * 100));
     }
 }
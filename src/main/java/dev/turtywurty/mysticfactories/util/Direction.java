@@ -2,7 +2,7 @@ package dev.turtywurty.mysticfactories.util;
 
 import org.joml.Vector2i;
 
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public enum Direction {
     NORTH,
@@ -10,6 +10,8 @@ public enum Direction {
     SOUTH,
     WEST;
 
+    private static final Direction[] VALUES = values();
+
     public static Direction fromDelta(int dx, int dy) {
         if (dx == 0 && dy < 0) return NORTH;
         if (dx > 0 && dy == 0) return EAST;
@@ -18,9 +20,8 @@ public enum Direction {
         throw new IllegalArgumentException("Invalid delta values: dx=" + dx + ", dy=" + dy);
     }
 
-    public static Direction randomDirection(Random random) {
-        Direction[] directions = values();
-        return directions[random.nextInt(directions.length)];
+    public static Direction randomDirection(RandomGenerator random) {
+        return VALUES[random.nextInt(VALUES.length)];
     }
 
     public static Direction fromAngleDegrees(float angle) {
@@ -0,0 +1,284 @@
+package dev.turtywurty.mysticfactories.util.binary;
+
+import com.mojang.datafixers.util.Pair;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.MapLike;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.CompoundTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.DoubleArrayTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.DoubleTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.End;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.FloatTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.IntTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.ListTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.StringTag;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * {@link DynamicOps} for {@link BinaryTag} trees, a compact NBT-like alternative to {@code JsonOps}.
+ * <p>
+ * Integral numbers collapse into {@link IntTag}s, and lists made up only of doubles (such as
+ * {@link dev.turtywurty.mysticfactories.util.Codecs#VECTOR2D}) become {@link DoubleArrayTag}s. Map keys must be
+ * strings.
+ */
+public final class BinaryOps implements DynamicOps<BinaryTag> {
+    public static final BinaryOps INSTANCE = new BinaryOps();
+
+    private BinaryOps() {}
+
+    @Override
+    public BinaryTag empty() {
+        return End.INSTANCE;
+    }
+
+    @Override
+    public <U> U convertTo(DynamicOps<U> outOps, BinaryTag input) {
+        return switch (input) {
+            case End ignored -> outOps.empty();
+            case IntTag tag -> outOps.createLong(tag.value());
+            case FloatTag tag -> outOps.createFloat(tag.value());
+            case DoubleTag tag -> outOps.createDouble(tag.value());
+            case StringTag tag -> outOps.createString(tag.value());
+            case ListTag ignored -> convertList(outOps, input);
+            case DoubleArrayTag ignored -> convertList(outOps, input);
+            case CompoundTag ignored -> convertMap(outOps, input);
+        };
+    }
+
+    @Override
+    public DataResult<Number> getNumberValue(BinaryTag input) {
+        return switch (input) {
+            case IntTag tag -> DataResult.success(tag.value());
+            case FloatTag tag -> DataResult.success(tag.value());
+            case DoubleTag tag -> DataResult.success(tag.value());
+            default -> DataResult.error(() -> "Not a number: " + input);
+        };
+    }
+
+    @Override
+    public BinaryTag createNumeric(Number value) {
+        if (value instanceof Double doubleValue)
+            return new DoubleTag(doubleValue);
+
+        if (value instanceof Float floatValue)
+            return new FloatTag(floatValue);
+
+        return new IntTag(value.longValue());
+    }
+
+    @Override
+    public BinaryTag createByte(byte value) {
+        return new IntTag(value);
+    }
+
+    @Override
+    public BinaryTag createShort(short value) {
+        return new IntTag(value);
+    }
+
+    @Override
+    public BinaryTag createInt(int value) {
+        return new IntTag(value);
+    }
+
+    @Override
+    public BinaryTag createLong(long value) {
+        return new IntTag(value);
+    }
+
+    @Override
+    public BinaryTag createFloat(float value) {
+        return new FloatTag(value);
+    }
+
+    @Override
+    public BinaryTag createDouble(double value) {
+        return new DoubleTag(value);
+    }
+
+    @Override
+    public BinaryTag createBoolean(boolean value) {
+        return new IntTag(value ? 1 : 0);
+    }
+
+    @Override
+    public DataResult<String> getStringValue(BinaryTag input) {
+        if (input instanceof StringTag tag)
+            return DataResult.success(tag.value());
+
+        return DataResult.error(() -> "Not a string: " + input);
+    }
+
+    @Override
+    public BinaryTag createString(String value) {
+        return new StringTag(value);
+    }
+
+    @Override
+    public DataResult<BinaryTag> mergeToList(BinaryTag list, BinaryTag value) {
+        return mergeToList(list, List.of(value));
+    }
+
+    @Override
+    public DataResult<BinaryTag> mergeToList(BinaryTag list, List<BinaryTag> values) {
+        List<BinaryTag> merged = switch (list) {
+            case End ignored -> new ArrayList<>(values.size());
+            case ListTag tag -> new ArrayList<>(tag.values());
+            case DoubleArrayTag tag -> new ArrayList<>(toTags(tag.values()));
+            default -> null;
+        };
+        if (merged == null)
+            return DataResult.error(() -> "Not a list: " + list, list);
+
+        merged.addAll(values);
+        return DataResult.success(list(merged));
+    }
+
+    @Override
+    public DataResult<BinaryTag> mergeToMap(BinaryTag map, BinaryTag key, BinaryTag value) {
+        return mergeToMap(map, Map.of(key, value));
+    }
+
+    @Override
+    public DataResult<BinaryTag> mergeToMap(BinaryTag map, Map<BinaryTag, BinaryTag> values) {
+        return mergeToMap(map, values.entrySet().stream()
+                .map(entry -> Pair.<BinaryTag, BinaryTag>of(entry.getKey(), entry.getValue())));
+    }
+
+    @Override
+    public DataResult<BinaryTag> mergeToMap(BinaryTag map, MapLike<BinaryTag> values) {
+        return mergeToMap(map, values.entries());
+    }
+
+    private DataResult<BinaryTag> mergeToMap(BinaryTag map, Stream<Pair<BinaryTag, BinaryTag>> entries) {
+        Map<String, BinaryTag> merged;
+        if (map instanceof CompoundTag tag) {
+            merged = new LinkedHashMap<>(tag.values());
+        } else if (map instanceof End) {
+            merged = new LinkedHashMap<>();
+        } else {
+            return DataResult.error(() -> "Not a map: " + map, map);
+        }
+
+        List<BinaryTag> invalidKeys = new ArrayList<>();
+        entries.forEach(entry -> {
+            if (entry.getFirst() instanceof StringTag key) {
+                merged.put(key.value(), entry.getSecond());
+            } else {
+                invalidKeys.add(entry.getFirst());
+            }
+        });
+
+        CompoundTag result = new CompoundTag(Collections.unmodifiableMap(merged));
+        if (!invalidKeys.isEmpty())
+            return DataResult.error(() -> "Map keys must be strings: " + invalidKeys, result);
+
+        return DataResult.success(result);
+    }
+
+    @Override
+    public DataResult<Stream<Pair<BinaryTag, BinaryTag>>> getMapValues(BinaryTag input) {
+        if (!(input instanceof CompoundTag tag))
+            return DataResult.error(() -> "Not a map: " + input);
+
+        return DataResult.success(tag.values().entrySet().stream()
+                .map(entry -> Pair.<BinaryTag, BinaryTag>of(new StringTag(entry.getKey()), entry.getValue())));
+    }
+
+    @Override
+    public DataResult<MapLike<BinaryTag>> getMap(BinaryTag input) {
+        if (!(input instanceof CompoundTag tag))
+            return DataResult.error(() -> "Not a map: " + input);
+
+        return DataResult.success(new MapLike<>() {
+            @Override
+            public @Nullable BinaryTag get(BinaryTag key) {
+                return key instanceof StringTag stringKey ? tag.values().get(stringKey.value()) : null;
+            }
+
+            @Override
+            public @Nullable BinaryTag get(String key) {
+                return tag.values().get(key);
+            }
+
+            @Override
+            public Stream<Pair<BinaryTag, BinaryTag>> entries() {
+                return tag.values().entrySet().stream()
+                        .map(entry -> Pair.<BinaryTag, BinaryTag>of(new StringTag(entry.getKey()), entry.getValue()));
+            }
+        });
+    }
+
+    @Override
+    public BinaryTag createMap(Stream<Pair<BinaryTag, BinaryTag>> map) {
+        Map<String, BinaryTag> values = new LinkedHashMap<>();
+        map.forEach(entry -> {
+            if (!(entry.getFirst() instanceof StringTag key))
+                throw new IllegalArgumentException("Map keys must be strings: " + entry.getFirst());
+
+            values.put(key.value(), entry.getSecond());
+        });
+        return new CompoundTag(Collections.unmodifiableMap(values));
+    }
+
+    @Override
+    public DataResult<Stream<BinaryTag>> getStream(BinaryTag input) {
+        return switch (input) {
+            case ListTag tag -> DataResult.success(tag.values().stream());
+            case DoubleArrayTag tag -> DataResult.success(Arrays.stream(tag.values()).<BinaryTag>mapToObj(DoubleTag::new));
+            default -> DataResult.error(() -> "Not a list: " + input);
+        };
+    }
+
+    @Override
+    public BinaryTag createList(Stream<BinaryTag> input) {
+        return list(input.toList());
+    }
+
+    @Override
+    public BinaryTag remove(BinaryTag input, String key) {
+        if (!(input instanceof CompoundTag tag) || !tag.values().containsKey(key))
+            return input;
+
+        Map<String, BinaryTag> values = new LinkedHashMap<>(tag.values());
+        values.remove(key);
+        return new CompoundTag(Collections.unmodifiableMap(values));
+    }
+
+    @Override
+    public String toString() {
+        return "Binary";
+    }
+
+    private static BinaryTag list(List<BinaryTag> values) {
+        if (values.isEmpty())
+            return new ListTag(List.of());
+
+        double[] doubles = new double[values.size()];
+        for (int i = 0; i < doubles.length; i++) {
+            if (!(values.get(i) instanceof DoubleTag tag))
+                return new ListTag(List.copyOf(values));
+
+            doubles[i] = tag.value();
+        }
+
+        return new DoubleArrayTag(doubles);
+    }
+
+    private static List<BinaryTag> toTags(double[] values) {
+        List<BinaryTag> tags = new ArrayList<>(values.length);
+        for (double value : values) {
+            tags.add(new DoubleTag(value));
+        }
+
+        return tags;
+    }
+}
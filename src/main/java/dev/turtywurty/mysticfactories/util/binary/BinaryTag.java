@@ -0,0 +1,33 @@
+package dev.turtywurty.mysticfactories.util.binary;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A value in the tree format of {@link BinaryOps}. Tags are immutable once built.
+ */
+public sealed interface BinaryTag {
+    record End() implements BinaryTag {
+        public static final End INSTANCE = new End();
+    }
+
+    /**
+     * Any integral value, from booleans to longs. Written as a zigzag varint.
+     */
+    record IntTag(long value) implements BinaryTag {}
+
+    record FloatTag(float value) implements BinaryTag {}
+
+    record DoubleTag(double value) implements BinaryTag {}
+
+    record StringTag(String value) implements BinaryTag {}
+
+    record ListTag(List<BinaryTag> values) implements BinaryTag {}
+
+    /**
+     * A list made up only of doubles, written as packed little-endian values without per-element type bytes.
+     */
+    record DoubleArrayTag(double[] values) implements BinaryTag {}
+
+    record CompoundTag(Map<String, BinaryTag> values) implements BinaryTag {}
+}
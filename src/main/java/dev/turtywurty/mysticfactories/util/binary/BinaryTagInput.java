@@ -0,0 +1,184 @@
+package dev.turtywurty.mysticfactories.util.binary;
+
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.CompoundTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.DoubleArrayTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.DoubleTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.End;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.FloatTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.IntTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.ListTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.StringTag;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads {@link BinaryTag}s written by a {@link BinaryTagOutput}, in the order they were written.
+ */
+public final class BinaryTagInput {
+    private static final int MAX_DEPTH = 512;
+
+    private final List<String> keys = new ArrayList<>();
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+    private int depth;
+
+    public BinaryTagInput(byte[] buffer) {
+        this(buffer, 0, buffer.length);
+    }
+
+    public BinaryTagInput(byte[] buffer, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > buffer.length)
+            throw new IllegalArgumentException("Range " + offset + "+" + length + " is outside the buffer");
+
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    public boolean hasRemaining() {
+        return this.position < this.limit;
+    }
+
+    public BinaryTag read() throws IOException {
+        byte type = readByte();
+        return switch (type) {
+            case BinaryTagOutput.END -> End.INSTANCE;
+            case BinaryTagOutput.INT -> new IntTag(readVarLong());
+            case BinaryTagOutput.FLOAT -> new FloatTag(readFloat());
+            case BinaryTagOutput.DOUBLE -> new DoubleTag(readDouble());
+            case BinaryTagOutput.STRING -> new StringTag(readString());
+            case BinaryTagOutput.LIST -> {
+                int size = readLength(1);
+                List<BinaryTag> values = new ArrayList<>(size);
+                enter();
+                for (int i = 0; i < size; i++) {
+                    values.add(read());
+                }
+
+                this.depth--;
+                yield new ListTag(Collections.unmodifiableList(values));
+            }
+            case BinaryTagOutput.DOUBLE_ARRAY -> {
+                double[] values = new double[readLength(Double.BYTES)];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = readDouble();
+                }
+
+                yield new DoubleArrayTag(values);
+            }
+            case BinaryTagOutput.COMPOUND -> {
+                int size = readLength(2);
+                Map<String, BinaryTag> values = new LinkedHashMap<>(size * 2);
+                enter();
+                for (int i = 0; i < size; i++) {
+                    String key = readKey();
+                    values.put(key, read());
+                }
+
+                this.depth--;
+                yield new CompoundTag(Collections.unmodifiableMap(values));
+            }
+            default -> throw new IOException("Unknown tag type " + type + " at offset " + (this.position - 1));
+        };
+    }
+
+    /**
+     * Reads a string written by {@link BinaryTagOutput#writeKey(String)}.
+     */
+    public String readKey() throws IOException {
+        int reference = readVarInt();
+        if (reference == 0) {
+            String key = readString();
+            this.keys.add(key);
+            return key;
+        }
+
+        if (reference > this.keys.size())
+            throw new IOException("Unknown key reference " + reference);
+
+        return this.keys.get(reference - 1);
+    }
+
+    public int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte next = readByte();
+            value |= (next & 0x7F) << shift;
+            if ((next & 0x80) == 0)
+                return value;
+        }
+
+        throw new IOException("VarInt is too long");
+    }
+
+    public long readVarLong() throws IOException {
+        long zigzag = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte next = readByte();
+            zigzag |= (long) (next & 0x7F) << shift;
+            if ((next & 0x80) == 0)
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+        throw new IOException("VarLong is too long");
+    }
+
+    public byte readByte() throws IOException {
+        require(1);
+        return this.buffer[this.position++];
+    }
+
+    public float readFloat() throws IOException {
+        require(Float.BYTES);
+        float value = Float.intBitsToFloat((int) BinaryTagOutput.INT_LE.get(this.buffer, this.position));
+        this.position += Float.BYTES;
+        return value;
+    }
+
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    public long readLong() throws IOException {
+        require(Long.BYTES);
+        long value = (long) BinaryTagOutput.LONG_LE.get(this.buffer, this.position);
+        this.position += Long.BYTES;
+        return value;
+    }
+
+    public String readString() throws IOException {
+        int length = readLength(1);
+        String value = new String(this.buffer, this.position, length, StandardCharsets.UTF_8);
+        this.position += length;
+        return value;
+    }
+
+    /**
+     * Reads a count of elements that each take at least {@code minElementBytes}, rejecting counts the remaining
+     * input could not hold.
+     */
+    private int readLength(int minElementBytes) throws IOException {
+        int length = readVarInt();
+        if (length < 0 || (long) length * minElementBytes > this.limit - this.position)
+            throw new IOException("Length " + length + " exceeds the remaining input");
+
+        return length;
+    }
+
+    private void enter() throws IOException {
+        if (++this.depth > MAX_DEPTH)
+            throw new IOException("Tags are nested too deeply");
+    }
+
+    private void require(int bytes) throws IOException {
+        if (this.limit - this.position < bytes)
+            throw new IOException("Unexpected end of input");
+    }
+}
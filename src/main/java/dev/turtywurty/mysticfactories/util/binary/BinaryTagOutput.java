@@ -0,0 +1,203 @@
+package dev.turtywurty.mysticfactories.util.binary;
+
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.CompoundTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.DoubleArrayTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.DoubleTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.End;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.FloatTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.IntTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.ListTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.StringTag;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes {@link BinaryTag}s into a growable byte array.
+ * <p>
+ * Integers are zigzag varints and floating point values are little-endian. Map keys and other strings written with
+ * {@link #writeKey(String)} are interned: the first occurrence is written in full and later ones as a reference into
+ * a table shared by everything written to this output, so a batch of similar entities pays for each key only once.
+ * Read the result back with a single {@link BinaryTagInput}.
+ */
+public final class BinaryTagOutput {
+    static final byte END = 0;
+    static final byte INT = 1;
+    static final byte FLOAT = 2;
+    static final byte DOUBLE = 3;
+    static final byte STRING = 4;
+    static final byte LIST = 5;
+    static final byte DOUBLE_ARRAY = 6;
+    static final byte COMPOUND = 7;
+
+    static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Map<String, Integer> keys = new HashMap<>();
+    private byte[] buffer;
+    private int position;
+
+    public BinaryTagOutput() {
+        this(256);
+    }
+
+    public BinaryTagOutput(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public int size() {
+        return this.position;
+    }
+
+    /**
+     * The number of strings interned by {@link #writeKey(String)} so far.
+     */
+    public int keyCount() {
+        return this.keys.size();
+    }
+
+    /**
+     * Discards everything written after the output had the given size and key count, so a partially written value
+     * can be replaced.
+     */
+    public void truncate(int size, int keyCount) {
+        if (size < 0 || size > this.position || keyCount < 0 || keyCount > this.keys.size())
+            throw new IllegalArgumentException("Cannot truncate to " + size + " bytes and " + keyCount + " keys");
+
+        this.position = size;
+        if (keyCount < this.keys.size()) {
+            this.keys.values().removeIf(index -> index >= keyCount);
+        }
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(this.buffer, this.position);
+    }
+
+    public void write(BinaryTag tag) {
+        switch (tag) {
+            case End ignored -> writeByte(END);
+            case IntTag intTag -> {
+                writeByte(INT);
+                writeVarLong(intTag.value());
+            }
+            case FloatTag floatTag -> {
+                writeByte(FLOAT);
+                writeFloat(floatTag.value());
+            }
+            case DoubleTag doubleTag -> {
+                writeByte(DOUBLE);
+                writeDouble(doubleTag.value());
+            }
+            case StringTag stringTag -> {
+                writeByte(STRING);
+                writeString(stringTag.value());
+            }
+            case ListTag listTag -> {
+                writeByte(LIST);
+                writeVarInt(listTag.values().size());
+                for (BinaryTag value : listTag.values()) {
+                    write(value);
+                }
+            }
+            case DoubleArrayTag arrayTag -> {
+                writeByte(DOUBLE_ARRAY);
+                writeVarInt(arrayTag.values().length);
+                ensureCapacity(arrayTag.values().length * Double.BYTES);
+                for (double value : arrayTag.values()) {
+                    writeDouble(value);
+                }
+            }
+            case CompoundTag compoundTag -> {
+                writeByte(COMPOUND);
+                writeVarInt(compoundTag.values().size());
+                for (Map.Entry<String, BinaryTag> entry : compoundTag.values().entrySet()) {
+                    writeKey(entry.getKey());
+                    write(entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes an interned string, see the class documentation.
+     */
+    public void writeKey(String key) {
+        Integer index = this.keys.get(key);
+        if (index != null) {
+            writeVarInt(index + 1);
+            return;
+        }
+
+        this.keys.put(key, this.keys.size());
+        writeVarInt(0);
+        writeString(key);
+    }
+
+    public void writeVarInt(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            this.buffer[this.position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        this.buffer[this.position++] = (byte) value;
+    }
+
+    /**
+     * Writes a zigzag encoded varint, so small negative values stay small.
+     */
+    public void writeVarLong(long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        ensureCapacity(10);
+        while ((zigzag & ~0x7FL) != 0) {
+            this.buffer[this.position++] = (byte) ((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+
+        this.buffer[this.position++] = (byte) zigzag;
+    }
+
+    public void writeByte(byte value) {
+        ensureCapacity(1);
+        this.buffer[this.position++] = value;
+    }
+
+    public void writeFloat(float value) {
+        ensureCapacity(Float.BYTES);
+        INT_LE.set(this.buffer, this.position, Float.floatToRawIntBits(value));
+        this.position += Float.BYTES;
+    }
+
+    public void writeDouble(double value) {
+        writeLong(Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Writes a fixed width little-endian long, for values such as UUID halves that would not shrink as a varint.
+     */
+    public void writeLong(long value) {
+        ensureCapacity(Long.BYTES);
+        LONG_LE.set(this.buffer, this.position, value);
+        this.position += Long.BYTES;
+    }
+
+    public void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, this.buffer, this.position, bytes.length);
+        this.position += bytes.length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (this.position + extra > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.position + extra));
+        }
+    }
+}
@@ -1,52 +1,526 @@
 package dev.turtywurty.mysticfactories.world;
 
 import dev.turtywurty.mysticfactories.world.biome.Biome;
+import dev.turtywurty.mysticfactories.world.biome.BiomeResolution;
+import dev.turtywurty.mysticfactories.world.storage.PalettedContainer;
 import dev.turtywurty.mysticfactories.world.tile.TilePos;
 import dev.turtywurty.mysticfactories.world.tile.TileType;
+import dev.turtywurty.mysticfactories.world.tileentity.TileEntity;
 import lombok.Getter;
+import lombok.Setter;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
-@Getter
 public class Chunk {
     public static final int SIZE = ChunkPos.SIZE;
+    public static final int AREA = SIZE * SIZE;
+    private static final int LOCAL_MASK = SIZE - 1;
+    static final int SIZE_SHIFT = Integer.numberOfTrailingZeros(SIZE);
 
+    @Getter
     private final ChunkPos pos;
-    private final Map<TilePos, TileType> tiles = new HashMap<>();
-    private final Map<TilePos, Biome> biomes = new HashMap<>();
+    private PalettedContainer<TileType> tiles = new PalettedContainer<>(AREA, null);
+    @Getter
+    private final BiomeResolution biomeResolution;
+    private PalettedContainer<Biome> biomes;
+    @Getter
     private int modificationCount = 0;
+    @Getter
+    private final ChunkChangeLog changeLog;
+    @Getter
+    @Setter
+    private long lastAccessTime;
+    // Whether world storage holds this chunk, and the modification count it was last saved or generated at.
+    @Getter
+    private boolean persisted;
+    private int savedModificationCount;
+    // Set while the current containers are shared with a snapshot; the next write copies them first.
+    private boolean tilesShared, biomesShared;
+    // Which containers compressStorage compressed, until an access inflates them again.
+    private boolean tilesCompressed, biomesCompressed;
+    // The deduplicated storage the containers belong to, released on the first write.
+    private ChunkStorageDeduplicator.SharedChunkStorage sharedStorage;
+    private ChunkSnapshot snapshot;
+    private TileEntity[] tileEntities;
+    @Getter
+    private int tileEntityCount;
+    // How far generation has got; chunks that were loaded or received are FULL. Volatile so other threads that see a
+    // status also see the storage written by the stage that set it.
+    @Getter
+    private volatile ChunkStatus status = ChunkStatus.EMPTY;
+    // The sequence number of the last tile change journal record applied to this chunk, or -1 if none was. It is
+    // saved with the chunk so a replay skips the records its stored state already holds.
+    @Getter
+    @Setter
+    private long journalSequence = -1;
 
     public Chunk(ChunkPos pos) {
+        this(pos, BiomeResolution.CELL_1X1);
+    }
+
+    public Chunk(ChunkPos pos, BiomeResolution biomeResolution) {
+        this.pos = pos;
+        this.biomeResolution = biomeResolution;
+        this.biomes = new PalettedContainer<>(biomeResolution.getCellCount(), null);
+        this.changeLog = new ChunkChangeLog(0);
+    }
+
+    /**
+     * Creates a chunk holding the contents of a snapshot, sharing its storage until the first write.
+     */
+    public Chunk(ChunkSnapshot snapshot) {
+        this.pos = snapshot.getPos();
+        this.biomeResolution = snapshot.getBiomeResolution();
+        this.tiles = snapshot.tiles();
+        this.biomes = snapshot.biomes();
+        this.modificationCount = snapshot.getVersion();
+        this.changeLog = new ChunkChangeLog(this.modificationCount);
+        this.tilesShared = true;
+        this.biomesShared = true;
+        this.status = ChunkStatus.FULL;
+    }
+
+    /**
+     * Creates a chunk around storage read back from disk, see {@link ChunkSerializer}.
+     */
+    Chunk(ChunkPos pos, BiomeResolution biomeResolution, int version, long journalSequence,
+          PalettedContainer<TileType> tiles, PalettedContainer<Biome> biomes) {
+        if (biomes.size() != biomeResolution.getCellCount())
+            throw new IllegalArgumentException("Biome storage does not match resolution " + biomeResolution);
+
         this.pos = pos;
+        this.biomeResolution = biomeResolution;
+        this.tiles = tiles;
+        this.biomes = biomes;
+        this.modificationCount = version;
+        this.changeLog = new ChunkChangeLog(version);
+        this.persisted = true;
+        this.savedModificationCount = version;
+        this.journalSequence = journalSequence;
+        this.status = ChunkStatus.FULL;
+    }
+
+    void setStatus(ChunkStatus status) {
+        this.status = status;
+    }
+
+    public static int localIndex(int x, int y) {
+        return (y & LOCAL_MASK) * SIZE + (x & LOCAL_MASK);
     }
 
     public void setTile(TilePos tilePos, TileType type) {
-        this.tiles.put(tilePos, type);
+        putTile(tilePos.x, tilePos.y, type);
         this.modificationCount++;
     }
 
+    /**
+     * Writes a tile without counting it as a modification, for batched writers that call {@link #markModified()}
+     * once they are done with this chunk.
+     *
+     * @throws IllegalArgumentException if the tile is not in this chunk
+     */
+    void putTile(int x, int y, TileType type) {
+        checkInside(x, y);
+        int index = localIndex(x, y);
+        writableTiles().set(index, type);
+        // Becomes visible with the next modification count bump.
+        this.changeLog.record(this.modificationCount + 1, index);
+    }
+
+    void markModified() {
+        this.modificationCount++;
+    }
+
+    /**
+     * @return whether this chunk's tiles, biomes or tile entities changed since it was last saved, or since it was
+     * generated if it was never saved. Unchanged generated chunks are left out, since they can be generated again.
+     */
+    public boolean isUnsaved() {
+        return this.modificationCount != this.savedModificationCount || this.changeLog.hasDirtyTiles();
+    }
+
+    /**
+     * Takes the chunk's freshly generated contents as its unchanged state, see {@link #isUnsaved()}.
+     */
+    void markGenerated() {
+        this.savedModificationCount = this.modificationCount;
+        this.changeLog.clearDirty();
+    }
+
+    void markSaved() {
+        this.persisted = true;
+        this.savedModificationCount = this.modificationCount;
+        this.changeLog.clearDirty();
+    }
+
     public void setTile(TilePos tilePos, TileType type, Biome biome) {
         setTile(tilePos, type);
         if (biome != null) {
-            this.biomes.put(tilePos, biome);
+            setBiome(tilePos.x, tilePos.y, biome);
         }
     }
 
+    /**
+     * Sets the biome of the whole cell containing the given tile, see {@link #getBiomeResolution()}.
+     *
+     * @throws IllegalArgumentException if the tile is not in this chunk
+     */
+    public void setBiome(int x, int y, Biome biome) {
+        checkInside(x, y);
+        writableBiomes().set(biomeIndex(x, y), biome);
+        this.modificationCount++;
+    }
+
+    /**
+     * Biome counterpart of {@link #putTile(int, int, TileType)}.
+     */
+    void putBiome(int x, int y, Biome biome) {
+        checkInside(x, y);
+        writableBiomes().set(biomeIndex(x, y), biome);
+    }
+
     public Optional<TileType> getTile(TilePos tilePos) {
-        return Optional.ofNullable(this.tiles.get(tilePos));
+        if (!isInside(tilePos.x, tilePos.y))
+            return Optional.empty();
+
+        return Optional.ofNullable(getTileRaw(tilePos.x, tilePos.y));
+    }
+
+    /**
+     * Allocation-free tile lookup. The coordinates are world coordinates and are assumed to lie in this chunk;
+     * only their chunk-local bits are used.
+     *
+     * @return the tile, or {@code null} if none has been set
+     */
+    @Nullable
+    public TileType getTileRaw(int x, int y) {
+        return this.tiles.get(localIndex(x, y));
+    }
+
+    public boolean isSolid(int x, int y) {
+        TileType type = getTileRaw(x, y);
+        return type != null && type.isSolid();
     }
 
     public Optional<Biome> getBiome(TilePos tilePos) {
-        return Optional.ofNullable(this.biomes.get(tilePos));
+        if (!isInside(tilePos.x, tilePos.y))
+            return Optional.empty();
+
+        return Optional.ofNullable(getBiomeRaw(tilePos.x, tilePos.y));
+    }
+
+    /**
+     * Allocation-free biome lookup, see {@link #getTileRaw(int, int)} for how coordinates are treated.
+     *
+     * @return the biome, or {@code null} if none has been set
+     */
+    @Nullable
+    public Biome getBiomeRaw(int x, int y) {
+        return this.biomes.get(biomeIndex(x, y));
+    }
+
+    /**
+     * @return the distinct biomes stored in this chunk, usually only a handful
+     */
+    public List<Biome> getBiomePalette() {
+        return this.biomes.getPaletteValues();
+    }
+
+    /**
+     * @return the biome palette slot used by the given tile, for callers that cache per-palette data
+     */
+    public int getBiomePaletteIndex(int x, int y) {
+        return this.biomes.getPaletteIndex(biomeIndex(x, y));
+    }
+
+    public int getBiomePaletteSize() {
+        return this.biomes.getPaletteSize();
+    }
+
+    public Biome getBiomePaletteEntry(int paletteIndex) {
+        return this.biomes.getPaletteEntry(paletteIndex);
+    }
+
+    /**
+     * Bulk counterpart of {@link #getBiomePaletteIndex(int, int)}: fills {@code out} with the palette slot of every
+     * biome cell, indexed by {@link BiomeResolution#cellIndex(int, int)}. Compressed storage stays compressed.
+     */
+    public void copyBiomePaletteIndices(int[] out) {
+        this.biomes.copyPaletteIndices(out);
+    }
+
+    /**
+     * Builds a map view of every tile that has been set in this chunk. Prefer {@link #forEachTile(TileConsumer)}
+     * on hot paths, this allocates a position and an entry per tile.
+     */
+    public Map<TilePos, TileType> getTiles() {
+        Map<TilePos, TileType> tiles = new HashMap<>();
+        forEachTile((x, y, type) -> tiles.put(new TilePos(x, y), type));
+        return Collections.unmodifiableMap(tiles);
+    }
+
+    /**
+     * Visits every tile that has been set in this chunk, in row-major order, using world coordinates.
+     */
+    public void forEachTile(TileConsumer consumer) {
+        int baseX = this.pos.x * SIZE;
+        int baseY = this.pos.y * SIZE;
+        for (int index = 0; index < AREA; index++) {
+            TileType type = this.tiles.get(index);
+            if (type != null) {
+                consumer.accept(baseX + (index & LOCAL_MASK), baseY + index / SIZE, type);
+            }
+        }
     }
 
     public boolean contains(TilePos pos) {
-        return this.tiles.containsKey(pos);
+        return contains(pos.x, pos.y);
     }
 
     public boolean contains(int x, int y) {
-        return contains(new TilePos(x, y));
+        return isInside(x, y) && this.tiles.get(localIndex(x, y)) != null;
+    }
+
+    /**
+     * @return the top-level tile entity at the given tile (a {@code StackedTileEntity} for stacks), or {@code null}
+     */
+    @Nullable
+    public TileEntity getTileEntityRaw(int x, int y) {
+        return this.tileEntities == null ? null : this.tileEntities[localIndex(x, y)];
+    }
+
+    public void forEachTileEntity(Consumer<TileEntity> consumer) {
+        if (this.tileEntityCount == 0)
+            return;
+
+        for (TileEntity tileEntity : this.tileEntities) {
+            if (tileEntity != null) {
+                consumer.accept(tileEntity);
+            }
+        }
+    }
+
+    /**
+     * @return the tile entity previously stored at the given tile, or {@code null}
+     */
+    @Nullable
+    TileEntity putTileEntity(int x, int y, @Nullable TileEntity tileEntity) {
+        checkInside(x, y);
+        if (this.tileEntities == null) {
+            if (tileEntity == null)
+                return null;
+
+            this.tileEntities = new TileEntity[AREA];
+        }
+
+        int index = localIndex(x, y);
+        TileEntity previous = this.tileEntities[index];
+        this.tileEntities[index] = tileEntity;
+        this.changeLog.markDirty(index);
+        if (previous == null && tileEntity != null) {
+            this.tileEntityCount++;
+        } else if (previous != null && tileEntity == null) {
+            this.tileEntityCount--;
+        }
+
+        return previous;
+    }
+
+    /**
+     * Removes {@code tileEntity} if it is the one stored at the given tile.
+     */
+    boolean removeTileEntity(int x, int y, TileEntity tileEntity) {
+        if (this.tileEntities == null || this.tileEntities[localIndex(x, y)] != tileEntity)
+            return false;
+
+        putTileEntity(x, y, null);
+        return true;
+    }
+
+    /**
+     * Flags the tile entity at the given tile as changed so the chunk is saved again.
+     */
+    void markTileEntityDirty(int x, int y) {
+        this.changeLog.markDirty(localIndex(x, y));
+    }
+
+    void clearTileEntities() {
+        this.tileEntities = null;
+        this.tileEntityCount = 0;
+    }
+
+    /**
+     * Re-packs the tile storage after a burst of writes, e.g. once generation has finished.
+     */
+    public void trimStorage() {
+        if (!this.tilesShared) {
+            this.tiles.compact();
+        }
+
+        if (!this.biomesShared) {
+            this.biomes.compact();
+        }
+    }
+
+    /**
+     * Captures the current tiles and biomes without copying them. Repeated calls without writes in between
+     * return the same snapshot. Compressed storage is inflated into a copy for the snapshot instead, leaving this
+     * chunk compressed; those snapshots are not cached.
+     */
+    public ChunkSnapshot snapshot() {
+        if (this.snapshot != null)
+            return this.snapshot;
+
+        // Snapshots are read from other threads, which must not inflate shared storage. Caching an inflated copy
+        // would keep an idle chunk at its uncompressed size.
+        boolean compressed = isStorageCompressed();
+        var snapshot = new ChunkSnapshot(this.pos, this.modificationCount, this.biomeResolution,
+                this.tiles.isCompressed() ? this.tiles.inflatedCopy() : this.tiles,
+                this.biomes.isCompressed() ? this.biomes.inflatedCopy() : this.biomes);
+        this.tilesShared |= snapshot.tiles() == this.tiles;
+        this.biomesShared |= snapshot.biomes() == this.biomes;
+        if (!compressed) {
+            this.snapshot = snapshot;
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * @return an estimate of the heap used by this chunk's tile and biome storage, in bytes
+     */
+    public long getStorageByteSize() {
+        return this.tiles.getByteSize() + this.biomes.getByteSize();
+    }
+
+    /**
+     * @return what {@link #getStorageByteSize()} would be with the storage inflated
+     */
+    public long getUncompressedStorageByteSize() {
+        return this.tiles.getUncompressedByteSize() + this.biomes.getUncompressedByteSize();
+    }
+
+    public boolean isStorageCompressed() {
+        return this.tiles.isCompressed() || this.biomes.isCompressed();
+    }
+
+    /**
+     * Deflates the tile and biome storage in place, see {@link PalettedContainer#compress(int)}. The next read or
+     * write inflates it again. Storage shared with a snapshot is copied first, so the snapshot is left as it is;
+     * storage deduplicated with other chunks is left alone.
+     *
+     * @return whether any storage was compressed by this call
+     */
+    public boolean compressStorage(int level) {
+        // Storage other chunks share is already deduplicated, compressing it would give this chunk a copy of its own.
+        if (this.sharedStorage != null && this.sharedStorage.getReferences() > 1)
+            return false;
+
+        boolean compressed = false;
+        if (!this.tiles.isSingleValue() && !this.tiles.isCompressed()) {
+            this.tilesCompressed = writableTiles().compress(level);
+            compressed = this.tilesCompressed;
+        }
+
+        if (!this.biomes.isSingleValue() && !this.biomes.isCompressed()) {
+            this.biomesCompressed = writableBiomes().compress(level);
+            compressed |= this.biomesCompressed;
+        }
+
+        return compressed;
+    }
+
+    /**
+     * @return whether storage compressed by {@link #compressStorage(int)} has been inflated since the last call
+     */
+    boolean pollInflated() {
+        boolean inflated = (this.tilesCompressed && !this.tiles.isCompressed())
+                || (this.biomesCompressed && !this.biomes.isCompressed());
+        this.tilesCompressed &= this.tiles.isCompressed();
+        this.biomesCompressed &= this.biomes.isCompressed();
+        return inflated;
+    }
+
+    /**
+     * Swaps this chunk's tile and biome storage for the instance shared by every chunk with the same contents, until
+     * the next write.
+     */
+    void shareStorage(ChunkStorageDeduplicator deduplicator) {
+        releaseSharedStorage();
+        ChunkStorageDeduplicator.SharedChunkStorage shared = deduplicator.acquire(this.biomeResolution, this.tiles,
+                this.biomes);
+        this.tiles = shared.tiles();
+        this.biomes = shared.biomes();
+        this.tilesShared = true;
+        this.biomesShared = true;
+        this.snapshot = null;
+        this.sharedStorage = shared;
+    }
+
+    public boolean hasSharedStorage() {
+        return this.sharedStorage != null;
+    }
+
+    /**
+     * @return how many chunks hold this chunk's tile and biome storage, 1 unless it is deduplicated
+     */
+    public int getStorageShareCount() {
+        return this.sharedStorage == null ? 1 : this.sharedStorage.getReferences();
+    }
+
+    void releaseSharedStorage() {
+        if (this.sharedStorage != null) {
+            this.sharedStorage.release();
+            this.sharedStorage = null;
+        }
+    }
+
+    private PalettedContainer<TileType> writableTiles() {
+        releaseSharedStorage();
+        this.snapshot = null;
+        if (this.tilesShared) {
+            this.tiles = this.tiles.copy();
+            this.tilesShared = false;
+        }
+
+        return this.tiles;
+    }
+
+    private PalettedContainer<Biome> writableBiomes() {
+        releaseSharedStorage();
+        this.snapshot = null;
+        if (this.biomesShared) {
+            this.biomes = this.biomes.copy();
+            this.biomesShared = false;
+        }
+
+        return this.biomes;
+    }
+
+    private int biomeIndex(int x, int y) {
+        return this.biomeResolution.cellIndex(x & LOCAL_MASK, y & LOCAL_MASK);
+    }
+
+    private boolean isInside(int x, int y) {
+        return (x >> SIZE_SHIFT) == this.pos.x && (y >> SIZE_SHIFT) == this.pos.y;
+    }
+
+    /**
+     * Guards the write paths, which would otherwise wrap coordinates from another chunk onto this one's tiles.
+     */
+    private void checkInside(int x, int y) {
+        if (!isInside(x, y))
+            throw new IllegalArgumentException("Tile " + x + ", " + y + " is outside of chunk " + this.pos);
+    }
+
+    @FunctionalInterface
+    public interface TileConsumer {
+        void accept(int x, int y, TileType type);
     }
 }
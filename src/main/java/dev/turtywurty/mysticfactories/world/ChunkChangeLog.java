@@ -0,0 +1,101 @@
+package dev.turtywurty.mysticfactories.world;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Records which tiles of a chunk changed, both as a dirty bitset and as a bounded journal of
+ * (version, local index) entries.
+ * <p>
+ * The dirty bitset answers "what changed since the owner last cleared it" and is meant for a single consumer such
+ * as saving. The journal answers "what changed since version N" for any number of consumers, as long as N is
+ * recent enough; once older entries have been overwritten the journal reports that it can no longer tell.
+ */
+public class ChunkChangeLog {
+    private static final int CAPACITY = 256;
+
+    private final long[] dirty = new long[Chunk.AREA / Long.SIZE];
+    private final int[] versions = new int[CAPACITY];
+    private final short[] indices = new short[CAPACITY];
+    private int head;
+    private int count;
+    // Every change at or before this version may have been dropped from the journal.
+    private int truncatedVersion;
+
+    public ChunkChangeLog(int version) {
+        this.truncatedVersion = version;
+    }
+
+    /**
+     * Records a change to a tile that becomes visible at {@code version}.
+     */
+    void record(int version, int localIndex) {
+        markDirty(localIndex);
+
+        if (this.count == CAPACITY) {
+            this.truncatedVersion = Math.max(this.truncatedVersion, this.versions[this.head]);
+        } else {
+            this.count++;
+        }
+
+        this.versions[this.head] = version;
+        this.indices[this.head] = (short) localIndex;
+        this.head = (this.head + 1) % CAPACITY;
+    }
+
+    /**
+     * Visits the local index of every tile changed after {@code sinceVersion}. An index may be visited more than
+     * once if the tile changed several times.
+     *
+     * @return {@code false} if the journal no longer reaches back that far, in which case nothing was visited and
+     * the caller should treat every tile as changed
+     */
+    public boolean forEachChangeSince(int sinceVersion, IntConsumer consumer) {
+        if (sinceVersion < this.truncatedVersion)
+            return false;
+
+        int start = (this.head - this.count + CAPACITY) % CAPACITY;
+        for (int i = 0; i < this.count; i++) {
+            int slot = (start + i) % CAPACITY;
+            if (this.versions[slot] > sinceVersion) {
+                consumer.accept(this.indices[slot]);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Marks a tile dirty without journaling it, for changes that do not affect its tile type such as tile entities.
+     */
+    void markDirty(int localIndex) {
+        this.dirty[localIndex >>> 6] |= 1L << localIndex;
+    }
+
+    public boolean isDirty(int localIndex) {
+        return (this.dirty[localIndex >>> 6] & (1L << localIndex)) != 0;
+    }
+
+    public boolean hasDirtyTiles() {
+        for (long word : this.dirty) {
+            if (word != 0)
+                return true;
+        }
+
+        return false;
+    }
+
+    public void forEachDirty(IntConsumer consumer) {
+        for (int word = 0; word < this.dirty.length; word++) {
+            long bits = this.dirty[word];
+            while (bits != 0) {
+                consumer.accept((word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    public void clearDirty() {
+        Arrays.fill(this.dirty, 0L);
+    }
+}
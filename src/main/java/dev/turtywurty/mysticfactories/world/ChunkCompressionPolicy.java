@@ -0,0 +1,31 @@
+package dev.turtywurty.mysticfactories.world;
+
+import java.util.zip.Deflater;
+
+/**
+ * When a world deflates the tile and biome storage of chunks that are loaded but not in use. Compressed storage is
+ * inflated again on the next read or write of the chunk.
+ *
+ * @param minIdleTicks     how long a chunk must go unaccessed before its storage is compressed
+ * @param minStorageBytes  the smallest storage worth compressing, see {@link Chunk#getStorageByteSize()}
+ * @param level            the {@link Deflater} compression level
+ */
+public record ChunkCompressionPolicy(int minIdleTicks, long minStorageBytes, int level) {
+    public static final ChunkCompressionPolicy DISABLED = new ChunkCompressionPolicy(Integer.MAX_VALUE, Long.MAX_VALUE,
+            Deflater.BEST_SPEED);
+
+    public ChunkCompressionPolicy {
+        if (minIdleTicks <= 0)
+            throw new IllegalArgumentException("minIdleTicks must be positive");
+
+        if (minStorageBytes < 0)
+            throw new IllegalArgumentException("minStorageBytes cannot be negative");
+
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)
+            throw new IllegalArgumentException("level must be between 1 and 9");
+    }
+
+    public boolean isEnabled() {
+        return this.minIdleTicks != Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,24 @@
+package dev.turtywurty.mysticfactories.world;
+
+/**
+ * The loaded chunks of a world split into those with uncompressed storage and those with compressed storage.
+ *
+ * @param hotChunks         chunks whose storage is not compressed
+ * @param hotBytes          the estimated storage of those chunks, see {@link Chunk#getStorageByteSize()}
+ * @param compressedChunks  chunks with compressed storage
+ * @param compressedBytes   the estimated storage of those chunks as they are
+ * @param inflatedBytes     what the storage of those chunks would take up uncompressed
+ */
+public record ChunkCompressionStats(int hotChunks, long hotBytes, int compressedChunks, long compressedBytes,
+                                    long inflatedBytes) {
+    /**
+     * @return how many times smaller compressed storage is than it would be uncompressed, or 1 if nothing is compressed
+     */
+    public double compressionRatio() {
+        return this.compressedBytes == 0 ? 1 : this.inflatedBytes / (double) this.compressedBytes;
+    }
+
+    public long bytesSaved() {
+        return this.inflatedBytes - this.compressedBytes;
+    }
+}
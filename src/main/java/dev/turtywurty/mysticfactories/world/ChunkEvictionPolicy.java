@@ -0,0 +1,28 @@
+package dev.turtywurty.mysticfactories.world;
+
+/**
+ * Limits on how many chunks a world keeps loaded. Once either limit is exceeded, chunks that have been idle for at
+ * least {@code minIdleTicks} are unloaded, least recently accessed first.
+ *
+ * @param maxChunks        the number of loaded chunks to stay within
+ * @param maxStorageBytes  the estimated tile and biome storage to stay within, see {@link Chunk#getStorageByteSize()}
+ * @param minIdleTicks     how long a chunk must go unaccessed before it may be evicted
+ */
+public record ChunkEvictionPolicy(int maxChunks, long maxStorageBytes, int minIdleTicks) {
+    public static final ChunkEvictionPolicy UNLIMITED = new ChunkEvictionPolicy(Integer.MAX_VALUE, Long.MAX_VALUE, 0);
+
+    public ChunkEvictionPolicy {
+        if (maxChunks <= 0)
+            throw new IllegalArgumentException("maxChunks must be positive");
+
+        if (maxStorageBytes <= 0)
+            throw new IllegalArgumentException("maxStorageBytes must be positive");
+
+        if (minIdleTicks < 0)
+            throw new IllegalArgumentException("minIdleTicks cannot be negative");
+    }
+
+    public boolean isExceeded(int chunkCount, long storageBytes) {
+        return chunkCount > this.maxChunks || storageBytes > this.maxStorageBytes;
+    }
+}
@@ -0,0 +1,205 @@
+package dev.turtywurty.mysticfactories.world;
+
+import dev.turtywurty.mysticfactories.world.gen.ChunkGenerationContext;
+import lombok.Getter;
+import lombok.Setter;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Generates a world's chunks one {@link ChunkStatus} at a time, sharing one {@link ChunkGenerationContext} between the
+ * stages of each chunk.
+ * <p>
+ * Each status of each chunk is a future that depends on the chunk and its neighbours reaching the previous status.
+ * Requesting a status schedules whatever is missing below it, and stages that are already running or done are shared.
+ * {@link ChunkStatus#isParallel() Parallel} stages run on the {@link #setParallelExecutor(Executor) parallel
+ * executor}, the others are handed to the world's thread. Since the parallel stages depend on nothing but the seed and
+ * features only write to their own chunk, the generated chunks do not depend on the order stages finish in.
+ * <p>
+ * Chunks are kept here until they reach {@link ChunkStatus#FULL}. Chunks that were only generated as neighbours of
+ * others stay at a lower status until they are requested themselves or {@link #dropIdle(long) dropped}. Neighbours
+ * that are in storage are loaded into the world instead of being generated again, so features see their saved
+ * contents. Requests must come from the world's thread, and must only be made for chunks that are not in storage.
+ */
+public class ChunkGenerationPipeline {
+    private final World world;
+    private final Executor worldThreadExecutor;
+    @Getter
+    @Setter
+    private Executor parallelExecutor = Runnable::run;
+    // Only changed on the world's thread, but concurrent so getProtoChunk can be called from any thread.
+    private final Map<Long, ProtoChunk> protoChunks = new ConcurrentHashMap<>();
+
+    ChunkGenerationPipeline(World world, Executor worldThreadExecutor) {
+        this.world = world;
+        this.worldThreadExecutor = worldThreadExecutor;
+    }
+
+    /**
+     * @return a future completed once the chunk has reached at least the given status. Chunks already loaded in the
+     * world count as {@link ChunkStatus#FULL}.
+     */
+    public CompletableFuture<Chunk> request(ChunkPos pos, ChunkStatus status) {
+        Chunk loaded = this.world.getChunkRaw(pos.x, pos.y);
+        if (loaded != null && loaded.getStatus() == ChunkStatus.FULL)
+            return CompletableFuture.completedFuture(loaded);
+
+        ProtoChunk proto = this.protoChunks.computeIfAbsent(pos.toLong(), key -> {
+            Chunk chunk = this.world.createChunk(pos);
+            return new ProtoChunk(chunk, this.world.createGenerationContext(chunk));
+        });
+        proto.lastRequested = this.world.getTime();
+        return advance(proto, status);
+    }
+
+    /**
+     * Abandons the world-thread stages of a chunk that have not run yet, keeping what the parallel stages produced.
+     * Once the first world-thread stage has run the chunk is in the world, so it is always finished.
+     *
+     * @return whether a pending stage was cancelled
+     */
+    public boolean cancel(ChunkPos pos) {
+        ProtoChunk proto = this.protoChunks.get(pos.toLong());
+        if (proto == null)
+            return false;
+
+        boolean cancelled = false;
+        for (ChunkStatus status : ChunkStatus.values()) {
+            CompletableFuture<Chunk> stage = proto.stages[status.ordinal()];
+            if (status.isParallel() || stage == null)
+                continue;
+
+            if (stage.isDone())
+                return cancelled;
+
+            stage.cancel(false);
+            proto.stages[status.ordinal()] = null;
+            cancelled = true;
+        }
+
+        return cancelled;
+    }
+
+    /**
+     * @return a chunk that is still being generated, if it has reached at least the given status. Unlike requests,
+     * this may be called from any thread: the chunk's volatile status makes the storage written by the stages up to
+     * that status visible, although later stages may still be writing to it.
+     */
+    @Nullable
+    public Chunk getProtoChunk(int chunkX, int chunkZ, ChunkStatus status) {
+        ProtoChunk proto = this.protoChunks.get(ChunkPos.toLong(chunkX, chunkZ));
+        return proto != null && proto.chunk.getStatus().isAtLeast(status) ? proto.chunk : null;
+    }
+
+    /**
+     * @return whether the chunk is being generated and has been requested up to at least the given status, as opposed
+     * to only being generated as a neighbour of others
+     */
+    public boolean isRequested(int chunkX, int chunkZ, ChunkStatus status) {
+        ProtoChunk proto = this.protoChunks.get(ChunkPos.toLong(chunkX, chunkZ));
+        if (proto == null)
+            return false;
+
+        for (int i = status.ordinal(); i < proto.stages.length; i++) {
+            if (proto.stages[i] != null)
+                return true;
+        }
+
+        return false;
+    }
+
+    public int getProtoChunkCount() {
+        return this.protoChunks.size();
+    }
+
+    /**
+     * Forgets chunks that have not been requested for {@code minIdleTicks} and have nothing scheduled, as long as they
+     * have not been added to the world yet. They are generated again if they are requested later.
+     *
+     * @return the number of chunks dropped
+     */
+    public int dropIdle(long minIdleTicks) {
+        int dropped = 0;
+        Iterator<ProtoChunk> iterator = this.protoChunks.values().iterator();
+        while (iterator.hasNext()) {
+            ProtoChunk proto = iterator.next();
+            if (this.world.getTime() - proto.lastRequested >= minIdleTicks && proto.isIdle()
+                    && !proto.chunk.getStatus().isAtLeast(ChunkStatus.FEATURES)) {
+                iterator.remove();
+                dropped++;
+            }
+        }
+
+        return dropped;
+    }
+
+    private CompletableFuture<Chunk> advance(ProtoChunk proto, ChunkStatus status) {
+        CompletableFuture<Chunk> existing = proto.stages[status.ordinal()];
+        // A failed stage is retried by the next request.
+        if (existing != null && !existing.isCompletedExceptionally())
+            return existing;
+
+        ChunkStatus previous = status.previous();
+        if (previous == null) {
+            CompletableFuture<Chunk> created = CompletableFuture.completedFuture(proto.chunk);
+            proto.stages[status.ordinal()] = created;
+            return created;
+        }
+
+        List<CompletableFuture<Chunk>> dependencies = new ArrayList<>();
+        dependencies.add(advance(proto, previous));
+        ChunkPos pos = proto.chunk.getPos();
+        int radius = status.getNeighbourRadius();
+        for (int z = pos.y - radius; z <= pos.y + radius; z++) {
+            for (int x = pos.x - radius; x <= pos.x + radius; x++) {
+                if (x != pos.x || z != pos.y) {
+                    dependencies.add(this.world.requestGenerationNeighbour(new ChunkPos(x, z), previous));
+                }
+            }
+        }
+
+        CompletableFuture<Chunk> stage = CompletableFuture.allOf(dependencies.toArray(CompletableFuture[]::new))
+                .thenApplyAsync(ignored -> {
+                    this.world.runGenerationStage(status, proto.chunk, proto.context);
+                    proto.chunk.setStatus(status);
+                    if (status == ChunkStatus.FULL) {
+                        this.protoChunks.remove(pos.toLong(), proto);
+                        proto.context = null;
+                    }
+
+                    return proto.chunk;
+                }, status.isParallel() ? this.parallelExecutor : this.worldThreadExecutor);
+        proto.stages[status.ordinal()] = stage;
+        return stage;
+    }
+
+    private static final class ProtoChunk {
+        private final Chunk chunk;
+        @SuppressWarnings("unchecked")
+        private final CompletableFuture<Chunk>[] stages = new CompletableFuture[ChunkStatus.values().length];
+        // What the stages have sampled so far; dropped once the chunk is FULL.
+        private @Nullable ChunkGenerationContext context;
+        private long lastRequested;
+
+        private ProtoChunk(Chunk chunk, @Nullable ChunkGenerationContext context) {
+            this.chunk = chunk;
+            this.context = context;
+        }
+
+        private boolean isIdle() {
+            for (CompletableFuture<Chunk> stage : this.stages) {
+                if (stage != null && !stage.isDone())
+                    return false;
+            }
+
+            return true;
+        }
+    }
+}
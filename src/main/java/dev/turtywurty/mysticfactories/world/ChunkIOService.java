@@ -0,0 +1,220 @@
+package dev.turtywurty.mysticfactories.world;
+
+import dev.turtywurty.mysticfactories.world.storage.RegionStorage;
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs a world's chunk loads and saves on virtual threads so the ticking thread never blocks on disk.
+ * <p>
+ * Concurrent loads of the same chunk share one read. Saves are serialized on the calling thread, since tile entities
+ * are not safe to read from elsewhere, then queued; a newer save of a chunk replaces its queued one, and the queue is
+ * written in batches grouped by region file. Loads see queued saves before they reach the disk. Once
+ * {@value #MAX_PENDING_SAVES} chunks are queued, {@link #save(Chunk)} refuses new chunks without waiting or serializing
+ * them, so a slow or failing disk cannot stall the ticking thread; callers check {@link #isSaveQueueFull()} and leave
+ * the rest of their saves for a later pass.
+ */
+public class ChunkIOService implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChunkIOService.class);
+    private static final int MAX_PENDING_SAVES = 1024;
+
+    @Getter
+    private final ChunkStorage storage;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("chunk-io-", 0).factory());
+    private final Map<Long, CompletableFuture<ChunkSerializer.Result>> pendingLoads = new ConcurrentHashMap<>();
+    private final Map<Long, PendingSave> pendingSaves = new ConcurrentHashMap<>();
+    // One permit per queued chunk, released once it has been written.
+    private final Semaphore saveSlots = new Semaphore(MAX_PENDING_SAVES);
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final ReentrantLock drainLock = new ReentrantLock();
+    /**
+     * Why the last batch of queued saves could not be written, cleared once a batch is written again.
+     */
+    @Getter
+    private volatile @Nullable IOException lastWriteFailure;
+
+    public ChunkIOService(ChunkStorage storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Reads a chunk in the background.
+     *
+     * @param world the world the chunk's tile entities are created for
+     * @return a future completed on an I/O thread with the stored chunk, or {@code null} if it was never saved
+     */
+    public CompletableFuture<ChunkSerializer.Result> load(World world, ChunkPos pos) {
+        long key = pos.toLong();
+        var created = new CompletableFuture<ChunkSerializer.Result>();
+        CompletableFuture<ChunkSerializer.Result> existing = this.pendingLoads.putIfAbsent(key, created);
+        if (existing != null)
+            return existing;
+
+        this.executor.execute(() -> {
+            try {
+                ChunkSerializer.Result result = read(world, pos);
+                this.pendingLoads.remove(key, created);
+                created.complete(result);
+            } catch (Throwable throwable) {
+                this.pendingLoads.remove(key, created);
+                created.completeExceptionally(throwable);
+            }
+        });
+
+        return created;
+    }
+
+    /**
+     * Serializes the chunk and queues it to be written. Must be called from the thread that owns the chunk.
+     *
+     * @return a future completed on an I/O thread once this state of the chunk, or a newer one, is on disk, or
+     * {@code null} if the queue is full, in which case the caller should keep the chunk and save it again later
+     */
+    @Nullable
+    public CompletableFuture<Void> save(Chunk chunk) {
+        long key = chunk.getPos().toLong();
+        PendingSave queued = this.pendingSaves.get(key);
+        if (queued != null) {
+            var save = new PendingSave(ChunkSerializer.write(chunk), new CompletableFuture<>());
+            if (this.pendingSaves.replace(key, queued, save)) {
+                // Takes over the queued save's slot. The newer payload includes everything it had.
+                save.written().thenRun(() -> queued.written().complete(null));
+                scheduleDrain();
+                return save.written();
+            }
+        }
+
+        if (!this.saveSlots.tryAcquire()) {
+            IOException failure = this.lastWriteFailure;
+            LOGGER.warn("Chunk save queue is full, deferring the save of chunk {}{}", chunk.getPos(),
+                    failure == null ? "" : " (last write failed: " + failure.getMessage() + ")");
+            scheduleDrain();
+            return null;
+        }
+
+        PendingSave save;
+        try {
+            save = new PendingSave(ChunkSerializer.write(chunk), new CompletableFuture<>());
+        } catch (RuntimeException exception) {
+            this.saveSlots.release();
+            throw exception;
+        }
+
+        PendingSave replaced = this.pendingSaves.put(key, save);
+        if (replaced != null) {
+            // Raced with another save of the chunk, which already holds a slot.
+            this.saveSlots.release();
+            save.written().thenRun(() -> replaced.written().complete(null));
+        }
+
+        scheduleDrain();
+        return save.written();
+    }
+
+    private void scheduleDrain() {
+        if (this.drainScheduled.compareAndSet(false, true)) {
+            this.executor.execute(() -> {
+                this.drainScheduled.set(false);
+                drainSaves();
+            });
+        }
+    }
+
+    /**
+     * @return a future completed once every save queued before this call has been written
+     */
+    public CompletableFuture<Void> flush() {
+        return CompletableFuture.runAsync(this::drainSaves, this.executor);
+    }
+
+    public int getPendingSaveCount() {
+        return this.pendingSaves.size();
+    }
+
+    /**
+     * @return whether {@link #save(Chunk)} would refuse a chunk that is not queued yet
+     */
+    public boolean isSaveQueueFull() {
+        return this.saveSlots.availablePermits() == 0;
+    }
+
+    /**
+     * Writes every queued save, then closes the region files.
+     */
+    @Override
+    public void close() {
+        flush().join();
+        this.executor.shutdown();
+        try {
+            if (!this.executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                LOGGER.warn("Timed out waiting for chunk I/O to finish");
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.storage.close();
+    }
+
+    @Nullable
+    private ChunkSerializer.Result read(World world, ChunkPos pos) throws IOException {
+        PendingSave pending = this.pendingSaves.get(pos.toLong());
+        if (pending != null)
+            return ChunkSerializer.read(ByteBuffer.wrap(pending.payload()), pos, world);
+
+        return this.storage.load(world, pos);
+    }
+
+    private void drainSaves() {
+        this.drainLock.lock();
+        try {
+            while (!this.pendingSaves.isEmpty()) {
+                Map<Long, Map<ChunkPos, PendingSave>> batches = new HashMap<>();
+                for (Map.Entry<Long, PendingSave> entry : this.pendingSaves.entrySet()) {
+                    ChunkPos pos = ChunkPos.fromLong(entry.getKey());
+                    batches.computeIfAbsent(RegionStorage.regionKey(pos.x, pos.y), key -> new HashMap<>())
+                            .put(pos, entry.getValue());
+                }
+
+                for (Map<ChunkPos, PendingSave> batch : batches.values()) {
+                    Map<ChunkPos, byte[]> payloads = new HashMap<>(batch.size() * 2);
+                    batch.forEach((pos, save) -> payloads.put(pos, save.payload()));
+                    this.storage.write(payloads);
+                    this.lastWriteFailure = null;
+                    for (Map.Entry<ChunkPos, PendingSave> entry : batch.entrySet()) {
+                        // Leaves the entry queued if a newer save replaced it while this batch was written.
+                        if (this.pendingSaves.remove(entry.getKey().toLong(), entry.getValue())) {
+                            this.saveSlots.release();
+                            entry.getValue().written().complete(null);
+                        }
+                    }
+                }
+            }
+        } catch (UncheckedIOException exception) {
+            this.lastWriteFailure = exception.getCause();
+            LOGGER.error("Failed to write {} queued chunk(s), they stay queued until the next save",
+                    this.pendingSaves.size(), exception);
+        } finally {
+            this.drainLock.unlock();
+        }
+    }
+
+    private record PendingSave(byte[] payload, CompletableFuture<Void> written) {}
+}
@@ -0,0 +1,301 @@
+package dev.turtywurty.mysticfactories.world;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Open-addressing hash table from packed chunk coordinates to chunks.
+ * <p>
+ * Keys are packed with {@link ChunkPos#toLong(int, int)} so lookups never allocate. Collisions are resolved by
+ * linear probing and removals use backward-shift deletion, so there are no tombstones to clean up. The most
+ * recently returned chunk is remembered because consecutive lookups overwhelmingly hit the same chunk.
+ */
+public class ChunkMap implements Iterable<Chunk> {
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private Chunk[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+    private Chunk lastHit;
+    private final Map<ChunkPos, Chunk> mapView = new MapView();
+
+    public ChunkMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ChunkMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 2) / LOAD_FACTOR);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    private static int hash(long key) {
+        // Murmur3 finaliser; neighbouring chunks must not land in neighbouring slots.
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private static boolean isAt(Chunk chunk, int chunkX, int chunkZ) {
+        return chunk.getPos().x == chunkX && chunk.getPos().y == chunkZ;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public Chunk get(int chunkX, int chunkZ) {
+        Chunk cached = this.lastHit;
+        if (cached != null && isAt(cached, chunkX, chunkZ))
+            return cached;
+
+        Chunk chunk = get(ChunkPos.toLong(chunkX, chunkZ));
+        if (chunk != null) {
+            this.lastHit = chunk;
+        }
+
+        return chunk;
+    }
+
+    public Chunk get(long key) {
+        long[] keys = this.keys;
+        Chunk[] values = this.values;
+        int slot = hash(key) & this.mask;
+        while (true) {
+            Chunk value = values[slot];
+            if (value == null)
+                return null;
+
+            if (keys[slot] == key)
+                return value;
+
+            slot = (slot + 1) & this.mask;
+        }
+    }
+
+    public boolean contains(int chunkX, int chunkZ) {
+        return get(chunkX, chunkZ) != null;
+    }
+
+    /**
+     * @return the chunk previously stored at the chunk's position, or {@code null}
+     */
+    public Chunk put(Chunk chunk) {
+        long key = chunk.getPos().toLong();
+        int slot = hash(key) & this.mask;
+        while (this.values[slot] != null) {
+            if (this.keys[slot] == key) {
+                Chunk previous = this.values[slot];
+                this.values[slot] = chunk;
+                if (this.lastHit == previous) {
+                    this.lastHit = null;
+                }
+
+                return previous;
+            }
+
+            slot = (slot + 1) & this.mask;
+        }
+
+        this.keys[slot] = key;
+        this.values[slot] = chunk;
+        if (++this.size > this.resizeThreshold) {
+            allocate(this.keys.length * 2);
+        }
+
+        return null;
+    }
+
+    public Chunk remove(int chunkX, int chunkZ) {
+        long key = ChunkPos.toLong(chunkX, chunkZ);
+        int slot = hash(key) & this.mask;
+        while (this.values[slot] != null) {
+            if (this.keys[slot] == key) {
+                Chunk removed = this.values[slot];
+                shiftKeys(slot);
+                this.size--;
+                if (this.lastHit == removed) {
+                    this.lastHit = null;
+                }
+
+                return removed;
+            }
+
+            slot = (slot + 1) & this.mask;
+        }
+
+        return null;
+    }
+
+    public void clear() {
+        Arrays.fill(this.keys, 0L);
+        Arrays.fill(this.values, null);
+        this.size = 0;
+        this.lastHit = null;
+    }
+
+    @Override
+    public void forEach(Consumer<? super Chunk> consumer) {
+        Chunk[] values = this.values;
+        for (Chunk value : values) {
+            if (value != null) {
+                consumer.accept(value);
+            }
+        }
+    }
+
+    @Override
+    public Iterator<Chunk> iterator() {
+        return new Iterator<>() {
+            private final Chunk[] values = ChunkMap.this.values;
+            private int slot = advance(0);
+
+            private int advance(int from) {
+                while (from < this.values.length && this.values[from] == null) {
+                    from++;
+                }
+
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return this.slot < this.values.length;
+            }
+
+            @Override
+            public Chunk next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+
+                Chunk chunk = this.values[this.slot];
+                this.slot = advance(this.slot + 1);
+                return chunk;
+            }
+        };
+    }
+
+    /**
+     * @return a live, read-only {@link Map} view keyed by {@link ChunkPos} for callers that need one
+     */
+    public Map<ChunkPos, Chunk> asMap() {
+        return this.mapView;
+    }
+
+    private void shiftKeys(int slot) {
+        // Backward-shift deletion: pull later entries of the probe run into the hole so lookups never stop early.
+        int last;
+        while (true) {
+            last = slot;
+            slot = (slot + 1) & this.mask;
+            while (true) {
+                if (this.values[slot] == null) {
+                    this.values[last] = null;
+                    this.keys[last] = 0L;
+                    return;
+                }
+
+                int ideal = hash(this.keys[slot]) & this.mask;
+                if (last <= slot ? last >= ideal || ideal > slot : last >= ideal && ideal > slot)
+                    break;
+
+                slot = (slot + 1) & this.mask;
+            }
+
+            this.keys[last] = this.keys[slot];
+            this.values[last] = this.values[slot];
+        }
+    }
+
+    private void allocate(int capacity) {
+        long[] oldKeys = this.keys;
+        Chunk[] oldValues = this.values;
+
+        this.keys = new long[capacity];
+        this.values = new Chunk[capacity];
+        this.mask = capacity - 1;
+        this.resizeThreshold = (int) (capacity * LOAD_FACTOR);
+
+        if (oldValues == null)
+            return;
+
+        for (int i = 0; i < oldValues.length; i++) {
+            Chunk value = oldValues[i];
+            if (value == null)
+                continue;
+
+            int slot = hash(oldKeys[i]) & this.mask;
+            while (this.values[slot] != null) {
+                slot = (slot + 1) & this.mask;
+            }
+
+            this.keys[slot] = oldKeys[i];
+            this.values[slot] = value;
+        }
+    }
+
+    private final class MapView extends AbstractMap<ChunkPos, Chunk> {
+        private final Set<Entry<ChunkPos, Chunk>> entrySet = new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<ChunkPos, Chunk>> iterator() {
+                Iterator<Chunk> chunks = ChunkMap.this.iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return chunks.hasNext();
+                    }
+
+                    @Override
+                    public Entry<ChunkPos, Chunk> next() {
+                        Chunk chunk = chunks.next();
+                        return new SimpleImmutableEntry<>(chunk.getPos(), chunk);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return ChunkMap.this.size;
+            }
+        };
+
+        @Override
+        public Set<Entry<ChunkPos, Chunk>> entrySet() {
+            return this.entrySet;
+        }
+
+        @Override
+        public int size() {
+            return ChunkMap.this.size;
+        }
+
+        @Override
+        public Chunk get(Object key) {
+            return key instanceof ChunkPos pos ? ChunkMap.this.get(pos.x, pos.y) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+    }
+}
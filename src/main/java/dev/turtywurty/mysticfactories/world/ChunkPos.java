@@ -6,6 +6,7 @@ import org.joml.Vector2i;
 public class ChunkPos extends Vector2i {
     public static final int SIZE = 32;
     public static final int HALF_SIZE = SIZE / 2;
+    private static final int SIZE_SHIFT = Integer.numberOfTrailingZeros(SIZE);
 
     public ChunkPos(int x, int z) {
         super(x, z);
@@ -21,6 +22,28 @@ public class ChunkPos extends Vector2i {
         return new ChunkPos(chunkX, chunkZ);
     }
 
+    /**
+     * Packs chunk coordinates into a single long, using the same layout as {@link TilePos#toLong()}.
+     */
+    public static long toLong(int chunkX, int chunkZ) {
+        return ((long) chunkX & 0xFFFFFFFFL) | (((long) chunkZ & 0xFFFFFFFFL) << 32);
+    }
+
+    public static ChunkPos fromLong(long packed) {
+        return new ChunkPos((int) (packed & 0xFFFFFFFFL), (int) ((packed >> 32) & 0xFFFFFFFFL));
+    }
+
+    /**
+     * @return the coordinate of the chunk containing the given tile coordinate
+     */
+    public static int toChunkCoordinate(int tileCoordinate) {
+        return tileCoordinate >> SIZE_SHIFT;
+    }
+
+    public long toLong() {
+        return toLong(this.x, this.y);
+    }
+
     public int z() {
         return this.y;
     }
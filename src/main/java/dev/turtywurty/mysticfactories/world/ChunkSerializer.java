@@ -0,0 +1,132 @@
+package dev.turtywurty.mysticfactories.world;
+
+import dev.turtywurty.mysticfactories.util.Identifier;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTagInput;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTagOutput;
+import dev.turtywurty.mysticfactories.util.registry.Registries;
+import dev.turtywurty.mysticfactories.world.biome.Biome;
+import dev.turtywurty.mysticfactories.world.biome.BiomeResolution;
+import dev.turtywurty.mysticfactories.world.entity.Entity;
+import dev.turtywurty.mysticfactories.world.entity.data.PositionalEntityReader;
+import dev.turtywurty.mysticfactories.world.entity.data.PositionalEntityWriter;
+import dev.turtywurty.mysticfactories.world.storage.PalettedContainer;
+import dev.turtywurty.mysticfactories.world.tile.TileType;
+import dev.turtywurty.mysticfactories.world.tileentity.StackedTileEntity;
+import dev.turtywurty.mysticfactories.world.tileentity.TileEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts chunks to and from the binary payloads stored in region files.
+ * <p>
+ * A payload holds the chunk's version, {@link Chunk#getJournalSequence() journal sequence} and biome resolution, its tile and biome containers with their
+ * palettes written as registry ids, and its tile entities through a {@link PositionalEntityWriter}, so each tile
+ * entity type's field layout is stored once per chunk. Stacked tile entities are written as their individual entries,
+ * bottom first, and are restacked when the chunk is loaded. The position is left out, since the storage already
+ * knows it, so chunks with identical contents have identical payloads.
+ */
+public final class ChunkSerializer {
+    private static final int FORMAT_VERSION = 1;
+
+    private ChunkSerializer() {}
+
+    public static byte[] write(Chunk chunk) {
+        var bytes = new ByteArrayOutputStream(1024);
+        try (var out = new DataOutputStream(bytes)) {
+            ChunkSnapshot snapshot = chunk.snapshot();
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(snapshot.getVersion());
+            out.writeLong(chunk.getJournalSequence());
+            out.writeByte(snapshot.getBiomeResolution().ordinal());
+            snapshot.tiles().write(out, type -> type.getId().toString());
+            snapshot.biomes().write(out, biome -> biome.getId().toString());
+
+            List<TileEntity> tileEntities = new ArrayList<>(chunk.getTileEntityCount());
+            chunk.forEachTileEntity(tileEntity -> {
+                if (tileEntity instanceof StackedTileEntity stacked) {
+                    tileEntities.addAll(stacked.getEntries());
+                } else {
+                    tileEntities.add(tileEntity);
+                }
+            });
+
+            var tileEntityData = new BinaryTagOutput(tileEntities.size() * 48);
+            tileEntityData.writeVarInt(tileEntities.size());
+            var writer = new PositionalEntityWriter(tileEntityData);
+            for (TileEntity tileEntity : tileEntities) {
+                writer.write(tileEntity);
+            }
+
+            out.writeInt(tileEntityData.size());
+            out.write(tileEntityData.toByteArray());
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to serialize chunk " + chunk.getPos(), exception);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads a chunk written by {@link #write(Chunk)}. Tile and biome ids that are no longer registered read back
+     * as empty entries.
+     *
+     * @param pos   the position the chunk was stored at
+     * @param world the world the tile entities are created for; they are not added to it
+     */
+    public static Result read(ByteBuffer payload, ChunkPos pos, World world) throws IOException {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+
+        var in = new DataInputStream(new ByteArrayInputStream(bytes));
+        int formatVersion = in.readUnsignedByte();
+        if (formatVersion != FORMAT_VERSION)
+            throw new IOException("Unsupported chunk format version: " + formatVersion);
+
+        int version = in.readInt();
+        long journalSequence = in.readLong();
+        int resolutionOrdinal = in.readUnsignedByte();
+        if (resolutionOrdinal >= BiomeResolution.values().length)
+            throw new IOException("Unknown biome resolution: " + resolutionOrdinal);
+
+        BiomeResolution biomeResolution = BiomeResolution.values()[resolutionOrdinal];
+        PalettedContainer<TileType> tiles = PalettedContainer.read(in, Chunk.AREA,
+                id -> Registries.TILE_TYPES.getOptional(Identifier.parse(id)).orElse(null));
+        PalettedContainer<Biome> biomes = PalettedContainer.read(in, biomeResolution.getCellCount(),
+                id -> Registries.BIOMES.getOptional(Identifier.parse(id)).orElse(null));
+        var chunk = new Chunk(pos, biomeResolution, version, journalSequence, tiles, biomes);
+
+        return new Result(chunk, readTileEntities(in, world));
+    }
+
+    private static List<TileEntity> readTileEntities(DataInputStream in, World world) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+
+        var data = new BinaryTagInput(bytes);
+        int count = data.readVarInt();
+        var reader = new PositionalEntityReader(data);
+        List<TileEntity> tileEntities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Entity entity = reader.read(world);
+            if (!(entity instanceof TileEntity tileEntity))
+                throw new IOException("Entity type " + entity.getType().getId() + " is not a tile entity");
+
+            tileEntities.add(tileEntity);
+        }
+
+        return tileEntities;
+    }
+
+    /**
+     * @param tileEntities the chunk's tile entities in stacking order, still to be added to the world
+     */
+    public record Result(Chunk chunk, List<TileEntity> tileEntities) {}
+}
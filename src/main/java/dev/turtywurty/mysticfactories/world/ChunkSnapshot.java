@@ -0,0 +1,102 @@
+package dev.turtywurty.mysticfactories.world;
+
+import dev.turtywurty.mysticfactories.world.biome.Biome;
+import dev.turtywurty.mysticfactories.world.biome.BiomeResolution;
+import dev.turtywurty.mysticfactories.world.storage.PalettedContainer;
+import dev.turtywurty.mysticfactories.world.tile.TileType;
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * An immutable view of a chunk's tiles and biomes as of one {@link #getVersion() version}.
+ * <p>
+ * Snapshots share their storage with the chunk they were taken from; the chunk copies its storage before its next
+ * write instead. That makes taking a snapshot O(1) and lets snapshots be read from any thread while the owning
+ * world keeps ticking. Tile entities are not part of a snapshot.
+ */
+public final class ChunkSnapshot {
+    @Getter
+    private final ChunkPos pos;
+    @Getter
+    private final int version;
+    @Getter
+    private final BiomeResolution biomeResolution;
+    private final PalettedContainer<TileType> tiles;
+    private final PalettedContainer<Biome> biomes;
+
+    ChunkSnapshot(ChunkPos pos, int version, BiomeResolution biomeResolution,
+                  PalettedContainer<TileType> tiles, PalettedContainer<Biome> biomes) {
+        this.pos = pos;
+        this.version = version;
+        this.biomeResolution = biomeResolution;
+        this.tiles = tiles;
+        this.biomes = biomes;
+    }
+
+    /**
+     * @see Chunk#getTileRaw(int, int)
+     */
+    @Nullable
+    public TileType getTileRaw(int x, int y) {
+        return this.tiles.get(Chunk.localIndex(x, y));
+    }
+
+    /**
+     * @see Chunk#getBiomeRaw(int, int)
+     */
+    @Nullable
+    public Biome getBiomeRaw(int x, int y) {
+        return this.biomes.get(biomeIndex(x, y));
+    }
+
+    public List<Biome> getBiomePalette() {
+        return this.biomes.getPaletteValues();
+    }
+
+    public int getBiomePaletteIndex(int x, int y) {
+        return this.biomes.getPaletteIndex(biomeIndex(x, y));
+    }
+
+    public int getBiomePaletteSize() {
+        return this.biomes.getPaletteSize();
+    }
+
+    public Biome getBiomePaletteEntry(int paletteIndex) {
+        return this.biomes.getPaletteEntry(paletteIndex);
+    }
+
+    /**
+     * @see Chunk#copyBiomePaletteIndices(int[])
+     */
+    public void copyBiomePaletteIndices(int[] out) {
+        this.biomes.copyPaletteIndices(out);
+    }
+
+    /**
+     * @see Chunk#forEachTile(Chunk.TileConsumer)
+     */
+    public void forEachTile(Chunk.TileConsumer consumer) {
+        int baseX = this.pos.x * Chunk.SIZE;
+        int baseY = this.pos.y * Chunk.SIZE;
+        for (int index = 0; index < Chunk.AREA; index++) {
+            TileType type = this.tiles.get(index);
+            if (type != null) {
+                consumer.accept(baseX + (index & (Chunk.SIZE - 1)), baseY + index / Chunk.SIZE, type);
+            }
+        }
+    }
+
+    PalettedContainer<TileType> tiles() {
+        return this.tiles;
+    }
+
+    PalettedContainer<Biome> biomes() {
+        return this.biomes;
+    }
+
+    private int biomeIndex(int x, int y) {
+        return this.biomeResolution.cellIndex(x & (Chunk.SIZE - 1), y & (Chunk.SIZE - 1));
+    }
+}
@@ -0,0 +1,56 @@
+package dev.turtywurty.mysticfactories.world;
+
+import lombok.Getter;
+
+/**
+ * How far a chunk has come through generation, see {@link ChunkGenerationPipeline}.
+ * <p>
+ * A chunk advances to a status once it has reached the previous one itself, and every chunk within the status'
+ * {@link #getNeighbourRadius() neighbour radius} has reached the previous one too.
+ */
+@Getter
+public enum ChunkStatus {
+    /**
+     * Created, with nothing generated yet.
+     */
+    EMPTY(0, true),
+    /**
+     * Biomes assigned. Depends on nothing but the seed, so it runs off the world's thread.
+     */
+    BIOMES(0, true),
+    /**
+     * Tiles generated from the biomes. Also runs off the world's thread.
+     */
+    SURFACE(0, true),
+    /**
+     * Added to the world with its features placed. Features may read the surface of the chunks around them, so
+     * those must have reached {@link #SURFACE}, but they only write to their own chunk. Runs on the world's thread.
+     */
+    FEATURES(1, false),
+    /**
+     * Finished and visible to the rest of the game. Runs on the world's thread.
+     */
+    FULL(0, false);
+
+    private static final ChunkStatus[] VALUES = values();
+
+    private final int neighbourRadius;
+    private final boolean parallel;
+
+    ChunkStatus(int neighbourRadius, boolean parallel) {
+        this.neighbourRadius = neighbourRadius;
+        this.parallel = parallel;
+    }
+
+    /**
+     * @return the status a chunk and its neighbours must have reached before advancing to this one, or {@code null}
+     * for {@link #EMPTY}
+     */
+    public ChunkStatus previous() {
+        return this == EMPTY ? null : VALUES[ordinal() - 1];
+    }
+
+    public boolean isAtLeast(ChunkStatus status) {
+        return ordinal() >= status.ordinal();
+    }
+}
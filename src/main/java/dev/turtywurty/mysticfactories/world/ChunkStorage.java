@@ -0,0 +1,102 @@
+package dev.turtywurty.mysticfactories.world;
+
+import dev.turtywurty.mysticfactories.world.storage.RegionStorage;
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Saves and loads a world's chunks through region files, keeping load and save throughput statistics.
+ */
+public class ChunkStorage implements AutoCloseable {
+    private final RegionStorage regions;
+    @Getter
+    private long chunksLoaded, chunksSaved, chunksDeduplicated;
+    private long loadNanos, saveNanos;
+
+    public ChunkStorage(Path directory) {
+        this.regions = new RegionStorage(directory);
+    }
+
+    /**
+     * @return the stored chunk and its tile entities, or {@code null} if the chunk has never been saved
+     */
+    @Nullable
+    public ChunkSerializer.Result load(World world, ChunkPos pos) {
+        long start = System.nanoTime();
+        try {
+            ByteBuffer payload = this.regions.read(pos.x, pos.y);
+            if (payload == null)
+                return null;
+
+            ChunkSerializer.Result result = ChunkSerializer.read(payload, pos, world);
+            synchronized (this) {
+                this.chunksLoaded++;
+                this.loadNanos += System.nanoTime() - start;
+            }
+
+            return result;
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to load chunk " + pos, exception);
+        }
+    }
+
+    /**
+     * Writes chunks serialized with {@link ChunkSerializer#write(Chunk)} and flushes them to disk. Payloads identical
+     * to one already in their region file share its sector and count towards {@link #getChunksDeduplicated()}.
+     */
+    public void write(Map<ChunkPos, byte[]> payloads) {
+        long start = System.nanoTime();
+        int deduplicated;
+        try {
+            deduplicated = this.regions.writeAll(payloads);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to save " + payloads.size() + " chunk(s)", exception);
+        }
+
+        synchronized (this) {
+            this.chunksSaved += payloads.size();
+            this.chunksDeduplicated += deduplicated;
+            this.saveNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * @return chunks loaded per second of time spent loading, or 0 if none have been loaded
+     */
+    public synchronized double getLoadThroughput() {
+        return this.loadNanos == 0 ? 0 : this.chunksLoaded * 1e9 / this.loadNanos;
+    }
+
+    /**
+     * @return chunks saved per second of time spent saving, or 0 if none have been saved
+     */
+    public synchronized double getSaveThroughput() {
+        return this.saveNanos == 0 ? 0 : this.chunksSaved * 1e9 / this.saveNanos;
+    }
+
+    /**
+     * @return the share of saved chunks whose payload was identical to one already stored, or 0 if none were saved
+     */
+    public synchronized double getDedupRatio() {
+        return this.chunksSaved == 0 ? 0 : this.chunksDeduplicated / (double) this.chunksSaved;
+    }
+
+    public void flush() {
+        this.regions.flush();
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.regions.close();
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to close region files", exception);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package dev.turtywurty.mysticfactories.world;
+
+import dev.turtywurty.mysticfactories.world.biome.Biome;
+import dev.turtywurty.mysticfactories.world.biome.BiomeResolution;
+import dev.turtywurty.mysticfactories.world.storage.PalettedContainer;
+import dev.turtywurty.mysticfactories.world.tile.TileType;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lets chunks with identical tile and biome contents share one storage instance.
+ * <p>
+ * Storage is looked up by a hash of its contents and compared entry by entry on a hash match. A shared instance is
+ * never written to: chunks holding it copy their storage on the first write, like they do for snapshots, and release
+ * their reference. An instance is forgotten once no chunk references it. Only used from the thread owning the world.
+ */
+public class ChunkStorageDeduplicator {
+    private final Map<Key, SharedChunkStorage> instances = new HashMap<>();
+    @Getter
+    private int referenceCount;
+
+    /**
+     * @return the shared storage with the same contents as the given containers, with a reference taken on it. If there
+     * is none yet, the given containers become the shared storage.
+     */
+    public SharedChunkStorage acquire(BiomeResolution biomeResolution, PalettedContainer<TileType> tiles,
+                                      PalettedContainer<Biome> biomes) {
+        var key = new Key(biomeResolution, tiles, biomes,
+                31 * (31 * biomeResolution.hashCode() + tiles.contentHashCode()) + biomes.contentHashCode());
+        SharedChunkStorage shared = this.instances.computeIfAbsent(key, SharedChunkStorage::new);
+        shared.references++;
+        this.referenceCount++;
+        return shared;
+    }
+
+    public int getInstanceCount() {
+        return this.instances.size();
+    }
+
+    /**
+     * @return how many chunks share each storage instance on average, or 1 if no chunk holds shared storage
+     */
+    public double getDedupRatio() {
+        return this.instances.isEmpty() ? 1 : this.referenceCount / (double) this.instances.size();
+    }
+
+    private void release(SharedChunkStorage shared) {
+        if (shared.references <= 0)
+            throw new IllegalStateException("Shared chunk storage released more often than acquired");
+
+        this.referenceCount--;
+        if (--shared.references == 0) {
+            this.instances.remove(shared.key);
+        }
+    }
+
+    private record Key(BiomeResolution biomeResolution, PalettedContainer<TileType> tiles,
+                       PalettedContainer<Biome> biomes, int hash) {
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key other
+                    && this.hash == other.hash
+                    && this.biomeResolution == other.biomeResolution
+                    && this.tiles.contentEquals(other.tiles)
+                    && this.biomes.contentEquals(other.biomes);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+
+    /**
+     * Tile and biome storage held by one or more chunks, see {@link ChunkStorageDeduplicator}.
+     */
+    public final class SharedChunkStorage {
+        private final Key key;
+        private int references;
+
+        private SharedChunkStorage(Key key) {
+            this.key = key;
+        }
+
+        public PalettedContainer<TileType> tiles() {
+            return this.key.tiles();
+        }
+
+        public PalettedContainer<Biome> biomes() {
+            return this.key.biomes();
+        }
+
+        public int getReferences() {
+            return this.references;
+        }
+
+        /**
+         * Drops a reference taken by {@link #acquire}.
+         */
+        public void release() {
+            ChunkStorageDeduplicator.this.release(this);
+        }
+    }
+}
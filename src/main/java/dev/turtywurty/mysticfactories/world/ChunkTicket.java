@@ -0,0 +1,15 @@
+package dev.turtywurty.mysticfactories.world;
+
+/**
+ * A request to keep the chunks around {@code pos} loaded, see {@link ChunkTicketManager}.
+ *
+ * @param expiresAt the world time at which the ticket is dropped, or {@link Long#MAX_VALUE} if it never expires
+ */
+public record ChunkTicket(TicketType type, ChunkPos pos, int level, long expiresAt) {
+    /**
+     * @return whether this ticket was placed by the same owner as the given one, ignoring its expiry
+     */
+    public boolean matches(TicketType type, ChunkPos pos, int level) {
+        return this.type.equals(type) && this.pos.equals(pos) && this.level == level;
+    }
+}
@@ -0,0 +1,188 @@
+package dev.turtywurty.mysticfactories.world;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides which chunks should be loaded from the tickets placed on them.
+ * <p>
+ * A ticket at level {@code L} gives every chunk within Chebyshev distance {@code d} of its position the level
+ * {@code L + d}, and a chunk's level is the lowest any ticket gives it. Chunks at or below {@link #MAX_LOADED_LEVEL}
+ * should be loaded, so a ticket at {@link #levelForRadius(int) levelForRadius(r)} keeps a square of radius {@code r}
+ * loaded. Levels are recomputed lazily on the next {@link #tick(long)} after tickets change.
+ * <p>
+ * Identical tickets share one entry that counts its holders, so players standing in the same chunk each hold the
+ * ticket there and it is only removed once the last of them releases it.
+ */
+public class ChunkTicketManager {
+    public static final int MAX_LOADED_LEVEL = 32;
+
+    private final Map<Long, List<Entry>> tickets = new HashMap<>();
+    private final Map<Long, Integer> levels = new HashMap<>();
+    @Getter
+    private int ticketCount;
+    private boolean levelsDirty;
+    private long time;
+
+    /**
+     * @return the ticket level that keeps every chunk within {@code radius} of the ticket's position loaded
+     */
+    public static int levelForRadius(int radius) {
+        if (radius < 0 || radius > MAX_LOADED_LEVEL)
+            throw new IllegalArgumentException("Radius must be between 0 and " + MAX_LOADED_LEVEL + ": " + radius);
+
+        return MAX_LOADED_LEVEL - radius;
+    }
+
+    /**
+     * Places a ticket, or adds a holder to an identical one that is already placed and restarts its time-to-live.
+     * Each call must be balanced by a {@link #removeTicket(ChunkTicket) removal} unless the ticket expires.
+     */
+    public ChunkTicket addTicket(TicketType type, ChunkPos pos, int level) {
+        if (level < 0 || level > MAX_LOADED_LEVEL)
+            throw new IllegalArgumentException("Ticket level must be between 0 and " + MAX_LOADED_LEVEL + ": " + level);
+
+        var ticket = new ChunkTicket(type, new ChunkPos(pos.x, pos.y), level,
+                type.expires() ? this.time + type.timeToLive() : Long.MAX_VALUE);
+        List<Entry> atPos = this.tickets.computeIfAbsent(pos.toLong(), key -> new ArrayList<>(2));
+        for (Entry entry : atPos) {
+            if (entry.ticket.matches(type, pos, level)) {
+                entry.ticket = ticket;
+                entry.holders++;
+                return ticket;
+            }
+        }
+
+        atPos.add(new Entry(ticket));
+        this.ticketCount++;
+        this.levelsDirty = true;
+        return ticket;
+    }
+
+    public ChunkTicket addRegionTicket(TicketType type, ChunkPos pos, int radius) {
+        return addTicket(type, pos, levelForRadius(radius));
+    }
+
+    /**
+     * Releases one holder of a matching ticket, and removes the ticket once it has none left.
+     *
+     * @return whether a matching ticket was placed
+     */
+    public boolean removeTicket(TicketType type, ChunkPos pos, int level) {
+        List<Entry> atPos = this.tickets.get(pos.toLong());
+        if (atPos == null)
+            return false;
+
+        Entry entry = null;
+        for (Entry candidate : atPos) {
+            if (candidate.ticket.matches(type, pos, level)) {
+                entry = candidate;
+                break;
+            }
+        }
+
+        if (entry == null)
+            return false;
+
+        if (--entry.holders > 0)
+            return true;
+
+        atPos.remove(entry);
+        if (atPos.isEmpty()) {
+            this.tickets.remove(pos.toLong());
+        }
+
+        this.ticketCount--;
+        this.levelsDirty = true;
+        return true;
+    }
+
+    public boolean removeTicket(ChunkTicket ticket) {
+        return removeTicket(ticket.type(), ticket.pos(), ticket.level());
+    }
+
+    /**
+     * Advances the ticket clock, drops expired tickets and recomputes chunk levels if any ticket changed.
+     */
+    public void tick(long time) {
+        this.time = time;
+        this.tickets.values().removeIf(atPos -> {
+            int before = atPos.size();
+            atPos.removeIf(entry -> entry.ticket.expiresAt() <= time);
+            if (atPos.size() != before) {
+                this.ticketCount -= before - atPos.size();
+                this.levelsDirty = true;
+            }
+
+            return atPos.isEmpty();
+        });
+
+        if (this.levelsDirty) {
+            computeLevels();
+            this.levelsDirty = false;
+        }
+    }
+
+    /**
+     * @return the chunk's level as of the last {@link #tick(long)}, or {@code MAX_LOADED_LEVEL + 1} if no ticket
+     * reaches it
+     */
+    public int getLevel(int chunkX, int chunkZ) {
+        return this.levels.getOrDefault(ChunkPos.toLong(chunkX, chunkZ), MAX_LOADED_LEVEL + 1);
+    }
+
+    public boolean shouldBeLoaded(int chunkX, int chunkZ) {
+        return this.levels.containsKey(ChunkPos.toLong(chunkX, chunkZ));
+    }
+
+    /**
+     * @return the number of chunks tickets keep loaded
+     */
+    public int getTicketedChunkCount() {
+        return this.levels.size();
+    }
+
+    /**
+     * Visits every chunk that tickets keep loaded, as of the last {@link #tick(long)}.
+     */
+    public void forEachTicketedChunk(ChunkVisitor visitor) {
+        for (long key : this.levels.keySet()) {
+            visitor.visit((int) key, (int) (key >> 32));
+        }
+    }
+
+    private void computeLevels() {
+        this.levels.clear();
+        for (List<Entry> atPos : this.tickets.values()) {
+            for (Entry entry : atPos) {
+                ChunkTicket ticket = entry.ticket;
+                int radius = MAX_LOADED_LEVEL - ticket.level();
+                ChunkPos center = ticket.pos();
+                for (int dz = -radius; dz <= radius; dz++) {
+                    for (int dx = -radius; dx <= radius; dx++) {
+                        int level = ticket.level() + Math.max(Math.abs(dx), Math.abs(dz));
+                        this.levels.merge(ChunkPos.toLong(center.x + dx, center.y + dz), level, Math::min);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        private ChunkTicket ticket;
+        private int holders = 1;
+
+        private Entry(ChunkTicket ticket) {
+            this.ticket = ticket;
+        }
+    }
+
+    @FunctionalInterface
+    public interface ChunkVisitor {
+        void visit(int chunkX, int chunkZ);
+    }
+}
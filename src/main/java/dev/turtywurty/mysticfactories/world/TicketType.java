@@ -0,0 +1,37 @@
+package dev.turtywurty.mysticfactories.world;
+
+/**
+ * Why a {@link ChunkTicket} keeps chunks loaded, and how long it lasts.
+ *
+ * @param name       used in logs and {@link #toString()}
+ * @param timeToLive ticks until a ticket of this type expires on its own, or {@code 0} if it stays until removed
+ */
+public record TicketType(String name, int timeToLive) {
+    /**
+     * Keeps the chunks within view distance of a player loaded, and moves with the player.
+     */
+    public static final TicketType PLAYER = new TicketType("player", 0);
+    public static final TicketType SPAWN = new TicketType("spawn", 0);
+    public static final TicketType FORCED = new TicketType("forced", 0);
+    /**
+     * Short-lived access for features or other code that needs to read or write a chunk it does not own.
+     */
+    public static final TicketType FEATURE = new TicketType("feature", 150);
+
+    public TicketType {
+        if (name == null || name.isBlank())
+            throw new IllegalArgumentException("Ticket type name cannot be null/blank");
+
+        if (timeToLive < 0)
+            throw new IllegalArgumentException("timeToLive cannot be negative");
+    }
+
+    public boolean expires() {
+        return this.timeToLive > 0;
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+}
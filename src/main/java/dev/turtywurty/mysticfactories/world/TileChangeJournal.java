@@ -0,0 +1,505 @@
+package dev.turtywurty.mysticfactories.world;
+
+import dev.turtywurty.mysticfactories.util.Identifier;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTagInput;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTagOutput;
+import dev.turtywurty.mysticfactories.util.registry.Registries;
+import dev.turtywurty.mysticfactories.world.entity.Entity;
+import dev.turtywurty.mysticfactories.world.entity.EntityType;
+import dev.turtywurty.mysticfactories.world.entity.data.BinaryEntityDataReader;
+import dev.turtywurty.mysticfactories.world.entity.data.BinaryEntityDataWriter;
+import dev.turtywurty.mysticfactories.world.tile.TilePos;
+import dev.turtywurty.mysticfactories.world.tile.TileType;
+import dev.turtywurty.mysticfactories.world.tileentity.TileEntity;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of the tile edits made since their chunks were last saved, so a crash loses at most one sync
+ * interval of building instead of everything since the last save.
+ * <p>
+ * Edits are buffered on the ticking thread and group-committed by a background thread, which appends them to the file
+ * and fsyncs it once per sync interval. Each record is framed with its length and a checksum, so a record torn by a
+ * crash ends {@link #replay(Path, World) replay} instead of corrupting it. Once a chunk's save has reached the disk,
+ * its records are {@link #release(ChunkPos, long) released}; the file is truncated when no records are left and
+ * rewritten with only the remaining ones once they make up a small part of it.
+ * <p>
+ * Tile types and the placement and removal of tile entities are journaled. A batch of tile writes made to one chunk
+ * through a {@link WorldRegion} is journaled as a single record. Changes to a tile entity's own state are only written
+ * by the next chunk save.
+ * <p>
+ * Pushing and popping tile entities is not idempotent, so chunks remember the sequence number of the last record
+ * applied to them ({@link Chunk#getJournalSequence()}) and replay skips records their saved state already holds.
+ * Sequence numbers keep growing across runs: the file always starts with a marker record carrying the sequence number
+ * it was started or last rewritten at, and {@link Replay#nextSequence()} continues after the highest one seen.
+ */
+public class TileChangeJournal implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TileChangeJournal.class);
+    private static final byte MARKER = 0;
+    private static final byte SET_TILE = 1;
+    private static final byte SET_TILE_ENTITY = 2;
+    private static final byte PUSH_TILE_ENTITY = 3;
+    private static final byte POP_TILE_ENTITY = 4;
+    private static final byte SET_TILES = 5;
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+    private static final long REWRITE_MIN_BYTES = 1024 * 1024;
+
+    private final Path file;
+    private final ScheduledExecutorService committer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("tile-journal").daemon().factory());
+    private final Object lock = new Object();
+    private final Map<Long, ArrayDeque<Entry>> liveEntries = new HashMap<>();
+    private List<Entry> uncommitted = new ArrayList<>();
+    private FileChannel channel;
+    private long nextSequence;
+    private long liveBytes;
+    private long fileBytes;
+    private boolean rewriteRequested;
+
+    /**
+     * Opens a new journal, discarding the contents of an existing file. {@link #replay(Path, World) Replay} and save
+     * an old journal before opening a new one over it.
+     *
+     * @param firstSequence the sequence number of the first record, which must be above those of every earlier run;
+     *                      see {@link Replay#nextSequence()}
+     */
+    public TileChangeJournal(Path file, Duration syncInterval, long firstSequence) throws IOException {
+        if (syncInterval.isNegative() || syncInterval.isZero())
+            throw new IllegalArgumentException("syncInterval must be positive");
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        this.file = file;
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.nextSequence = firstSequence;
+        this.fileBytes = writeMarker(this.channel, firstSequence);
+        long millis = Math.max(1, syncInterval.toMillis());
+        this.committer.scheduleWithFixedDelay(this::commitSafely, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Applies the records of a journal left by a previous run, in order, loading each chunk they touch first.
+     * Records that cannot be applied are skipped with a warning, and records the chunk's saved state already holds
+     * are skipped silently.
+     */
+    public static Replay replay(Path file, World world) throws IOException {
+        if (!Files.exists(file))
+            return new Replay(0, 0, 0);
+
+        byte[] data = Files.readAllBytes(file);
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        int applied = 0;
+        int skipped = 0;
+        long nextSequence = 0;
+        int recordStart = 0;
+        while (data.length - recordStart >= Integer.BYTES) {
+            buffer.position(recordStart);
+            int length = buffer.getInt();
+            if (length < Long.BYTES || length > data.length - buffer.position() - Integer.BYTES)
+                break;
+
+            var crc = new CRC32();
+            crc.update(data, buffer.position(), length);
+            if ((int) crc.getValue() != buffer.getInt(buffer.position() + length))
+                break;
+
+            long sequence = buffer.getLong(buffer.position());
+            nextSequence = Math.max(nextSequence, sequence + 1);
+            try {
+                if (apply(world, sequence, new BinaryTagInput(data, buffer.position() + Long.BYTES, length - Long.BYTES))) {
+                    applied++;
+                } else {
+                    skipped++;
+                }
+            } catch (IOException | RuntimeException exception) {
+                LOGGER.warn("Skipping journal record {} in {}", sequence, file, exception);
+            }
+
+            recordStart = buffer.position() + length + Integer.BYTES;
+        }
+
+        if (recordStart < data.length) {
+            LOGGER.warn("Ignored {} byte(s) of incomplete records at the end of {}", data.length - recordStart, file);
+        }
+
+        return new Replay(applied, skipped, nextSequence);
+    }
+
+    /**
+     * @return the record's sequence number, to be stored as the chunk's {@link Chunk#getJournalSequence()}
+     */
+    public long logSetTile(TilePos pos, @Nullable TileType type) {
+        BinaryTagOutput body = begin(SET_TILE, pos);
+        body.writeString(type == null ? "" : type.getId().toString());
+        return append(pos, body);
+    }
+
+    /**
+     * Logs a batch of tile writes to one chunk, holding the chunk's current type at each of the given
+     * {@link Chunk#localIndex(int, int) local indices}.
+     *
+     * @return the record's sequence number, to be stored as the chunk's {@link Chunk#getJournalSequence()}
+     */
+    public long logSetTiles(Chunk chunk, int[] localIndices) {
+        ChunkPos chunkPos = chunk.getPos();
+        var origin = new TilePos(chunkPos.x * Chunk.SIZE, chunkPos.y * Chunk.SIZE);
+        // Batches usually write a handful of types, so each id is written once and tiles refer to it by index.
+        Map<TileType, Integer> paletteIndices = new IdentityHashMap<>();
+        List<TileType> palette = new ArrayList<>();
+        var typeIndices = new int[localIndices.length];
+        for (int i = 0; i < localIndices.length; i++) {
+            TileType type = chunk.getTileRaw(origin.x + (localIndices[i] & (Chunk.SIZE - 1)),
+                    origin.y + localIndices[i] / Chunk.SIZE);
+            Integer index = paletteIndices.get(type);
+            if (index == null) {
+                index = palette.size();
+                paletteIndices.put(type, index);
+                palette.add(type);
+            }
+
+            typeIndices[i] = index;
+        }
+
+        BinaryTagOutput body = begin(SET_TILES, origin);
+        body.writeVarInt(palette.size());
+        for (TileType type : palette) {
+            body.writeString(type == null ? "" : type.getId().toString());
+        }
+
+        body.writeVarInt(localIndices.length);
+        for (int i = 0; i < localIndices.length; i++) {
+            body.writeVarInt(localIndices[i]);
+            body.writeVarInt(typeIndices[i]);
+        }
+
+        return append(origin, body);
+    }
+
+    /**
+     * @return the record's sequence number, to be stored as the chunk's {@link Chunk#getJournalSequence()}
+     */
+    public long logSetTileEntity(TilePos pos, @Nullable TileEntity tileEntity) {
+        BinaryTagOutput body = begin(SET_TILE_ENTITY, pos);
+        body.writeByte((byte) (tileEntity == null ? 0 : 1));
+        if (tileEntity != null) {
+            writeTileEntity(body, tileEntity);
+        }
+
+        return append(pos, body);
+    }
+
+    /**
+     * @return the record's sequence number, to be stored as the chunk's {@link Chunk#getJournalSequence()}
+     */
+    public long logPushTileEntity(TilePos pos, TileEntity tileEntity) {
+        BinaryTagOutput body = begin(PUSH_TILE_ENTITY, pos);
+        writeTileEntity(body, tileEntity);
+        return append(pos, body);
+    }
+
+    /**
+     * @return the record's sequence number, to be stored as the chunk's {@link Chunk#getJournalSequence()}
+     */
+    public long logPopTileEntity(TilePos pos) {
+        return append(pos, begin(POP_TILE_ENTITY, pos));
+    }
+
+    /**
+     * @return the sequence number the next record will get; a chunk saved now covers every record before it
+     */
+    public long getSequence() {
+        synchronized (this.lock) {
+            return this.nextSequence;
+        }
+    }
+
+    /**
+     * Drops the chunk's records before the given sequence number, once a save that covers them is on disk.
+     */
+    public void release(ChunkPos pos, long sequence) {
+        synchronized (this.lock) {
+            ArrayDeque<Entry> entries = this.liveEntries.get(pos.toLong());
+            if (entries == null)
+                return;
+
+            while (!entries.isEmpty() && entries.peekFirst().sequence() < sequence) {
+                this.liveBytes -= entries.pollFirst().record().length;
+            }
+
+            if (entries.isEmpty()) {
+                this.liveEntries.remove(pos.toLong());
+            }
+
+            if (this.liveEntries.isEmpty()
+                    || (this.fileBytes >= REWRITE_MIN_BYTES && this.liveBytes * 4 < this.fileBytes)) {
+                this.rewriteRequested = true;
+            }
+        }
+    }
+
+    /**
+     * Commits the remaining records and closes the file.
+     */
+    @Override
+    public void close() {
+        this.committer.shutdown();
+        try {
+            if (!this.committer.awaitTermination(30, TimeUnit.SECONDS)) {
+                LOGGER.warn("Timed out waiting for the tile journal to commit");
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
+        commitSafely();
+        try {
+            this.channel.close();
+        } catch (IOException exception) {
+            LOGGER.error("Failed to close tile journal {}", this.file, exception);
+        }
+    }
+
+    private static BinaryTagOutput begin(byte operation, TilePos pos) {
+        var body = new BinaryTagOutput(32);
+        body.writeByte(operation);
+        body.writeVarLong(pos.x);
+        body.writeVarLong(pos.y);
+        return body;
+    }
+
+    private static void writeTileEntity(BinaryTagOutput body, TileEntity tileEntity) {
+        var writer = new BinaryEntityDataWriter();
+        tileEntity.writeData(writer);
+        body.writeString(tileEntity.getType().getId().toString());
+        body.write(writer.toTag());
+    }
+
+    private long append(TilePos pos, BinaryTagOutput body) {
+        synchronized (this.lock) {
+            long sequence = this.nextSequence++;
+            var entry = new Entry(sequence, frame(sequence, body));
+            this.uncommitted.add(entry);
+            this.liveEntries.computeIfAbsent(ChunkPos.toLong(ChunkPos.toChunkCoordinate(pos.x),
+                    ChunkPos.toChunkCoordinate(pos.y)), key -> new ArrayDeque<>()).add(entry);
+            this.liveBytes += entry.record().length;
+            return sequence;
+        }
+    }
+
+    /**
+     * Writes a marker record carrying {@code sequence} at the channel's position, so a replay of the file continues
+     * numbering after it even once every other record has been released.
+     *
+     * @return the number of bytes written
+     */
+    private static long writeMarker(FileChannel channel, long sequence) throws IOException {
+        var body = new BinaryTagOutput(1);
+        body.writeByte(MARKER);
+        ByteBuffer buffer = ByteBuffer.wrap(frame(sequence, body));
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+
+        channel.force(false);
+        return written;
+    }
+
+    /**
+     * Lays out a record as its length, its sequence number and body, then a CRC32 of the sequence number and body.
+     */
+    private static byte[] frame(long sequence, BinaryTagOutput body) {
+        int length = Long.BYTES + body.size();
+        byte[] record = new byte[HEADER_BYTES + body.size() + Integer.BYTES];
+        ByteBuffer buffer = ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(length);
+        buffer.putLong(sequence);
+        buffer.put(body.toByteArray());
+
+        var crc = new CRC32();
+        crc.update(record, Integer.BYTES, length);
+        buffer.putInt((int) crc.getValue());
+        return record;
+    }
+
+    private void commitSafely() {
+        try {
+            commit();
+        } catch (IOException | RuntimeException exception) {
+            LOGGER.error("Failed to commit tile journal {}", this.file, exception);
+        }
+    }
+
+    private void commit() throws IOException {
+        List<Entry> batch;
+        List<Entry> live = null;
+        long markerSequence;
+        synchronized (this.lock) {
+            batch = this.uncommitted;
+            this.uncommitted = new ArrayList<>();
+            markerSequence = this.nextSequence;
+            if (this.rewriteRequested) {
+                this.rewriteRequested = false;
+                live = new ArrayList<>();
+                for (ArrayDeque<Entry> entries : this.liveEntries.values()) {
+                    live.addAll(entries);
+                }
+
+                live.sort(Comparator.comparingLong(Entry::sequence));
+            }
+        }
+
+        // Every record that is still needed, including this batch, is live, so a rewrite replaces the append.
+        long written = live != null ? rewrite(live, markerSequence) : this.fileBytes + append(batch);
+        synchronized (this.lock) {
+            this.fileBytes = written;
+        }
+    }
+
+    private long append(List<Entry> batch) throws IOException {
+        if (batch.isEmpty())
+            return 0;
+
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        long total = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.wrap(batch.get(i).record());
+            total += buffers[i].remaining();
+        }
+
+        while (buffers[buffers.length - 1].hasRemaining()) {
+            this.channel.write(buffers);
+        }
+
+        this.channel.force(false);
+        return total;
+    }
+
+    private long rewrite(List<Entry> live, long markerSequence) throws IOException {
+        if (live.isEmpty()) {
+            this.channel.truncate(0);
+            this.channel.position(0);
+            return writeMarker(this.channel, markerSequence);
+        }
+
+        Path temp = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+        long total;
+        try (FileChannel out = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            total = writeMarker(out, markerSequence);
+            for (Entry entry : live) {
+                ByteBuffer buffer = ByteBuffer.wrap(entry.record());
+                while (buffer.hasRemaining()) {
+                    total += out.write(buffer);
+                }
+            }
+
+            out.force(false);
+        }
+
+        this.channel.close();
+        Files.move(temp, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.channel = FileChannel.open(this.file, StandardOpenOption.WRITE);
+        this.channel.position(total);
+        return total;
+    }
+
+    /**
+     * @return whether the record was applied, rather than being a marker or already held by the chunk's saved state
+     */
+    private static boolean apply(World world, long sequence, BinaryTagInput in) throws IOException {
+        byte operation = in.readByte();
+        if (operation == MARKER)
+            return false;
+
+        var pos = new TilePos((int) in.readVarLong(), (int) in.readVarLong());
+        Chunk chunk = world.addChunk(pos.toChunkPos());
+        if (sequence <= chunk.getJournalSequence())
+            return false;
+
+        switch (operation) {
+            case SET_TILE -> world.setTile(pos, readTileType(in));
+            case SET_TILES -> {
+                var palette = new TileType[in.readVarInt()];
+                for (int i = 0; i < palette.length; i++) {
+                    palette[i] = readTileType(in);
+                }
+
+                int count = in.readVarInt();
+                try (WorldRegion region = world.getRegion(pos.x, pos.y, pos.x, pos.y)) {
+                    for (int i = 0; i < count; i++) {
+                        int index = in.readVarInt();
+                        if (index < 0 || index >= Chunk.AREA)
+                            throw new IOException("Tile index out of range: " + index);
+
+                        region.setTile(pos.x + (index & (Chunk.SIZE - 1)), pos.y + index / Chunk.SIZE,
+                                palette[in.readVarInt()]);
+                    }
+                }
+            }
+            case SET_TILE_ENTITY -> world.setTileEntity(pos, in.readByte() != 0 ? readTileEntity(in, world) : null);
+            case PUSH_TILE_ENTITY -> world.pushTileEntity(pos, readTileEntity(in, world));
+            case POP_TILE_ENTITY -> world.popTileEntity(pos);
+            default -> throw new IOException("Unknown journal operation " + operation);
+        }
+
+        chunk.setJournalSequence(sequence);
+        return true;
+    }
+
+    private static @Nullable TileType readTileType(BinaryTagInput in) throws IOException {
+        String id = in.readString();
+        if (id.isEmpty())
+            return null;
+
+        return Registries.TILE_TYPES.getOptional(Identifier.parse(id))
+                .orElseThrow(() -> new IOException("Unknown tile type: " + id));
+    }
+
+    private static TileEntity readTileEntity(BinaryTagInput in, World world) throws IOException {
+        Identifier typeId = Identifier.parse(in.readString());
+        EntityType<?> type = Registries.ENTITY_TYPES.getOptional(typeId)
+                .orElseThrow(() -> new IOException("Unknown tile entity type: " + typeId));
+        Entity entity = type.create(world);
+        if (!(entity instanceof TileEntity tileEntity))
+            throw new IOException("Entity type " + typeId + " is not a tile entity");
+
+        tileEntity.readData(new BinaryEntityDataReader(in.read()));
+        return tileEntity;
+    }
+
+    private record Entry(long sequence, byte[] record) {}
+
+    /**
+     * @param applied      the number of records applied
+     * @param skipped      the number of records the chunks' saved states already held
+     * @param nextSequence the first sequence number a new journal over the file may use
+     */
+    public record Replay(int applied, int skipped, long nextSequence) {}
+}
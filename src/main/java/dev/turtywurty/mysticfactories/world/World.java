@@ -2,29 +2,66 @@ package dev.turtywurty.mysticfactories.world;
 
 import dev.turtywurty.mysticfactories.init.TileEntityTypes;
 import dev.turtywurty.mysticfactories.world.biome.Biome;
+import dev.turtywurty.mysticfactories.world.biome.BiomeResolution;
 import dev.turtywurty.mysticfactories.world.entity.Entity;
+import dev.turtywurty.mysticfactories.world.entity.EntityStore;
 import dev.turtywurty.mysticfactories.world.entity.RemovalReason;
+import dev.turtywurty.mysticfactories.world.gen.ChunkGenerationContext;
 import dev.turtywurty.mysticfactories.world.gen.WorldGenerator;
+import dev.turtywurty.mysticfactories.world.seed.LongSeedSource;
 import dev.turtywurty.mysticfactories.world.tile.TilePos;
 import dev.turtywurty.mysticfactories.world.tile.TileType;
 import dev.turtywurty.mysticfactories.world.tileentity.StackedTileEntity;
 import dev.turtywurty.mysticfactories.world.tileentity.TileEntity;
 import lombok.Getter;
+import lombok.Setter;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Vector2d;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntConsumer;
+import java.util.random.RandomGenerator;
 
 public abstract class World implements WorldView {
-    @Getter
-    protected final Random random = new Random();
-    protected final Map<ChunkPos, Chunk> chunks = new HashMap<>();
-    protected final List<Entity> entities = new ArrayList<>();
-    protected final List<Entity> tickingEntities = new ArrayList<>();
-    protected final Map<TilePos, TileEntity> tileEntitiesMap = new HashMap<>();
+    private static final Logger LOGGER = LoggerFactory.getLogger(World.class);
+
+    protected final ChunkMap chunks = new ChunkMap();
+    protected final EntityStore<Entity> entities = new EntityStore<>();
+    protected final EntityStore<Entity> tickingEntities = new EntityStore<>();
     protected final Map<Entity, RemovalReason> pendingEntityRemovals = new LinkedHashMap<>();
     protected final WorldType worldType;
     private final WorldData worldData;
+    @Getter
     private final WorldGenerator generator;
+    @Getter
+    protected long time;
+    @Getter
+    @Setter
+    private ChunkEvictionPolicy evictionPolicy = ChunkEvictionPolicy.UNLIMITED;
+    @Getter
+    @Setter
+    private ChunkCompressionPolicy compressionPolicy = ChunkCompressionPolicy.DISABLED;
+    @Getter
+    @Setter
+    private @Nullable ChunkIOService chunkIO;
+    @Getter
+    private final ChunkStorageDeduplicator storageDeduplicator = new ChunkStorageDeduplicator();
+    private final Map<Long, CompletableFuture<Chunk>> pendingChunkLoads = new HashMap<>();
+    private final Queue<Runnable> mainThreadTasks = new ConcurrentLinkedQueue<>();
+    @Getter
+    private final ChunkGenerationPipeline generationPipeline = new ChunkGenerationPipeline(this, this.mainThreadTasks::add);
+    private int chunkInstallDepth;
 
     protected World(WorldType worldType, WorldData worldData) {
         if (worldType == null)
@@ -36,28 +73,44 @@ public abstract class World implements WorldView {
         this.worldType = worldType;
         this.worldData = worldData;
 
-        this.generator = this.worldType.getGenerator().get();
+        this.generator = this.worldType.getGenerator().apply(new LongSeedSource(worldData.getSeed()));
     }
 
-    protected static long randomizeWorldSeed() {
+    public static long randomizeWorldSeed() {
         return ThreadLocalRandom.current().nextLong();
     }
 
+    /**
+     * @return a random source for gameplay on the calling thread. World generation uses
+     * {@link dev.turtywurty.mysticfactories.world.gen.PositionalRandom} instead, which does not depend on call order.
+     */
+    public RandomGenerator getRandom() {
+        return ThreadLocalRandom.current();
+    }
+
     @Override
     public WorldData getWorldData() {
         return this.worldData;
     }
 
     public void setTile(TilePos pos, TileType type) {
-        ChunkPos chunkPos = ChunkPos.fromTilePos(pos);
-        Optional<Chunk> chunkOpt = getChunk(chunkPos);
-        Chunk chunk = chunkOpt.orElseThrow(
-                () -> new IllegalStateException("Chunk not loaded for position: " + pos + " (chunk " + chunkPos + ")"));
+        Chunk chunk = getChunkAt(pos.x, pos.y);
+        if (chunk == null)
+            throw new IllegalStateException("Chunk not loaded for position: " + pos + " (chunk " + pos.toChunkPos() + ")");
+
         chunk.setTile(pos, type);
     }
 
     public void setTileEntity(TilePos pos, TileEntity tileEntity) {
-        TileEntity existing = this.tileEntitiesMap.remove(pos);
+        Chunk chunk = getChunkAt(pos.x, pos.y);
+        if (chunk == null) {
+            if (tileEntity == null)
+                return;
+
+            throw new IllegalStateException("Chunk not loaded for tile entity at: " + pos + " (chunk " + pos.toChunkPos() + ")");
+        }
+
+        TileEntity existing = chunk.putTileEntity(pos.x, pos.y, tileEntity);
         if (existing != null) {
             untrackEntity(existing);
         }
@@ -65,7 +118,6 @@ public abstract class World implements WorldView {
         if (tileEntity == null)
             return;
 
-        this.tileEntitiesMap.put(pos, tileEntity);
         trackEntity(tileEntity);
         tileEntity.setWorld(this);
         tileEntity.setPosition(pos.x, pos.y);
@@ -75,9 +127,13 @@ public abstract class World implements WorldView {
         if (tileEntity == null)
             throw new IllegalArgumentException("tileEntity cannot be null");
 
-        TileEntity existing = this.tileEntitiesMap.get(pos);
+        Chunk chunk = getChunkAt(pos.x, pos.y);
+        if (chunk == null)
+            throw new IllegalStateException("Chunk not loaded for tile entity at: " + pos + " (chunk " + pos.toChunkPos() + ")");
+
+        TileEntity existing = chunk.getTileEntityRaw(pos.x, pos.y);
         if (existing == null) {
-            this.tileEntitiesMap.put(pos, tileEntity);
+            chunk.putTileEntity(pos.x, pos.y, tileEntity);
             trackEntity(tileEntity);
             tileEntity.setWorld(this);
             tileEntity.setPosition(pos.x, pos.y);
@@ -93,20 +149,22 @@ public abstract class World implements WorldView {
             stacked.push(existing);
 
             untrackEntity(existing);
-            this.tileEntitiesMap.put(pos, stacked);
+            chunk.putTileEntity(pos.x, pos.y, stacked);
             trackEntity(stacked);
         }
 
         stacked.push(tileEntity);
+        chunk.markTileEntityDirty(pos.x, pos.y);
     }
 
     public Optional<TileEntity> popTileEntity(TilePos pos) {
-        TileEntity existing = this.tileEntitiesMap.get(pos);
+        Chunk chunk = getChunkAt(pos.x, pos.y);
+        TileEntity existing = chunk == null ? null : chunk.getTileEntityRaw(pos.x, pos.y);
         if (existing == null)
             return Optional.empty();
 
         if (!(existing instanceof StackedTileEntity stacked)) {
-            this.tileEntitiesMap.remove(pos);
+            chunk.putTileEntity(pos.x, pos.y, null);
             untrackEntity(existing);
             return Optional.of(existing);
         }
@@ -115,13 +173,15 @@ public abstract class World implements WorldView {
         if (popped.isEmpty())
             return Optional.empty();
 
+        chunk.markTileEntityDirty(pos.x, pos.y);
+
         if (stacked.isEmpty()) {
-            this.tileEntitiesMap.remove(pos);
+            chunk.putTileEntity(pos.x, pos.y, null);
             untrackEntity(stacked);
         } else if (stacked.size() == 1) {
             TileEntity remaining = stacked.pop().orElseThrow();
             untrackEntity(stacked);
-            this.tileEntitiesMap.put(pos, remaining);
+            chunk.putTileEntity(pos.x, pos.y, remaining);
             trackEntity(remaining);
             remaining.setWorld(this);
             remaining.setPosition(pos.x, pos.y);
@@ -131,7 +191,7 @@ public abstract class World implements WorldView {
     }
 
     public List<TileEntity> getTileEntityStack(TilePos pos) {
-        TileEntity tileEntity = this.tileEntitiesMap.get(pos);
+        TileEntity tileEntity = getTileEntityRaw(pos.x, pos.y);
         if (tileEntity == null)
             return List.of();
 
@@ -142,13 +202,23 @@ public abstract class World implements WorldView {
     }
 
     public Optional<TileType> getTile(TilePos pos) {
-        ChunkPos chunkPos = ChunkPos.fromTilePos(pos);
-        Optional<Chunk> chunkOpt = getChunk(chunkPos);
-        return chunkOpt.flatMap(chunk -> chunk.getTile(pos));
+        return Optional.ofNullable(getTileRaw(pos.x, pos.y));
+    }
+
+    @Override
+    public @Nullable TileType getTileRaw(int x, int y) {
+        Chunk chunk = getReadableChunkAt(x, y);
+        return chunk == null ? null : chunk.getTileRaw(x, y);
+    }
+
+    @Override
+    public boolean isSolid(int x, int y) {
+        Chunk chunk = getReadableChunkAt(x, y);
+        return chunk != null && chunk.isSolid(x, y);
     }
 
     public Optional<TileEntity> getTileEntity(TilePos pos) {
-        TileEntity tileEntity = this.tileEntitiesMap.get(pos);
+        TileEntity tileEntity = getTileEntityRaw(pos.x, pos.y);
         if (tileEntity == null)
             return Optional.empty();
 
@@ -158,52 +228,740 @@ public abstract class World implements WorldView {
         return Optional.of(tileEntity);
     }
 
+    /**
+     * Flags the tile entity at the given tile as changed so its chunk is included in the next save.
+     */
+    public void markTileEntityDirty(int x, int y) {
+        Chunk chunk = getChunkAt(x, y);
+        if (chunk != null) {
+            chunk.markTileEntityDirty(x, y);
+        }
+    }
+
+    /**
+     * @return the top-level tile entity at the given tile, which is a {@link StackedTileEntity} for stacks
+     */
+    public @Nullable TileEntity getTileEntityRaw(int x, int y) {
+        Chunk chunk = getReadableChunkAt(x, y);
+        return chunk == null ? null : chunk.getTileEntityRaw(x, y);
+    }
+
+    /**
+     * @return the top-level tile entities of the given chunk, empty if it is not loaded
+     */
+    public List<TileEntity> getTileEntities(int chunkX, int chunkZ) {
+        Chunk chunk = touch(this.chunks.get(chunkX, chunkZ));
+        if (chunk == null || chunk.getTileEntityCount() == 0)
+            return List.of();
+
+        List<TileEntity> tileEntities = new ArrayList<>(chunk.getTileEntityCount());
+        chunk.forEachTileEntity(tileEntities::add);
+        return tileEntities;
+    }
+
     public Optional<Biome> getBiome(TilePos pos) {
-        ChunkPos chunkPos = ChunkPos.fromTilePos(pos);
-        Optional<Chunk> chunkOpt = getChunk(chunkPos);
-        Optional<Biome> storedBiome = chunkOpt.flatMap(chunk -> chunk.getBiome(pos));
-        if (storedBiome.isPresent())
+        return Optional.ofNullable(getBiomeRaw(pos.x, pos.y));
+    }
+
+    /**
+     * Like the other tile accessors this must be called on the world's thread: the lookup counts as an access of the
+     * chunk and inflates its storage if it was compressed. Read a {@link #createSnapshot() snapshot} from other
+     * threads instead.
+     *
+     * @return the stored biome at the given tile, falling back to the generator for tiles that have none
+     */
+    @Override
+    public @Nullable Biome getBiomeRaw(int x, int y) {
+        Chunk chunk = getReadableChunkAt(x, y);
+        if (chunk == null) {
+            // Biomes only depend on the seed, so a chunk still being generated has the ones the generator would give.
+            chunk = this.generationPipeline.getProtoChunk(ChunkPos.toChunkCoordinate(x), ChunkPos.toChunkCoordinate(y),
+                    ChunkStatus.BIOMES);
+        }
+
+        Biome storedBiome = chunk == null ? null : chunk.getBiomeRaw(x, y);
+        if (storedBiome != null)
             return storedBiome;
 
         if (this.generator == null)
-            return Optional.empty();
+            return null;
 
-        return Optional.ofNullable(this.generator.getBiome(pos.x, pos.y));
+        return this.generator.getBiome(x, y);
     }
 
     public Optional<Chunk> getChunk(ChunkPos pos) {
-        return Optional.ofNullable(this.chunks.get(pos));
+        return getChunk(pos.x, pos.y);
     }
 
     public Optional<Chunk> getChunk(int chunkX, int chunkZ) {
-        return Optional.ofNullable(this.chunks.get(new ChunkPos(chunkX, chunkZ)));
+        return Optional.ofNullable(touch(this.chunks.get(chunkX, chunkZ)));
+    }
+
+    /**
+     * Unlike {@link #getChunk(int, int)} and the tile accessors, this does not count as an access of the chunk, so
+     * bookkeeping such as saving and loading can look chunks up without keeping them loaded.
+     */
+    @Override
+    public @Nullable Chunk getChunkRaw(int chunkX, int chunkZ) {
+        return this.chunks.get(chunkX, chunkZ);
+    }
+
+    /**
+     * @return the loaded chunk containing the given tile, or {@code null}
+     */
+    protected Chunk getChunkAt(int tileX, int tileY) {
+        return touch(this.chunks.get(ChunkPos.toChunkCoordinate(tileX), ChunkPos.toChunkCoordinate(tileY)));
+    }
+
+    /**
+     * Marks a chunk as accessed now, so eviction unloads the least recently read or written chunks first.
+     */
+    private @Nullable Chunk touch(@Nullable Chunk chunk) {
+        if (chunk != null) {
+            chunk.setLastAccessTime(this.time);
+        }
+
+        return chunk;
+    }
+
+    /**
+     * Like {@link #getChunkAt(int, int)}, but while a chunk is being installed this also finds neighbouring chunks
+     * whose surface has been generated but which are not in the world yet, so features can read around them.
+     */
+    private @Nullable Chunk getReadableChunkAt(int tileX, int tileY) {
+        return getReadableChunk(ChunkPos.toChunkCoordinate(tileX), ChunkPos.toChunkCoordinate(tileY));
+    }
+
+    /**
+     * Chunk-coordinate variant of {@link #getReadableChunkAt(int, int)}, used to resolve {@link WorldRegion}s.
+     */
+    @Nullable Chunk getReadableChunk(int chunkX, int chunkZ) {
+        Chunk chunk = touch(this.chunks.get(chunkX, chunkZ));
+        if (chunk != null || this.chunkInstallDepth == 0)
+            return chunk;
+
+        return this.generationPipeline.getProtoChunk(chunkX, chunkZ, ChunkStatus.SURFACE);
+    }
+
+    /**
+     * Resolves the chunks covering the inclusive tile rectangle once, for batched reads and writes.
+     */
+    public WorldRegion getRegion(int minX, int minY, int maxX, int maxY) {
+        return new WorldRegion(this,
+                ChunkPos.toChunkCoordinate(minX), ChunkPos.toChunkCoordinate(minY),
+                ChunkPos.toChunkCoordinate(maxX), ChunkPos.toChunkCoordinate(maxY));
+    }
+
+    /**
+     * Called once per chunk after a batch of writes through a {@link WorldRegion} has been applied to it.
+     *
+     * @param changedTiles  the {@link Chunk#localIndex(int, int) local indices} of the tiles the batch wrote, in
+     *                      ascending order
+     * @param biomesChanged whether the batch wrote biomes too
+     */
+    protected void onChunkModified(Chunk chunk, int[] changedTiles, boolean biomesChanged) {}
+
+    /**
+     * Loads the chunk at the given position from {@link #getChunkIO() storage}, generating it if it was never saved.
+     * Blocks until the chunk has been read or generated, running world-thread generation stages in the meantime; see
+     * {@link #addChunkAsync(ChunkPos)} for the non-blocking variant.
+     *
+     * @return the loaded chunk
+     */
+    public Chunk addChunk(ChunkPos pos) {
+        Chunk existing = this.chunks.get(pos.x, pos.y);
+        if (existing != null)
+            return existing;
+
+        ChunkSerializer.Result stored = this.chunkIO == null ? null : this.chunkIO.load(this, pos).join();
+        if (stored != null)
+            return installChunk(pos, stored);
+
+        return awaitOnWorldThread(this.generationPipeline.request(pos, ChunkStatus.FULL));
+    }
+
+    /**
+     * Reads the chunk at the given position on the I/O threads, then adds it during a later
+     * {@link #runMainThreadTasks()}, or hands it to the {@link #getGenerationPipeline() generation pipeline} if it was
+     * never saved. Repeated calls for a chunk that is still loading share one future.
+     *
+     * @return a future completed on the ticking thread with the loaded chunk
+     */
+    public CompletableFuture<Chunk> addChunkAsync(ChunkPos pos) {
+        Chunk existing = this.chunks.get(pos.x, pos.y);
+        if (existing != null)
+            return CompletableFuture.completedFuture(existing);
+
+        long key = pos.toLong();
+        CompletableFuture<Chunk> pending = this.pendingChunkLoads.get(key);
+        if (pending != null)
+            return pending;
+
+        var future = new CompletableFuture<Chunk>();
+        this.pendingChunkLoads.put(key, future);
+        CompletableFuture<ChunkSerializer.Result> load = this.chunkIO == null ?
+                CompletableFuture.completedFuture(null) :
+                this.chunkIO.load(this, pos);
+        load.whenComplete((stored, error) -> this.mainThreadTasks.add(() -> {
+            // A blocking addChunk may have installed the chunk in the meantime.
+            if (future.isDone())
+                return;
+
+            if (error != null) {
+                this.pendingChunkLoads.remove(key);
+                future.completeExceptionally(error);
+                return;
+            }
+
+            if (stored == null) {
+                // Stays pending until the FULL stage completes it.
+                this.generationPipeline.request(pos, ChunkStatus.FULL).whenCompleteAsync((generated, failure) -> {
+                    if (failure != null && !future.isDone()) {
+                        this.pendingChunkLoads.remove(key, future);
+                        future.completeExceptionally(failure);
+                    }
+                }, this.mainThreadTasks::add);
+                return;
+            }
+
+            try {
+                future.complete(installChunk(pos, stored));
+            } catch (RuntimeException exception) {
+                this.pendingChunkLoads.remove(key, future);
+                future.completeExceptionally(exception);
+            }
+        }));
+
+        return future;
+    }
+
+    /**
+     * Loads or generates every chunk in {@code positions} that is not loaded yet, like {@link #addChunk(ChunkPos)}
+     * would, but reads stored chunks concurrently and requests every missing chunk from the
+     * {@link #getGenerationPipeline() generation pipeline} up front, so their parallel stages overlap. The result
+     * does not depend on the pipeline's parallelism.
+     *
+     * @param onAdded called on the calling thread after each position with the number of positions done so far
+     * @return the chunk at each position, in the order given
+     */
+    public List<Chunk> addChunks(List<ChunkPos> positions, IntConsumer onAdded) {
+        Map<ChunkPos, CompletableFuture<ChunkSerializer.Result>> loads = new HashMap<>();
+        for (ChunkPos pos : positions) {
+            if (this.chunks.get(pos.x, pos.y) == null && !loads.containsKey(pos)) {
+                loads.put(pos, this.chunkIO == null ?
+                        CompletableFuture.completedFuture(null) :
+                        this.chunkIO.load(this, pos));
+            }
+        }
+
+        Map<ChunkPos, CompletableFuture<Chunk>> generating = new HashMap<>();
+        loads.forEach((pos, load) -> {
+            if (load.join() == null) {
+                generating.put(pos, this.generationPipeline.request(pos, ChunkStatus.FULL));
+            }
+        });
+
+        List<Chunk> added = new ArrayList<>(positions.size());
+        for (ChunkPos pos : positions) {
+            CompletableFuture<Chunk> generation = generating.get(pos);
+            Chunk chunk = generation != null ? awaitOnWorldThread(generation) : this.chunks.get(pos.x, pos.y);
+            if (chunk == null) {
+                chunk = installChunk(pos, loads.get(pos).join());
+            }
+
+            added.add(chunk);
+            onAdded.accept(added.size());
+        }
+
+        return added;
+    }
+
+    /**
+     * Abandons a load started by {@link #addChunkAsync(ChunkPos)} that has not been added yet, so the chunk is not
+     * generated past its parallel stages. Everyone waiting on the load sees it cancelled.
+     *
+     * @return whether a pending load was cancelled
+     */
+    public boolean cancelChunkLoad(ChunkPos pos) {
+        CompletableFuture<Chunk> pending = this.pendingChunkLoads.remove(pos.toLong());
+        if (pending == null)
+            return false;
+
+        this.generationPipeline.cancel(pos);
+        return pending.cancel(false);
+    }
+
+    public int getPendingChunkLoadCount() {
+        return this.pendingChunkLoads.size();
+    }
+
+    /**
+     * Finishes asynchronous chunk loads whose reads have completed, and runs queued world-thread generation stages.
+     * Must be called from the ticking thread.
+     */
+    protected void runMainThreadTasks() {
+        Runnable task;
+        while ((task = this.mainThreadTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    /**
+     * Waits for a future on the world's thread, running main thread tasks until it completes so generation stages
+     * it depends on can make progress.
+     */
+    private <T> T awaitOnWorldThread(CompletableFuture<T> future) {
+        while (true) {
+            runMainThreadTasks();
+            try {
+                return future.get(1, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ignored) {
+                // More tasks may have been queued in the meantime.
+            } catch (ExecutionException exception) {
+                throw new CompletionException(exception.getCause());
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting on the world's thread", exception);
+            }
+        }
+    }
+
+    private Chunk installChunk(ChunkPos pos, ChunkSerializer.Result stored) {
+        Chunk existing = this.chunks.get(pos.x, pos.y);
+        if (existing != null)
+            return existing;
+
+        Chunk chunk;
+        this.chunkInstallDepth++;
+        try {
+            chunk = loadStoredChunk(stored);
+        } finally {
+            this.chunkInstallDepth--;
+        }
+
+        completePendingLoad(chunk);
+        return chunk;
+    }
+
+    private void completePendingLoad(Chunk chunk) {
+        CompletableFuture<Chunk> pending = this.pendingChunkLoads.remove(chunk.getPos().toLong());
+        if (pending != null) {
+            pending.complete(chunk);
+        }
+    }
+
+    /**
+     * @return whether a chunk is being loaded or generated, so tile writes happening now restore or recreate state
+     * rather than being edits
+     */
+    protected boolean isInstallingChunk() {
+        return this.chunkInstallDepth > 0;
+    }
+
+    private Chunk loadStoredChunk(ChunkSerializer.Result stored) {
+        Chunk chunk = stored.chunk();
+        chunk.setLastAccessTime(this.time);
+        this.chunks.put(chunk);
+        for (TileEntity tileEntity : stored.tileEntities()) {
+            Vector2d position = tileEntity.getPosition();
+            pushTileEntity(new TilePos((int) Math.floor(position.x), (int) Math.floor(position.y)), tileEntity);
+        }
+
+        chunk.getChangeLog().clearDirty();
+        chunk.shareStorage(this.storageDeduplicator);
+        onChunkLoaded(chunk);
+        return chunk;
+    }
+
+    /**
+     * Supplies a neighbour the {@link #getGenerationPipeline() generation pipeline} needs at the given status. A
+     * neighbour that is loaded, or that storage holds, is used as it is, loading it into this world if needed, so
+     * stored chunks are never generated again over their saved contents. Only chunks storage does not hold are
+     * requested from the pipeline.
+     */
+    CompletableFuture<Chunk> requestGenerationNeighbour(ChunkPos pos, ChunkStatus status) {
+        Chunk loaded = this.chunks.get(pos.x, pos.y);
+        if (loaded != null && loaded.getStatus() == ChunkStatus.FULL)
+            return CompletableFuture.completedFuture(loaded);
+
+        // A chunk the pipeline already holds was checked against storage when it was first requested.
+        if (this.chunkIO == null || loaded != null
+                || this.generationPipeline.getProtoChunk(pos.x, pos.y, ChunkStatus.EMPTY) != null)
+            return this.generationPipeline.request(pos, status);
+
+        return this.chunkIO.load(this, pos).thenComposeAsync(stored -> stored != null ?
+                CompletableFuture.completedFuture(installChunk(pos, stored)) :
+                this.generationPipeline.request(pos, status), this.mainThreadTasks::add);
+    }
+
+    /**
+     * Creates an empty chunk for the {@link #getGenerationPipeline() generation pipeline}.
+     */
+    Chunk createChunk(ChunkPos pos) {
+        return new Chunk(pos, generator != null ? generator.getBiomeResolution() : BiomeResolution.CELL_1X1);
+    }
+
+    /**
+     * @return the context the {@link #getGenerationPipeline() generation pipeline} generates the chunk with, or
+     * {@code null} if this world has no generator
+     */
+    @Nullable
+    ChunkGenerationContext createGenerationContext(Chunk chunk) {
+        return generator != null ? generator.createContext(chunk) : null;
+    }
+
+    /**
+     * Runs one generation stage for the {@link #getGenerationPipeline() generation pipeline}. Parallel stages may be
+     * called from any thread and only touch the chunk.
+     */
+    void runGenerationStage(ChunkStatus status, Chunk chunk, @Nullable ChunkGenerationContext context) {
+        switch (status) {
+            case EMPTY -> {}
+            case BIOMES -> {
+                if (context != null) {
+                    context.getGenerator().generateBiomes(context);
+                }
+            }
+            case SURFACE -> {
+                if (context != null) {
+                    context.getGenerator().generateSurface(context);
+                }
+
+                this.mainThreadTasks.add(() -> onChunkSurfaceGenerated(chunk));
+            }
+            case FEATURES -> {
+                chunk.setLastAccessTime(this.time);
+                // Insert before the feature pass so placement rules can query the in-progress chunk through WorldView.
+                this.chunks.put(chunk);
+                this.chunkInstallDepth++;
+                try {
+                    if (context != null) {
+                        context.getGenerator().generateFeatures(this, context);
+                    }
+                } finally {
+                    this.chunkInstallDepth--;
+                }
+            }
+            case FULL -> {
+                chunk.trimStorage();
+                // Generated contents can be recreated from the seed, so only later edits make the chunk unsaved.
+                chunk.markGenerated();
+                chunk.shareStorage(this.storageDeduplicator);
+                onChunkLoaded(chunk);
+                completePendingLoad(chunk);
+            }
+        }
+    }
+
+    /**
+     * Marks every loaded chunk within {@code radius} chunks of the given one as accessed now, and starts loading the
+     * missing ones through {@link #addChunkAsync(ChunkPos)}.
+     */
+    public void loadChunksAround(int chunkX, int chunkZ, int radius) {
+        for (int z = chunkZ - radius; z <= chunkZ + radius; z++) {
+            for (int x = chunkX - radius; x <= chunkX + radius; x++) {
+                requireChunk(x, z);
+            }
+        }
     }
 
-    public void addChunk(ChunkPos pos) {
-        if (this.chunks.containsKey(pos))
+    /**
+     * Marks the chunk as accessed now if it is loaded, otherwise starts loading it through
+     * {@link #addChunkAsync(ChunkPos)}.
+     */
+    public void requireChunk(int chunkX, int chunkZ) {
+        Chunk chunk = this.chunks.get(chunkX, chunkZ);
+        if (chunk != null) {
+            chunk.setLastAccessTime(this.time);
             return;
+        }
 
-        var chunk = new Chunk(pos);
-        // Insert before generation so placement rules can query the in-progress chunk through WorldView.
-        this.chunks.put(pos, chunk);
+        var pos = new ChunkPos(chunkX, chunkZ);
+        addChunkAsync(pos).whenComplete((loaded, error) -> {
+            if (error instanceof CancellationException)
+                return;
+
+            if (error != null) {
+                LOGGER.error("Failed to load chunk {}", pos, error);
+            } else {
+                loaded.setLastAccessTime(this.time);
+            }
+        });
+    }
 
-        if (generator != null) {
-            generator.generate(this, chunk);
+    /**
+     * Queues the chunk to be written to {@link #getChunkIO() storage} if it has changes that are not saved yet. A chunk
+     * that cannot be serialized is logged and left unsaved, so eviction and autosaves keep going.
+     *
+     * @return whether the chunk was queued
+     */
+    public boolean saveChunk(Chunk chunk) {
+        if (this.chunkIO == null || !chunk.isUnsaved())
+            return false;
+
+        CompletableFuture<Void> written;
+        try {
+            written = this.chunkIO.save(chunk);
+        } catch (UncheckedIOException exception) {
+            LOGGER.error("Failed to save chunk {}", chunk.getPos(), exception);
+            return false;
         }
+
+        // The queue is full, so the chunk stays unsaved and is saved again by a later pass.
+        if (written == null)
+            return false;
+
+        chunk.markSaved();
+        onChunkSaved(chunk, written);
+        return true;
+    }
+
+    /**
+     * Called after a chunk has been queued to be saved.
+     *
+     * @param written completed on an I/O thread once the saved state is on disk
+     */
+    protected void onChunkSaved(Chunk chunk, CompletableFuture<Void> written) {}
+
+    /**
+     * @return whether the {@link #getChunkIO() storage} is refusing saves until its queue has drained, in which case
+     * save passes should stop and leave the remaining chunks for a later pass
+     */
+    public boolean isSaveQueueFull() {
+        return this.chunkIO != null && this.chunkIO.isSaveQueueFull();
+    }
+
+    /**
+     * Queues every loaded chunk with unsaved changes to be written, then starts flushing the queue. Stops early once
+     * the queue is full.
+     *
+     * @return the number of chunks queued
+     */
+    public int saveAll() {
+        if (this.chunkIO == null)
+            return 0;
+
+        int saved = 0;
+        for (Chunk chunk : this.chunks) {
+            if (chunk.isUnsaved() && isSaveQueueFull())
+                break;
+
+            if (saveChunk(chunk)) {
+                saved++;
+            }
+        }
+
+        this.chunkIO.flush();
+        return saved;
+    }
+
+    public int getUnsavedChunkCount() {
+        int unsaved = 0;
+        for (Chunk chunk : this.chunks) {
+            if (chunk.isUnsaved()) {
+                unsaved++;
+            }
+        }
+
+        return unsaved;
+    }
+
+    /**
+     * Unloads idle chunks in least recently accessed order until the {@link #getEvictionPolicy() eviction policy}
+     * is satisfied. Without storage, chunks with dirty tiles are kept since their edits could not be regenerated;
+     * with storage they are saved before being unloaded.
+     *
+     * @return the number of chunks that were unloaded
+     */
+    public int evictChunks() {
+        ChunkEvictionPolicy policy = this.evictionPolicy;
+        long storageBytes = getChunkStorageBytes();
+        if (!policy.isExceeded(this.chunks.size(), storageBytes))
+            return 0;
+
+        List<Chunk> candidates = new ArrayList<>();
+        for (Chunk chunk : this.chunks) {
+            if (this.time - chunk.getLastAccessTime() >= policy.minIdleTicks()
+                    && (this.chunkIO != null || !chunk.getChangeLog().hasDirtyTiles())) {
+                candidates.add(chunk);
+            }
+        }
+
+        candidates.sort(Comparator.comparingLong(Chunk::getLastAccessTime));
+        int evicted = 0;
+        for (Chunk chunk : candidates) {
+            if (!policy.isExceeded(this.chunks.size(), storageBytes))
+                break;
+
+            // Unsaved chunks wait for a later pass once the queue is full, clean ones can still go.
+            if (chunk.isUnsaved() && isSaveQueueFull())
+                continue;
+
+            saveChunk(chunk);
+            if (chunk.isUnsaved() && this.chunkIO != null)
+                continue;
+
+            storageBytes -= chunk.getStorageByteSize() / chunk.getStorageShareCount();
+            removeChunk(chunk.getPos().x, chunk.getPos().y);
+            evicted++;
+        }
+
+        return evicted;
+    }
+
+    /**
+     * Unloads every chunk that has not been accessed for at least {@code minIdleTicks}, regardless of the eviction
+     * policy. Chunks are saved first; without storage, chunks with dirty tiles are kept.
+     *
+     * @return the number of chunks that were unloaded
+     */
+    public int unloadIdleChunks(long minIdleTicks) {
+        List<Chunk> idle = new ArrayList<>();
+        for (Chunk chunk : this.chunks) {
+            if (this.time - chunk.getLastAccessTime() >= minIdleTicks
+                    && (this.chunkIO != null || !chunk.getChangeLog().hasDirtyTiles())) {
+                idle.add(chunk);
+            }
+        }
+
+        int unloaded = 0;
+        for (Chunk chunk : idle) {
+            if (chunk.isUnsaved() && isSaveQueueFull())
+                continue;
+
+            saveChunk(chunk);
+            // Kept until its save is accepted, so no change is lost.
+            if (chunk.isUnsaved() && this.chunkIO != null)
+                continue;
+
+            removeChunk(chunk.getPos().x, chunk.getPos().y);
+            unloaded++;
+        }
+
+        return unloaded;
+    }
+
+    /**
+     * Compresses the storage of chunks that have been idle for the {@link #getCompressionPolicy() compression policy}'s
+     * threshold, see {@link Chunk#compressStorage(int)}. Chunks that were inflated since the last call count as
+     * accessed now, so chunks that are still read now and then are not compressed over and over.
+     *
+     * @return the number of chunks that were compressed
+     */
+    public int compressIdleChunks() {
+        ChunkCompressionPolicy policy = this.compressionPolicy;
+        if (!policy.isEnabled())
+            return 0;
+
+        int compressed = 0;
+        for (Chunk chunk : this.chunks) {
+            if (chunk.pollInflated()) {
+                chunk.setLastAccessTime(this.time);
+                continue;
+            }
+
+            if (this.time - chunk.getLastAccessTime() >= policy.minIdleTicks()
+                    && chunk.getStorageByteSize() >= policy.minStorageBytes()
+                    && chunk.compressStorage(policy.level())) {
+                compressed++;
+            }
+        }
+
+        return compressed;
+    }
+
+    public ChunkCompressionStats getChunkCompressionStats() {
+        int hotChunks = 0, compressedChunks = 0;
+        long hotBytes = 0, compressedBytes = 0, inflatedBytes = 0;
+        for (Chunk chunk : this.chunks) {
+            if (chunk.isStorageCompressed()) {
+                compressedChunks++;
+                compressedBytes += chunk.getStorageByteSize();
+                inflatedBytes += chunk.getUncompressedStorageByteSize();
+            } else {
+                hotChunks++;
+                hotBytes += chunk.getStorageByteSize();
+            }
+        }
+
+        return new ChunkCompressionStats(hotChunks, hotBytes, compressedChunks, compressedBytes, inflatedBytes);
+    }
+
+    /**
+     * Called on the world's thread once a chunk's surface has been generated, before its features are placed and
+     * before it is added to this world. Chunks that are only generated as neighbours of others also get here.
+     */
+    protected void onChunkSurfaceGenerated(Chunk chunk) {}
+
+    /**
+     * Called after a chunk has been generated and added to this world.
+     */
+    protected void onChunkLoaded(Chunk chunk) {}
+
+    /**
+     * Called after a chunk has been removed from this world, while it still holds its tile entities.
+     */
+    protected void onChunkUnloaded(Chunk chunk) {}
+
+    /**
+     * Unloads a chunk, dropping its tile entities from the world along with it.
+     *
+     * @return the removed chunk, or {@code null} if it was not loaded
+     */
+    public @Nullable Chunk removeChunk(int chunkX, int chunkZ) {
+        Chunk chunk = this.chunks.remove(chunkX, chunkZ);
+        if (chunk == null)
+            return null;
+
+        onChunkUnloaded(chunk);
+        chunk.forEachTileEntity(tileEntity -> {
+            untrackEntity(tileEntity);
+            this.pendingEntityRemovals.remove(tileEntity);
+            tileEntity.finalizeRemoval(this, RemovalReason.UNLOADED_TO_CHUNK);
+        });
+        chunk.clearTileEntities();
+        chunk.releaseSharedStorage();
+        return chunk;
+    }
+
+    /**
+     * @return the estimated heap used by the tile and biome storage of every loaded chunk, in bytes, counting storage
+     * that chunks share once
+     */
+    public long getChunkStorageBytes() {
+        long total = 0;
+        for (Chunk chunk : this.chunks) {
+            total += chunk.getStorageByteSize() / chunk.getStorageShareCount();
+        }
+
+        return total;
     }
 
     @Override
     public Map<ChunkPos, Chunk> getChunks() {
-        return Collections.unmodifiableMap(this.chunks);
+        return this.chunks.asMap();
     }
 
     @Override
     public List<Entity> getEntities() {
-        return Collections.unmodifiableList(this.entities);
+        return this.entities.asList();
     }
 
+    public Optional<Entity> getEntity(UUID id) {
+        return Optional.ofNullable(this.entities.get(id));
+    }
+
+    /**
+     * Captures every loaded chunk as a {@link ChunkSnapshot}. No tile or biome storage is copied, so the result is
+     * cheap to take and safe to read from other threads while this world keeps ticking.
+     */
     public WorldSnapshot createSnapshot() {
-        return new WorldSnapshot(this.chunks, this.entities);
+        Map<ChunkPos, ChunkSnapshot> snapshots = new HashMap<>(this.chunks.size() * 2);
+        for (Chunk chunk : this.chunks) {
+            snapshots.put(chunk.getPos(), chunk.snapshot());
+        }
+
+        return new WorldSnapshot(snapshots, this.entities.asList());
     }
 
     public void addEntity(Entity entity) {
@@ -231,11 +989,8 @@ public abstract class World implements WorldView {
     }
 
     private void trackEntity(Entity entity) {
-        if (!this.entities.contains(entity)) {
-            this.entities.add(entity);
-        }
-
-        if (entity.getType().isShouldTick() && !this.tickingEntities.contains(entity)) {
+        this.entities.add(entity);
+        if (entity.getType().isShouldTick()) {
             this.tickingEntities.add(entity);
         }
     }
@@ -258,7 +1013,13 @@ public abstract class World implements WorldView {
             untrackEntity(entity);
 
             if (entity instanceof TileEntity tileEntity) {
-                this.tileEntitiesMap.values().removeIf(existing -> existing == tileEntity);
+                Vector2d position = tileEntity.getPosition();
+                int x = (int) Math.floor(position.x);
+                int y = (int) Math.floor(position.y);
+                Chunk chunk = getChunkAt(x, y);
+                if (chunk != null) {
+                    chunk.removeTileEntity(x, y, tileEntity);
+                }
             }
 
             entity.finalizeRemoval(this, reason);
@@ -12,6 +12,16 @@ public interface WorldConnection {
      */
     void sendTileUpdate(WorldType worldType, TilePos pos, TileType type);
 
+    /**
+     * Sends the full contents of a chunk after a batched change to it.
+     */
+    void sendChunkUpdate(WorldType worldType, ChunkSnapshot chunk);
+
+    /**
+     * Notifies the client that a chunk has been unloaded and should be dropped.
+     */
+    void sendChunkUnload(WorldType worldType, ChunkPos pos);
+
     /**
      * Sends the initial full state (or a resync) to the client world.
      */
@@ -1,14 +1,26 @@
 package dev.turtywurty.mysticfactories.world;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import dev.turtywurty.mysticfactories.util.GsonReader;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
 public class WorldData {
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
     @Getter
     private final long seed;
     private final Set<Weather> allowedWeathers = new HashSet<>();
@@ -65,4 +77,43 @@ public class WorldData {
     public boolean hasWeatherCycle() {
         return hasWeatherCycle;
     }
+
+    public static WorldData readJson(Path path) throws IOException {
+        String json = Files.readString(path, StandardCharsets.UTF_8);
+        JsonObject data = GSON.fromJson(json, JsonObject.class);
+        if (data == null || !data.has("Seed"))
+            throw new IOException("World data is missing a seed: " + path);
+
+        var worldData = new WorldData(data.get("Seed").getAsLong());
+        if (data.has("AllowedWeathers")) {
+            for (JsonElement weather : data.getAsJsonArray("AllowedWeathers")) {
+                worldData.allowedWeathers.add(new Weather(weather.getAsString()));
+            }
+        }
+
+        worldData.hasDaylightCycle = GsonReader.readBooleanSafe(data, "DaylightCycle", true);
+        worldData.setTime(GsonReader.readIntSafe(data, "Time", 0));
+        worldData.weather = new Weather(GsonReader.readStringSafe(data, "Weather", Weather.CLEAR.name()));
+        worldData.setWeatherTime(GsonReader.readIntSafe(data, "WeatherTime", 0));
+        worldData.hasWeatherCycle = GsonReader.readBooleanSafe(data, "WeatherCycle", true);
+        return worldData;
+    }
+
+    public void writeJson(Path path) throws IOException {
+        var data = new JsonObject();
+        data.addProperty("Seed", this.seed);
+        var weathers = new JsonArray();
+        for (Weather weather : this.allowedWeathers) {
+            weathers.add(weather.name());
+        }
+
+        data.add("AllowedWeathers", weathers);
+        data.addProperty("DaylightCycle", this.hasDaylightCycle);
+        data.addProperty("Time", this.time);
+        data.addProperty("Weather", this.weather.name());
+        data.addProperty("WeatherTime", this.weatherTime);
+        data.addProperty("WeatherCycle", this.hasWeatherCycle);
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Files.writeString(path, GSON.toJson(data), StandardCharsets.UTF_8);
+    }
 }
@@ -0,0 +1,352 @@
+package dev.turtywurty.mysticfactories.world;
+
+import dev.turtywurty.mysticfactories.world.biome.Biome;
+import dev.turtywurty.mysticfactories.world.entity.Entity;
+import dev.turtywurty.mysticfactories.world.tile.TilePos;
+import dev.turtywurty.mysticfactories.world.tile.TileType;
+import dev.turtywurty.mysticfactories.world.tileentity.StackedTileEntity;
+import dev.turtywurty.mysticfactories.world.tileentity.TileEntity;
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A rectangle of chunks resolved once up front, giving cheap tile, biome and tile entity access over that area.
+ * <p>
+ * Writes are applied straight to the chunks but are only published by {@link #flush()}, which bumps the
+ * modification count of every touched chunk once and hands the world the tiles written to it, see
+ * {@link World#onChunkModified(Chunk, int[], boolean)}. The bulk {@link #fill} and {@link #copy}
+ * operations flush on their own. Chunks that were not loaded when the region was created read as empty and reject
+ * writes. While a chunk is being installed, neighbours whose surface has been generated can be read like loaded
+ * chunks, but only chunks that are in the world can be written to.
+ * <p>
+ * Lookups outside the region return nothing rather than falling back to the world, apart from biomes, which fall
+ * back to the generator as {@link World#getBiomeRaw(int, int)} does.
+ */
+public class WorldRegion implements WorldView, AutoCloseable {
+    @Getter
+    private final World world;
+    @Getter
+    private final int minChunkX, minChunkZ, maxChunkX, maxChunkZ;
+    private final int chunksWide;
+    private final Chunk[] chunks;
+    private final boolean[] writable;
+    private final boolean[] touched;
+    // Per chunk, a bitset of the local indices written since the last flush, allocated on the first tile write.
+    private final long[][] writtenTiles;
+    private final boolean[] writtenBiomes;
+
+    public WorldRegion(World world, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+        if (world == null)
+            throw new IllegalArgumentException("World cannot be null");
+
+        if (maxChunkX < minChunkX || maxChunkZ < minChunkZ)
+            throw new IllegalArgumentException("Invalid region bounds: " + minChunkX + ", " + minChunkZ + " to " + maxChunkX + ", " + maxChunkZ);
+
+        this.world = world;
+        this.minChunkX = minChunkX;
+        this.minChunkZ = minChunkZ;
+        this.maxChunkX = maxChunkX;
+        this.maxChunkZ = maxChunkZ;
+        this.chunksWide = maxChunkX - minChunkX + 1;
+        int chunksHigh = maxChunkZ - minChunkZ + 1;
+        this.chunks = new Chunk[this.chunksWide * chunksHigh];
+        this.writable = new boolean[this.chunks.length];
+        this.touched = new boolean[this.chunks.length];
+        this.writtenTiles = new long[this.chunks.length][];
+        this.writtenBiomes = new boolean[this.chunks.length];
+        for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                int slot = slot(chunkX, chunkZ);
+                Chunk chunk = world.getReadableChunk(chunkX, chunkZ);
+                this.chunks[slot] = chunk;
+                this.writable[slot] = chunk != null && world.getChunkRaw(chunkX, chunkZ) == chunk;
+            }
+        }
+    }
+
+    @Override
+    public Map<ChunkPos, Chunk> getChunks() {
+        return this.world.getChunks();
+    }
+
+    @Override
+    public List<Entity> getEntities() {
+        return this.world.getEntities();
+    }
+
+    @Override
+    public WorldType getWorldType() {
+        return this.world.getWorldType();
+    }
+
+    @Override
+    public WorldData getWorldData() {
+        return this.world.getWorldData();
+    }
+
+    @Override
+    public Optional<Chunk> getChunk(int chunkX, int chunkZ) {
+        return Optional.ofNullable(getChunkRaw(chunkX, chunkZ));
+    }
+
+    @Override
+    public Optional<Chunk> getChunk(ChunkPos chunkPos) {
+        return getChunk(chunkPos.x, chunkPos.y);
+    }
+
+    /**
+     * @return the chunk at the given chunk coordinates, or {@code null} if it is unloaded or outside the region
+     */
+    @Override
+    public @Nullable Chunk getChunkRaw(int chunkX, int chunkZ) {
+        if (chunkX < this.minChunkX || chunkX > this.maxChunkX || chunkZ < this.minChunkZ || chunkZ > this.maxChunkZ)
+            return null;
+
+        return this.chunks[slot(chunkX, chunkZ)];
+    }
+
+    public boolean contains(int x, int y) {
+        return getChunkAt(x, y) != null;
+    }
+
+    @Override
+    public Optional<TileType> getTile(TilePos pos) {
+        return Optional.ofNullable(getTileRaw(pos.x, pos.y));
+    }
+
+    @Override
+    public @Nullable TileType getTileRaw(int x, int y) {
+        Chunk chunk = getChunkAt(x, y);
+        return chunk == null ? null : chunk.getTileRaw(x, y);
+    }
+
+    @Override
+    public boolean isSolid(int x, int y) {
+        Chunk chunk = getChunkAt(x, y);
+        return chunk != null && chunk.isSolid(x, y);
+    }
+
+    /**
+     * @return the stored biome, falling back to the world (and so its generator) for tiles that have none
+     */
+    @Override
+    public @Nullable Biome getBiomeRaw(int x, int y) {
+        Chunk chunk = getChunkAt(x, y);
+        Biome biome = chunk == null ? null : chunk.getBiomeRaw(x, y);
+        return biome != null ? biome : this.world.getBiomeRaw(x, y);
+    }
+
+    /**
+     * @return the tile entity on top of the stack at the given tile, see {@link World#getTileEntity(TilePos)}
+     */
+    @Override
+    public Optional<TileEntity> getTileEntity(TilePos pos) {
+        TileEntity tileEntity = getTileEntityRaw(pos.x, pos.y);
+        if (tileEntity instanceof StackedTileEntity stacked)
+            return stacked.peek();
+
+        return Optional.ofNullable(tileEntity);
+    }
+
+    /**
+     * @return the top-level tile entity at the given tile, which is a {@link StackedTileEntity} for stacks
+     */
+    public @Nullable TileEntity getTileEntityRaw(int x, int y) {
+        Chunk chunk = getChunkAt(x, y);
+        return chunk == null ? null : chunk.getTileEntityRaw(x, y);
+    }
+
+    public void setTile(int x, int y, TileType type) {
+        int slot = requireLoaded(x, y);
+        this.chunks[slot].putTile(x, y, type);
+        markWritten(slot, x, y);
+    }
+
+    public void setBiome(int x, int y, Biome biome) {
+        int slot = requireLoaded(x, y);
+        this.chunks[slot].putBiome(x, y, biome);
+        this.writtenBiomes[slot] = true;
+        this.touched[slot] = true;
+    }
+
+    public void setTileEntity(int x, int y, TileEntity tileEntity) {
+        requireLoaded(x, y);
+        this.world.setTileEntity(new TilePos(x, y), tileEntity);
+    }
+
+    /**
+     * @see World#pushTileEntity(TilePos, TileEntity)
+     */
+    public void pushTileEntity(TilePos pos, TileEntity tileEntity) {
+        requireLoaded(pos.x, pos.y);
+        this.world.pushTileEntity(pos, tileEntity);
+    }
+
+    /**
+     * Sets every tile in the inclusive rectangle to {@code type}, one chunk at a time.
+     */
+    public void fill(int minX, int minY, int maxX, int maxY, TileType type) {
+        requireLoaded(minX, minY, maxX, maxY);
+        for (int chunkZ = minY >> Chunk.SIZE_SHIFT; chunkZ <= maxY >> Chunk.SIZE_SHIFT; chunkZ++) {
+            for (int chunkX = minX >> Chunk.SIZE_SHIFT; chunkX <= maxX >> Chunk.SIZE_SHIFT; chunkX++) {
+                int slot = slot(chunkX, chunkZ);
+                Chunk chunk = this.chunks[slot];
+                int startX = Math.max(minX, chunkX << Chunk.SIZE_SHIFT);
+                int endX = Math.min(maxX, (chunkX << Chunk.SIZE_SHIFT) + Chunk.SIZE - 1);
+                int startY = Math.max(minY, chunkZ << Chunk.SIZE_SHIFT);
+                int endY = Math.min(maxY, (chunkZ << Chunk.SIZE_SHIFT) + Chunk.SIZE - 1);
+                for (int y = startY; y <= endY; y++) {
+                    for (int x = startX; x <= endX; x++) {
+                        chunk.putTile(x, y, type);
+                        markWritten(slot, x, y);
+                    }
+                }
+            }
+        }
+
+        flush();
+    }
+
+    /**
+     * Copies the tiles of the inclusive source rectangle so that its minimum corner lands on
+     * ({@code destX}, {@code destY}). Overlapping source and destination rectangles are handled. Biomes and tile
+     * entities are not copied.
+     */
+    public void copy(int minX, int minY, int maxX, int maxY, int destX, int destY) {
+        int width = maxX - minX + 1;
+        int height = maxY - minY + 1;
+        requireLoaded(minX, minY, maxX, maxY);
+        requireLoaded(destX, destY, destX + width - 1, destY + height - 1);
+
+        var buffer = new TileType[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                buffer[y * width + x] = getTileRaw(minX + x, minY + y);
+            }
+        }
+
+        int destMaxX = destX + width - 1;
+        int destMaxY = destY + height - 1;
+        for (int chunkZ = destY >> Chunk.SIZE_SHIFT; chunkZ <= destMaxY >> Chunk.SIZE_SHIFT; chunkZ++) {
+            for (int chunkX = destX >> Chunk.SIZE_SHIFT; chunkX <= destMaxX >> Chunk.SIZE_SHIFT; chunkX++) {
+                int slot = slot(chunkX, chunkZ);
+                Chunk chunk = this.chunks[slot];
+                int startX = Math.max(destX, chunkX << Chunk.SIZE_SHIFT);
+                int endX = Math.min(destMaxX, (chunkX << Chunk.SIZE_SHIFT) + Chunk.SIZE - 1);
+                int startY = Math.max(destY, chunkZ << Chunk.SIZE_SHIFT);
+                int endY = Math.min(destMaxY, (chunkZ << Chunk.SIZE_SHIFT) + Chunk.SIZE - 1);
+                for (int y = startY; y <= endY; y++) {
+                    int row = (y - destY) * width - destX;
+                    for (int x = startX; x <= endX; x++) {
+                        chunk.putTile(x, y, buffer[row + x]);
+                        markWritten(slot, x, y);
+                    }
+                }
+            }
+        }
+
+        flush();
+    }
+
+    /**
+     * Publishes pending writes: each touched chunk has its modification count bumped once and the world is told
+     * which of its tiles were written.
+     */
+    public void flush() {
+        for (int slot = 0; slot < this.touched.length; slot++) {
+            if (!this.touched[slot])
+                continue;
+
+            this.touched[slot] = false;
+            boolean biomesChanged = this.writtenBiomes[slot];
+            this.writtenBiomes[slot] = false;
+            int[] changedTiles = takeWrittenTiles(slot);
+            Chunk chunk = this.chunks[slot];
+            chunk.markModified();
+            this.world.onChunkModified(chunk, changedTiles, biomesChanged);
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private void markWritten(int slot, int x, int y) {
+        long[] written = this.writtenTiles[slot];
+        if (written == null) {
+            written = this.writtenTiles[slot] = new long[Chunk.AREA / Long.SIZE];
+        }
+
+        int index = Chunk.localIndex(x, y);
+        written[index >>> 6] |= 1L << index;
+        this.touched[slot] = true;
+    }
+
+    /**
+     * @return the local indices written to the chunk in the given slot since the last flush, in ascending order
+     */
+    private int[] takeWrittenTiles(int slot) {
+        long[] written = this.writtenTiles[slot];
+        if (written == null)
+            return new int[0];
+
+        int count = 0;
+        for (long word : written) {
+            count += Long.bitCount(word);
+        }
+
+        var indices = new int[count];
+        int next = 0;
+        for (int word = 0; word < written.length; word++) {
+            long bits = written[word];
+            while (bits != 0) {
+                indices[next++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+
+        Arrays.fill(written, 0L);
+        return indices;
+    }
+
+    private int slot(int chunkX, int chunkZ) {
+        return (chunkZ - this.minChunkZ) * this.chunksWide + (chunkX - this.minChunkX);
+    }
+
+    @Nullable
+    private Chunk getChunkAt(int x, int y) {
+        return getChunkRaw(x >> Chunk.SIZE_SHIFT, y >> Chunk.SIZE_SHIFT);
+    }
+
+    private int requireLoaded(int x, int y) {
+        if (getChunkAt(x, y) == null)
+            throw new IllegalStateException("Chunk not loaded in region for position: " + x + ", " + y);
+
+        int slot = slot(x >> Chunk.SIZE_SHIFT, y >> Chunk.SIZE_SHIFT);
+        if (!this.writable[slot])
+            throw new IllegalStateException("Chunk not in the world yet for position: " + x + ", " + y);
+
+        return slot;
+    }
+
+    private void requireLoaded(int minX, int minY, int maxX, int maxY) {
+        if (maxX < minX || maxY < minY)
+            throw new IllegalArgumentException("Invalid bounds: " + minX + ", " + minY + " to " + maxX + ", " + maxY);
+
+        for (int chunkZ = minY >> Chunk.SIZE_SHIFT; chunkZ <= maxY >> Chunk.SIZE_SHIFT; chunkZ++) {
+            for (int chunkX = minX >> Chunk.SIZE_SHIFT; chunkX <= maxX >> Chunk.SIZE_SHIFT; chunkX++) {
+                if (getChunkRaw(chunkX, chunkZ) == null)
+                    throw new IllegalStateException("Chunk not loaded in region: " + chunkX + ", " + chunkZ);
+
+                if (!this.writable[slot(chunkX, chunkZ)])
+                    throw new IllegalStateException("Chunk not in the world yet: " + chunkX + ", " + chunkZ);
+            }
+        }
+    }
+}
@@ -4,24 +4,25 @@ import dev.turtywurty.mysticfactories.util.Identifier;
 import dev.turtywurty.mysticfactories.util.registry.Registerable;
 import dev.turtywurty.mysticfactories.world.gen.WorldGenerator;
 import dev.turtywurty.mysticfactories.world.gen.WorldGeneratorType;
+import dev.turtywurty.mysticfactories.world.seed.SeedSource;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
-import java.util.function.Supplier;
+import java.util.function.Function;
 
 @EqualsAndHashCode
 @ToString
 @Getter
 public class WorldType implements Registerable {
-    private final Supplier<WorldGenerator> generator;
+    private final Function<SeedSource, WorldGenerator> generator;
     @Setter
     private Identifier id;
 
-    public WorldType(Supplier<WorldGenerator> generator) {
+    public WorldType(Function<SeedSource, WorldGenerator> generator) {
         if (generator == null)
-            throw new IllegalArgumentException("WorldGenerator supplier cannot be null");
+            throw new IllegalArgumentException("WorldGenerator factory cannot be null");
 
         this.generator = generator;
     }
@@ -31,9 +32,9 @@ public class WorldType implements Registerable {
     }
 
     public static class Builder {
-        private Supplier<WorldGenerator> generator;
+        private Function<SeedSource, WorldGenerator> generator;
 
-        public Builder generator(Supplier<WorldGenerator> generator) {
+        public Builder generator(Function<SeedSource, WorldGenerator> generator) {
             this.generator = generator;
             return this;
         }
@@ -48,7 +49,7 @@ public class WorldType implements Registerable {
 
         public WorldType build() {
             if (this.generator == null)
-                throw new IllegalStateException("World generator supplier must be set");
+                throw new IllegalStateException("World generator factory must be set");
 
             return new WorldType(generator);
         }
@@ -1,9 +1,11 @@
 package dev.turtywurty.mysticfactories.world;
 
+import dev.turtywurty.mysticfactories.world.biome.Biome;
 import dev.turtywurty.mysticfactories.world.entity.Entity;
 import dev.turtywurty.mysticfactories.world.tile.TilePos;
 import dev.turtywurty.mysticfactories.world.tile.TileType;
 import dev.turtywurty.mysticfactories.world.tileentity.TileEntity;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
 import java.util.Map;
@@ -25,4 +27,20 @@ public interface WorldView {
     Optional<TileType> getTile(TilePos pos);
 
     Optional<TileEntity> getTileEntity(TilePos pos);
+
+    /*
+     * Allocation-free variants of the lookups above, for per-tile hot paths. They take world tile (or chunk)
+     * coordinates and return null instead of an empty Optional.
+     */
+
+    @Nullable
+    Chunk getChunkRaw(int chunkX, int chunkZ);
+
+    @Nullable
+    TileType getTileRaw(int x, int y);
+
+    boolean isSolid(int x, int y);
+
+    @Nullable
+    Biome getBiomeRaw(int x, int y);
 }
@@ -3,8 +3,12 @@ package dev.turtywurty.mysticfactories.world.biome;
 import dev.turtywurty.mysticfactories.util.Identifier;
 import dev.turtywurty.mysticfactories.world.Chunk;
 import dev.turtywurty.mysticfactories.world.ChunkPos;
+import dev.turtywurty.mysticfactories.world.ChunkSnapshot;
 import dev.turtywurty.mysticfactories.world.World;
-import dev.turtywurty.mysticfactories.world.tile.TilePos;
+import dev.turtywurty.mysticfactories.world.WorldRegion;
+import dev.turtywurty.mysticfactories.world.WorldSnapshot;
+import dev.turtywurty.mysticfactories.world.gen.WorldGenerator;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,6 +21,7 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.List;
+import java.util.function.IntFunction;
 
 public final class BiomeMapExporter {
     private static final Logger LOGGER = LoggerFactory.getLogger(BiomeMapExporter.class);
@@ -24,52 +29,130 @@ public final class BiomeMapExporter {
     private BiomeMapExporter() {
     }
 
+    /**
+     * Exports a biome map of every loaded chunk, reading the chunks in place through a {@link WorldRegion}. Must run
+     * on the thread that owns the world; compressed chunk storage is read without being inflated.
+     */
     public static void export(World world, Path outputPath) {
-        Map<ChunkPos, Chunk> chunks = world.getChunks();
-        if (chunks.isEmpty()) {
+        Set<ChunkPos> positions = world.getChunks().keySet();
+        if (positions.isEmpty()) {
             LOGGER.info("Biome map export skipped: no chunks have been generated.");
             return;
         }
 
-        int minChunkX = Integer.MAX_VALUE;
-        int minChunkZ = Integer.MAX_VALUE;
-        int maxChunkX = Integer.MIN_VALUE;
-        int maxChunkZ = Integer.MIN_VALUE;
-        for (ChunkPos pos : chunks.keySet()) {
-            minChunkX = Math.min(minChunkX, pos.x);
-            minChunkZ = Math.min(minChunkZ, pos.y);
-            maxChunkX = Math.max(maxChunkX, pos.x);
-            maxChunkZ = Math.max(maxChunkZ, pos.y);
+        int[] bounds = bounds(positions);
+        var image = new BufferedImage((bounds[2] - bounds[0] + 1) * Chunk.SIZE, (bounds[3] - bounds[1] + 1) * Chunk.SIZE,
+                BufferedImage.TYPE_INT_ARGB);
+        Map<Biome, Integer> palette = new HashMap<>();
+        int[] cells = new int[Chunk.AREA];
+        WorldGenerator generator = world.getGenerator();
+        try (var region = new WorldRegion(world, bounds[0], bounds[1], bounds[2], bounds[3])) {
+            for (int chunkZ = bounds[1]; chunkZ <= bounds[3]; chunkZ++) {
+                for (int chunkX = bounds[0]; chunkX <= bounds[2]; chunkX++) {
+                    Chunk chunk = region.getChunkRaw(chunkX, chunkZ);
+                    int[] paletteColors = null;
+                    BiomeResolution resolution = null;
+                    if (chunk != null) {
+                        paletteColors = paletteColors(chunk.getBiomePaletteSize(), chunk::getBiomePaletteEntry, palette);
+                        resolution = chunk.getBiomeResolution();
+                        chunk.copyBiomePaletteIndices(cells);
+                    }
+
+                    drawChunk(image, bounds, chunkX, chunkZ, paletteColors, cells, resolution, generator, palette);
+                }
+            }
         }
 
-        int chunkWidth = maxChunkX - minChunkX + 1;
-        int chunkHeight = maxChunkZ - minChunkZ + 1;
-        int width = chunkWidth * Chunk.SIZE;
-        int height = chunkHeight * Chunk.SIZE;
+        write(image, palette, outputPath);
+    }
 
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    /**
+     * Exports a biome map of every chunk in the snapshot. Tiles without a stored biome fall back to the generator.
+     * Only reads the snapshot, so it can run off the thread that owns the world.
+     */
+    public static void export(WorldSnapshot snapshot, @Nullable WorldGenerator generator, Path outputPath) {
+        Map<ChunkPos, ChunkSnapshot> chunks = snapshot.chunks();
+        if (chunks.isEmpty()) {
+            LOGGER.info("Biome map export skipped: no chunks have been generated.");
+            return;
+        }
+
+        int[] bounds = bounds(chunks.keySet());
+        var image = new BufferedImage((bounds[2] - bounds[0] + 1) * Chunk.SIZE, (bounds[3] - bounds[1] + 1) * Chunk.SIZE,
+                BufferedImage.TYPE_INT_ARGB);
         Map<Biome, Integer> palette = new HashMap<>();
+        int[] cells = new int[Chunk.AREA];
+        for (int chunkZ = bounds[1]; chunkZ <= bounds[3]; chunkZ++) {
+            for (int chunkX = bounds[0]; chunkX <= bounds[2]; chunkX++) {
+                ChunkSnapshot chunk = chunks.get(new ChunkPos(chunkX, chunkZ));
+                int[] paletteColors = null;
+                BiomeResolution resolution = null;
+                if (chunk != null) {
+                    paletteColors = paletteColors(chunk.getBiomePaletteSize(), chunk::getBiomePaletteEntry, palette);
+                    resolution = chunk.getBiomeResolution();
+                    chunk.copyBiomePaletteIndices(cells);
+                }
 
-        for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
-            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
-                int pixelChunkX = (chunkX - minChunkX) * Chunk.SIZE;
-                int pixelChunkZ = (chunkZ - minChunkZ) * Chunk.SIZE;
-
-                for (int localZ = 0; localZ < Chunk.SIZE; localZ++) {
-                    int pixelZ = pixelChunkZ + localZ;
-                    for (int localX = 0; localX < Chunk.SIZE; localX++) {
-                        int pixelX = pixelChunkX + localX;
-                        int worldX = chunkX * Chunk.SIZE + localX;
-                        int worldZ = chunkZ * Chunk.SIZE + localZ;
-
-                        Optional<Biome> biome = world.getBiome(new TilePos(worldX, worldZ));
-                        int color = palette.computeIfAbsent(biome.orElse(null), BiomeMapExporter::colorForBiome);
-                        image.setRGB(pixelX, pixelZ, color);
-                    }
+                drawChunk(image, bounds, chunkX, chunkZ, paletteColors, cells, resolution, generator, palette);
+            }
+        }
+
+        write(image, palette, outputPath);
+    }
+
+    /**
+     * @return the minimum x, minimum z, maximum x and maximum z of the given chunk positions
+     */
+    private static int[] bounds(Collection<ChunkPos> positions) {
+        int[] bounds = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+        for (ChunkPos pos : positions) {
+            bounds[0] = Math.min(bounds[0], pos.x);
+            bounds[1] = Math.min(bounds[1], pos.y);
+            bounds[2] = Math.max(bounds[2], pos.x);
+            bounds[3] = Math.max(bounds[3], pos.y);
+        }
+
+        return bounds;
+    }
+
+    /**
+     * Resolves each palette entry to a colour once, so every tile is just an index lookup.
+     */
+    private static int[] paletteColors(int paletteSize, IntFunction<Biome> entries, Map<Biome, Integer> palette) {
+        var colors = new int[paletteSize];
+        for (int i = 0; i < paletteSize; i++) {
+            Biome biome = entries.apply(i);
+            colors[i] = biome == null ? 0 : palette.computeIfAbsent(biome, BiomeMapExporter::colorForBiome);
+        }
+
+        return colors;
+    }
+
+    /**
+     * Draws one chunk from its palette colours and per-cell palette indices, falling back to the generator for tiles
+     * without a stored biome and for chunks that are missing, which pass {@code null} colours.
+     */
+    private static void drawChunk(BufferedImage image, int[] bounds, int chunkX, int chunkZ, @Nullable int[] paletteColors,
+                                  int[] cells, @Nullable BiomeResolution resolution, @Nullable WorldGenerator generator,
+                                  Map<Biome, Integer> palette) {
+        int pixelChunkX = (chunkX - bounds[0]) * Chunk.SIZE;
+        int pixelChunkZ = (chunkZ - bounds[1]) * Chunk.SIZE;
+        for (int localZ = 0; localZ < Chunk.SIZE; localZ++) {
+            for (int localX = 0; localX < Chunk.SIZE; localX++) {
+                int color = paletteColors == null ? 0 : paletteColors[cells[resolution.cellIndex(localX, localZ)]];
+                if (color == 0) {
+                    int worldX = chunkX * Chunk.SIZE + localX;
+                    int worldZ = chunkZ * Chunk.SIZE + localZ;
+                    Biome biome = generator == null ? null : generator.getBiome(worldX, worldZ);
+                    color = palette.computeIfAbsent(biome, BiomeMapExporter::colorForBiome);
                 }
+
+                image.setRGB(pixelChunkX + localX, pixelChunkZ + localZ, color);
             }
         }
+    }
 
+    private static void write(BufferedImage image, Map<Biome, Integer> palette, Path outputPath) {
         try {
             if (outputPath.getParent() != null) {
                 Files.createDirectories(outputPath.getParent());
@@ -0,0 +1,42 @@
+package dev.turtywurty.mysticfactories.world.biome;
+
+import dev.turtywurty.mysticfactories.world.ChunkPos;
+import lombok.Getter;
+
+/**
+ * How finely a chunk stores its biomes. Every tile inside a cell shares the biome of that cell.
+ */
+@Getter
+public enum BiomeResolution {
+    CELL_1X1(1),
+    CELL_2X2(2),
+    CELL_4X4(4);
+
+    private final int cellSize;
+    private final int cellShift;
+    private final int cellsPerSide;
+
+    BiomeResolution(int cellSize) {
+        this.cellSize = cellSize;
+        this.cellShift = Integer.numberOfTrailingZeros(cellSize);
+        this.cellsPerSide = ChunkPos.SIZE / cellSize;
+    }
+
+    public int getCellCount() {
+        return this.cellsPerSide * this.cellsPerSide;
+    }
+
+    /**
+     * @return the index of the cell holding the given chunk-local coordinates
+     */
+    public int cellIndex(int localX, int localY) {
+        return (localY >> this.cellShift) * this.cellsPerSide + (localX >> this.cellShift);
+    }
+
+    /**
+     * @return the world coordinate of the first tile in the cell containing {@code coordinate}
+     */
+    public int toCellOrigin(int coordinate) {
+        return coordinate & -this.cellSize;
+    }
+}
@@ -1,12 +1,19 @@
 package dev.turtywurty.mysticfactories.world.biome;
 
-import java.util.Random;
+import dev.turtywurty.mysticfactories.world.gen.PositionalRandom;
+
+import java.util.random.RandomGenerator;
 
 public abstract class FloatProvider {
     public static FloatProvider constant(float value) {
         return new FloatProvider() {
             @Override
-            public float get(Random random) {
+            public float get(RandomGenerator random) {
+                return value;
+            }
+
+            @Override
+            public float get(PositionalRandom random, int x, int z) {
                 return value;
             }
         };
@@ -15,7 +22,7 @@ public abstract class FloatProvider {
     public static FloatProvider noise(float scale, float amplitude) {
         return new FloatProvider() {
             @Override
-            public float get(Random random) {
+            public float get(RandomGenerator random) {
                 return ((random.nextFloat() * 2 - 1) * amplitude) / scale;
             }
         };
@@ -24,16 +31,21 @@ public abstract class FloatProvider {
     public static FloatProvider uniform(float min, float max) {
         return new FloatProvider() {
             @Override
-            public float get(Random random) {
+            public float get(RandomGenerator random) {
                 return min + random.nextFloat() * (max - min);
             }
+
+            @Override
+            public float get(PositionalRandom random, int x, int z) {
+                return min + random.nextFloat(x, z, 0) * (max - min);
+            }
         };
     }
 
     public static FloatProvider linearGradient(float startValue, float endValue, float startX, float endX) {
         return new FloatProvider() {
             @Override
-            public float get(Random random) {
+            public float get(RandomGenerator random) {
                 float position = startX + random.nextFloat() * (endX - startX);
                 float t = (position - startX) / (endX - startX);
                 return startValue + t * (endValue - startValue);
@@ -44,7 +56,7 @@ public abstract class FloatProvider {
     public static FloatProvider composite(FloatProvider a, FloatProvider b, float weight) {
         return new FloatProvider() {
             @Override
-            public float get(Random random) {
+            public float get(RandomGenerator random) {
                 return a.get(random) * (1 - weight) + b.get(random) * weight;
             }
         };
@@ -53,7 +65,7 @@ public abstract class FloatProvider {
     public static FloatProvider scaled(FloatProvider provider, float scale) {
         return new FloatProvider() {
             @Override
-            public float get(Random random) {
+            public float get(RandomGenerator random) {
                 return provider.get(random) * scale;
             }
         };
@@ -62,7 +74,7 @@ public abstract class FloatProvider {
     public static FloatProvider trapezoidal(float min, float lowerMax, float upperMin, float max) {
         return new FloatProvider() {
             @Override
-            public float get(Random random) {
+            public float get(RandomGenerator random) {
                 float sampleX = min + random.nextFloat() * (max - min);
                 if (sampleX < min || sampleX > max)
                     return 0.0f;
@@ -78,5 +90,13 @@ public abstract class FloatProvider {
         };
     }
 
-    public abstract float get(Random random);
+    public abstract float get(RandomGenerator random);
+
+    /**
+     * Samples the value at a position. The result only depends on the source and the position, so positions can be
+     * sampled in any order and on any thread.
+     */
+    public float get(PositionalRandom random, int x, int z) {
+        return get(random.at(x, z, 0));
+    }
 }
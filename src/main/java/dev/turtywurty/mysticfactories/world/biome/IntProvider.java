@@ -1,12 +1,19 @@
 package dev.turtywurty.mysticfactories.world.biome;
 
-import java.util.Random;
+import dev.turtywurty.mysticfactories.world.gen.PositionalRandom;
+
+import java.util.random.RandomGenerator;
 
 public abstract class IntProvider {
     public static IntProvider constant(int value) {
         return new IntProvider() {
             @Override
-            public int get(Random random) {
+            public int get(RandomGenerator random) {
+                return value;
+            }
+
+            @Override
+            public int get(PositionalRandom random, int x, int z) {
                 return value;
             }
         };
@@ -15,7 +22,7 @@ public abstract class IntProvider {
     public static IntProvider noise(float scale, float amplitude) {
         return new IntProvider() {
             @Override
-            public int get(Random random) {
+            public int get(RandomGenerator random) {
                 return (int) (((random.nextFloat() * 2 - 1) * amplitude) / scale);
             }
         };
@@ -24,16 +31,21 @@ public abstract class IntProvider {
     public static IntProvider uniform(int min, int max) {
         return new IntProvider() {
             @Override
-            public int get(Random random) {
+            public int get(RandomGenerator random) {
                 return min + random.nextInt(max - min + 1);
             }
+
+            @Override
+            public int get(PositionalRandom random, int x, int z) {
+                return min + random.nextInt(x, z, 0, max - min + 1);
+            }
         };
     }
 
     public static IntProvider linearGradient(int startValue, int endValue, int startX, int endX) {
         return new IntProvider() {
             @Override
-            public int get(Random random) {
+            public int get(RandomGenerator random) {
                 float position = startX + random.nextFloat() * (endX - startX);
                 float t = (position - startX) / (endX - startX);
                 return (int) (startValue + t * (endValue - startValue));
@@ -44,7 +56,7 @@ public abstract class IntProvider {
     public static IntProvider composite(IntProvider a, IntProvider b, float weight) {
         return new IntProvider() {
             @Override
-            public int get(Random random) {
+            public int get(RandomGenerator random) {
                 return (int) (a.get(random) * (1 - weight) + b.get(random) * weight);
             }
         };
@@ -53,7 +65,7 @@ public abstract class IntProvider {
     public static IntProvider scaled(IntProvider provider, int scale) {
         return new IntProvider() {
             @Override
-            public int get(Random random) {
+            public int get(RandomGenerator random) {
                 return provider.get(random) * scale;
             }
         };
@@ -62,7 +74,7 @@ public abstract class IntProvider {
     public static IntProvider trapezoidal(int min, int lowerMax, int upperMin, int max) {
         return new IntProvider() {
             @Override
-            public int get(Random random) {
+            public int get(RandomGenerator random) {
                 float sampleX = min + random.nextFloat() * (max - min);
                 if (sampleX < min || sampleX > max)
                     return 0;
@@ -78,5 +90,13 @@ public abstract class IntProvider {
         };
     }
 
-    public abstract int get(Random random);
+    public abstract int get(RandomGenerator random);
+
+    /**
+     * Samples the value at a position. The result only depends on the source and the position, so positions can be
+     * sampled in any order and on any thread.
+     */
+    public int get(PositionalRandom random, int x, int z) {
+        return get(random.at(x, z, 0));
+    }
 }
@@ -1,6 +1,7 @@
 package dev.turtywurty.mysticfactories.world.biome.source;
 
 import dev.turtywurty.mysticfactories.world.biome.Biome;
+import org.jetbrains.annotations.Nullable;
 
 public abstract class BiomeSource {
     protected final long seed;
@@ -18,4 +19,23 @@ public abstract class BiomeSource {
     }
 
     public abstract Biome getBiome(int x, int z);
+
+    /**
+     * Fills {@code out} with the biomes of a grid laid out like a
+     * {@link dev.turtywurty.mysticfactories.world.gen.NoiseGrid}: {@code width} by {@code height} positions starting
+     * at ({@code originX}, {@code originZ}), {@code step} tiles apart, row by row.
+     *
+     * @param terrainNoise the terrain noise at each position of the grid, or {@code null} if the caller has none
+     */
+    public void getBiomes(int originX, int originZ, int width, int height, int step,
+                          @Nullable float[] terrainNoise, Biome[] out) {
+        int index = 0;
+        for (int j = 0; j < height; j++) {
+            int z = originZ + j * step;
+            for (int i = 0; i < width; i++, index++) {
+                int x = originX + i * step;
+                out[index] = terrainNoise != null ? getBiome(x, z, terrainNoise[index]) : getBiome(x, z);
+            }
+        }
+    }
 }
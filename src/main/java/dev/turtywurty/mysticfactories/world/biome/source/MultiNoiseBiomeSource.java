@@ -3,17 +3,17 @@ package dev.turtywurty.mysticfactories.world.biome.source;
 import dev.turtywurty.mysticfactories.world.biome.Biome;
 import dev.turtywurty.mysticfactories.world.biome.ClimateProfile;
 import dev.turtywurty.mysticfactories.world.biome.FloatProvider;
+import dev.turtywurty.mysticfactories.world.gen.NoiseGrid;
+import dev.turtywurty.mysticfactories.world.gen.PositionalRandom;
+import org.jetbrains.annotations.Nullable;
 import personthecat.fastnoise.FastNoise;
 import personthecat.fastnoise.data.FractalType;
 import personthecat.fastnoise.data.NoiseType;
 
 import java.util.List;
 import java.util.Objects;
-import java.util.Random;
 
 public class MultiNoiseBiomeSource extends BiomeSource {
-    private static final long X_PRIME = 341873128712L;
-    private static final long Z_PRIME = 132897987541L;
     private static final float ALTITUDE_BAND_MARGIN = 0.12f;
     private static final float TEMPERATURE_FREQUENCY = 0.0022f;
     private static final float HUMIDITY_FREQUENCY = 0.0022f;
@@ -23,6 +23,7 @@ public class MultiNoiseBiomeSource extends BiomeSource {
     private final FastNoise temperatureNoise;
     private final FastNoise humidityNoise;
     private final FastNoise altitudeNoise;
+    private final PositionalRandom altitudeRandom;
 
     public MultiNoiseBiomeSource(long seed, List<Biome> biomes) {
         super(seed);
@@ -35,6 +36,7 @@ public class MultiNoiseBiomeSource extends BiomeSource {
         this.temperatureNoise = createNoise(noiseSeed, TEMPERATURE_FREQUENCY);
         this.humidityNoise = createNoise(noiseSeed + 1, HUMIDITY_FREQUENCY);
         this.altitudeNoise = createNoise(noiseSeed + 2, FALLBACK_ALTITUDE_FREQUENCY);
+        this.altitudeRandom = new PositionalRandom(seed);
     }
 
     private static float normalize(float value) {
@@ -86,10 +88,50 @@ public class MultiNoiseBiomeSource extends BiomeSource {
 
     @Override
     public Biome getBiome(int x, int z, float terrainNoise) {
-        float temperatureSample = clamp01(normalize(this.temperatureNoise.getNoise(x, z)) * 0.9f);
-        float humiditySample = clamp01(normalize(this.humidityNoise.getNoise(x, z)) * 1.1f);
-        float altitudeSample = clampSigned(terrainNoise);
+        float temperatureSample = toTemperature(this.temperatureNoise.getNoise(x, z));
+        float humiditySample = toHumidity(this.humidityNoise.getNoise(x, z));
+        return selectBiome(x, z, temperatureSample, humiditySample, clampSigned(terrainNoise));
+    }
+
+    /**
+     * Samples each climate layer over the whole grid in one pass, then picks every biome from the arrays.
+     */
+    @Override
+    public void getBiomes(int originX, int originZ, int width, int height, int step,
+                          @Nullable float[] terrainNoise, Biome[] out) {
+        int count = width * height;
+        float[] temperature = NoiseGrid.sample(this.temperatureNoise, originX, originZ, width, height, step, null);
+        float[] humidity = NoiseGrid.sample(this.humidityNoise, originX, originZ, width, height, step, null);
+        float[] altitude = terrainNoise != null ?
+                terrainNoise :
+                NoiseGrid.sample(this.altitudeNoise, originX, originZ, width, height, step, null);
+        for (int index = 0; index < count; index++) {
+            temperature[index] = toTemperature(temperature[index]);
+        }
+
+        for (int index = 0; index < count; index++) {
+            humidity[index] = toHumidity(humidity[index]);
+        }
+
+        int index = 0;
+        for (int j = 0; j < height; j++) {
+            int z = originZ + j * step;
+            for (int i = 0; i < width; i++, index++) {
+                out[index] = selectBiome(originX + i * step, z, temperature[index], humidity[index],
+                        clampSigned(altitude[index]));
+            }
+        }
+    }
+
+    private static float toTemperature(float noise) {
+        return clamp01(normalize(noise) * 0.9f);
+    }
+
+    private static float toHumidity(float noise) {
+        return clamp01(normalize(noise) * 1.1f);
+    }
 
+    private Biome selectBiome(int x, int z, float temperatureSample, float humiditySample, float altitudeSample) {
         Biome fallbackBiome = null;
         float bestAltitudeDiff = Float.MAX_VALUE;
         for (Biome biome : this.biomes) {
@@ -175,7 +217,6 @@ public class MultiNoiseBiomeSource extends BiomeSource {
         if (provider == null)
             return 0.0f;
 
-        long mixedSeed = this.seed ^ (long) x * X_PRIME ^ (long) z * Z_PRIME;
-        return provider.get(new Random(mixedSeed));
+        return provider.get(this.altitudeRandom, x, z);
     }
 }
@@ -2,6 +2,9 @@ package dev.turtywurty.mysticfactories.world.biome.source;
 
 import dev.turtywurty.mysticfactories.world.biome.Biome;
 
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
 import java.util.Objects;
 
 public class SingleBiomeSource extends BiomeSource {
@@ -20,4 +23,10 @@ public class SingleBiomeSource extends BiomeSource {
     public Biome getBiome(int x, int z) {
         return this.biome;
     }
+
+    @Override
+    public void getBiomes(int originX, int originZ, int width, int height, int step,
+                          @Nullable float[] terrainNoise, Biome[] out) {
+        Arrays.fill(out, 0, width * height, this.biome);
+    }
 }
@@ -0,0 +1,187 @@
+package dev.turtywurty.mysticfactories.world.entity;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Dense entity storage with a UUID index, giving O(1) add, lookup and removal.
+ * <p>
+ * Removal swaps the last entity into the freed slot, so the order of entities is not preserved. While
+ * {@link #forEach(Consumer)} is running, removals and {@link #clear()} are deferred until it returns and entities
+ * added during it are not visited, so ticking code can freely add and remove entities. Adding an entity back while
+ * its removal is deferred cancels the removal. An entity's UUID must not change while it is stored.
+ * <p>
+ * {@link #iterator()} and the {@link #asList() list view} cannot defer removals, since nothing tells the store when
+ * they are done with. They are fail-fast instead: removing an entity other than from within {@link #forEach(Consumer)}
+ * makes them throw {@link ConcurrentModificationException}, rather than skip the entity swapped into the freed slot.
+ * Entities added while they are in use are visited.
+ */
+public class EntityStore<T extends Entity> implements Iterable<T> {
+    private Entity[] entities = new Entity[16];
+    private int size;
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private final Set<T> deferredRemovals = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int iterationDepth;
+    private final ListView listView = new ListView();
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * @return {@code false} if the entity was already stored
+     */
+    public boolean add(T entity) {
+        if (this.slots.containsKey(entity.getUuid()))
+            return !this.deferredRemovals.isEmpty() && this.deferredRemovals.remove(entity);
+
+        if (this.size == this.entities.length) {
+            this.entities = Arrays.copyOf(this.entities, this.size * 2);
+        }
+
+        this.entities[this.size] = entity;
+        this.slots.put(entity.getUuid(), this.size);
+        this.size++;
+        return true;
+    }
+
+    /**
+     * @return {@code false} if the entity was not stored
+     */
+    public boolean remove(T entity) {
+        Integer slot = this.slots.get(entity.getUuid());
+        if (slot == null || this.entities[slot] != entity)
+            return false;
+
+        if (this.iterationDepth > 0)
+            return this.deferredRemovals.add(entity);
+
+        removeAt(slot);
+        return true;
+    }
+
+    /**
+     * @return whether the entity is stored and not waiting to be removed
+     */
+    public boolean contains(T entity) {
+        Integer slot = this.slots.get(entity.getUuid());
+        return slot != null && this.entities[slot] == entity && !this.deferredRemovals.contains(entity);
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public T get(UUID uuid) {
+        Integer slot = this.slots.get(uuid);
+        return slot == null ? null : (T) this.entities[slot];
+    }
+
+    /**
+     * Removes every entity. During {@link #forEach(Consumer)} this defers the removal of every entity stored now, so
+     * entities added afterwards are kept.
+     */
+    @SuppressWarnings("unchecked")
+    public void clear() {
+        if (this.iterationDepth > 0) {
+            for (int i = 0; i < this.size; i++) {
+                this.deferredRemovals.add((T) this.entities[i]);
+            }
+
+            return;
+        }
+
+        Arrays.fill(this.entities, 0, this.size, null);
+        this.size = 0;
+        this.slots.clear();
+        this.deferredRemovals.clear();
+        this.listView.onRemoval();
+    }
+
+    /**
+     * Visits every entity stored when the call started. Safe to add and remove entities from the consumer.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super T> consumer) {
+        int end = this.size;
+        this.iterationDepth++;
+        try {
+            for (int i = 0; i < end; i++) {
+                consumer.accept((T) this.entities[i]);
+            }
+        } finally {
+            if (--this.iterationDepth == 0 && !this.deferredRemovals.isEmpty()) {
+                for (T entity : this.deferredRemovals) {
+                    Integer slot = this.slots.get(entity.getUuid());
+                    if (slot != null && this.entities[slot] == entity) {
+                        removeAt(slot);
+                    }
+                }
+
+                this.deferredRemovals.clear();
+            }
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return this.listView.iterator();
+    }
+
+    /**
+     * @return a live, read-only {@link List} view of the stored entities, fail-fast like {@link #iterator()}
+     */
+    public List<T> asList() {
+        return this.listView;
+    }
+
+    private void removeAt(int slot) {
+        Entity removed = this.entities[slot];
+        int last = --this.size;
+        if (slot != last) {
+            Entity moved = this.entities[last];
+            this.entities[slot] = moved;
+            this.slots.put(moved.getUuid(), slot);
+        }
+
+        this.entities[last] = null;
+        this.slots.remove(removed.getUuid());
+        this.listView.onRemoval();
+    }
+
+    private final class ListView extends AbstractList<T> {
+        /**
+         * Makes iterators in use throw on their next step. Additions are not counted, since they do not move entities.
+         */
+        private void onRemoval() {
+            this.modCount++;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            return (T) EntityStore.this.entities[Objects.checkIndex(index, EntityStore.this.size)];
+        }
+
+        @Override
+        public int size() {
+            return EntityStore.this.size;
+        }
+    }
+}
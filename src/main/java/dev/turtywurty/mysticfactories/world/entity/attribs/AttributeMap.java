@@ -11,6 +11,7 @@ import java.util.function.Function;
 
 public class AttributeMap {
     private final Map<AttributeKey<?>, Attribute<?>> attributes = new HashMap<>();
+    private final Codec<AttributeMap> codec = createCodec();
 
     public static Builder builder() {
         return new Builder();
@@ -111,6 +112,10 @@ public class AttributeMap {
     }
 
     public Codec<AttributeMap> codec() {
+        return this.codec;
+    }
+
+    private Codec<AttributeMap> createCodec() {
         Encoder<AttributeMap> encoder = AttributeMap::encodeAttributes;
         Decoder<AttributeMap> decoder = new Decoder<>() {
             @Override
@@ -0,0 +1,13 @@
+package dev.turtywurty.mysticfactories.world.entity.data;
+
+import dev.turtywurty.mysticfactories.util.binary.BinaryOps;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag;
+
+/**
+ * Concrete {@link EntityDataReader} that reads entity data in the {@link BinaryOps} format.
+ */
+public final class BinaryEntityDataReader extends EntityDataReader<BinaryTag> {
+    public BinaryEntityDataReader(BinaryTag root) {
+        super(BinaryOps.INSTANCE, root);
+    }
+}
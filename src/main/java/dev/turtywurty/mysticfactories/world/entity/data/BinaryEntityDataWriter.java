@@ -0,0 +1,17 @@
+package dev.turtywurty.mysticfactories.world.entity.data;
+
+import dev.turtywurty.mysticfactories.util.binary.BinaryOps;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag;
+
+/**
+ * Concrete {@link EntityDataWriter} that targets the compact {@link BinaryOps} format.
+ */
+public final class BinaryEntityDataWriter extends EntityDataWriter<BinaryTag> {
+    public BinaryEntityDataWriter() {
+        super(BinaryOps.INSTANCE);
+    }
+
+    public BinaryTag toTag() {
+        return buildOrThrow();
+    }
+}
@@ -0,0 +1,166 @@
+package dev.turtywurty.mysticfactories.world.entity.data;
+
+import com.mojang.serialization.Codec;
+import dev.turtywurty.mysticfactories.util.Codecs;
+import dev.turtywurty.mysticfactories.util.Identifier;
+import dev.turtywurty.mysticfactories.util.binary.BinaryOps;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTagInput;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTagOutput;
+import dev.turtywurty.mysticfactories.world.entity.Entity;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A field layout of an entity type's data: the keys {@link Entity#writeData} writes, in order, and how each value is
+ * encoded. Compiled once for each distinct layout an entity type writes and used by {@link PositionalEntityWriter} to
+ * write values by position instead of building a tree. Layouts with the same type, keys and kinds are equal.
+ */
+@EqualsAndHashCode
+public final class EntitySchema {
+    @Getter
+    private final Identifier typeId;
+    private final String[] keys;
+    private final FieldKind[] kinds;
+
+    private EntitySchema(Identifier typeId, String[] keys, FieldKind[] kinds) {
+        this.typeId = typeId;
+        this.keys = keys;
+        this.kinds = kinds;
+    }
+
+    /**
+     * Records the fields the given entity writes. Fields that are only written conditionally are part of the layout
+     * only if this entity writes them, so entities of one type may compile to different layouts.
+     */
+    public static EntitySchema compile(Entity entity) {
+        if (entity.getType().getId() == null)
+            throw new IllegalArgumentException("Entity type of " + entity + " is not registered");
+
+        var recorder = new Recorder();
+        entity.writeData(recorder);
+        return new EntitySchema(entity.getType().getId(),
+                recorder.keys.toArray(String[]::new),
+                recorder.kinds.toArray(FieldKind[]::new));
+    }
+
+    static EntitySchema read(BinaryTagInput input) throws IOException {
+        Identifier typeId = Identifier.parse(input.readKey());
+        int size = input.readVarInt();
+        if (size < 0 || size > 0xFFFF)
+            throw new IOException("Invalid field count " + size + " for " + typeId);
+
+        var keys = new String[size];
+        var kinds = new FieldKind[size];
+        FieldKind[] values = FieldKind.values();
+        for (int i = 0; i < size; i++) {
+            keys[i] = input.readKey();
+            int ordinal = input.readByte();
+            if (ordinal < 0 || ordinal >= values.length)
+                throw new IOException("Unknown field kind " + ordinal + " for " + typeId + "." + keys[i]);
+
+            kinds[i] = values[ordinal];
+        }
+
+        return new EntitySchema(typeId, keys, kinds);
+    }
+
+    void write(BinaryTagOutput output) {
+        output.writeKey(this.typeId.toString());
+        output.writeVarInt(this.keys.length);
+        for (int i = 0; i < this.keys.length; i++) {
+            output.writeKey(this.keys[i]);
+            output.writeByte((byte) this.kinds[i].ordinal());
+        }
+    }
+
+    public int size() {
+        return this.keys.length;
+    }
+
+    public String key(int index) {
+        return this.keys[index];
+    }
+
+    public FieldKind kind(int index) {
+        return this.kinds[index];
+    }
+
+    /**
+     * @return the position of the field, or -1 if the layout has no such field. If a key was written more than
+     * once, the last write wins, as it does for the codec path.
+     */
+    public int indexOf(String key) {
+        for (int i = this.keys.length - 1; i >= 0; i--) {
+            if (this.keys[i].equals(key))
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * How a field's value is written. Ordinals are part of the stored format, so new kinds must be added at the end.
+     */
+    public enum FieldKind {
+        BOOLEAN,
+        BYTE,
+        SHORT,
+        INT,
+        LONG,
+        FLOAT,
+        DOUBLE,
+        STRING,
+        UUID,
+        VECTOR2D,
+        /**
+         * Any other codec, written as a {@link BinaryOps} tag.
+         */
+        CODEC;
+
+        public static FieldKind of(Codec<?> codec) {
+            if (codec == Codec.BOOL)
+                return BOOLEAN;
+            if (codec == Codec.BYTE)
+                return BYTE;
+            if (codec == Codec.SHORT)
+                return SHORT;
+            if (codec == Codec.INT)
+                return INT;
+            if (codec == Codec.LONG)
+                return LONG;
+            if (codec == Codec.FLOAT)
+                return FLOAT;
+            if (codec == Codec.DOUBLE)
+                return DOUBLE;
+            if (codec == Codec.STRING)
+                return STRING;
+            if (codec == Codecs.UUID)
+                return UUID;
+            if (codec == Codecs.VECTOR2D)
+                return VECTOR2D;
+
+            return CODEC;
+        }
+    }
+
+    private static final class Recorder extends EntityDataWriter<BinaryTag> {
+        private final List<String> keys = new ArrayList<>();
+        private final List<FieldKind> kinds = new ArrayList<>();
+
+        private Recorder() {
+            super(BinaryOps.INSTANCE);
+        }
+
+        @Override
+        public <V> EntityDataWriter<BinaryTag> write(String key, Codec<V> codec, V value) {
+            this.keys.add(key);
+            this.kinds.add(FieldKind.of(codec));
+            return this;
+        }
+    }
+}
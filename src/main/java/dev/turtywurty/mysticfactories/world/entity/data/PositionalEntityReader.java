@@ -0,0 +1,264 @@
+package dev.turtywurty.mysticfactories.world.entity.data;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import dev.turtywurty.mysticfactories.util.Identifier;
+import dev.turtywurty.mysticfactories.util.binary.BinaryOps;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.CompoundTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.DoubleArrayTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.DoubleTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.FloatTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.IntTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag.StringTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTagInput;
+import dev.turtywurty.mysticfactories.util.registry.Registries;
+import dev.turtywurty.mysticfactories.world.World;
+import dev.turtywurty.mysticfactories.world.entity.Entity;
+import dev.turtywurty.mysticfactories.world.entity.EntityType;
+import dev.turtywurty.mysticfactories.world.entity.data.EntitySchema.FieldKind;
+import org.joml.Vector2d;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Reads entities written by a {@link PositionalEntityWriter}, in the order they were written.
+ * <p>
+ * Fields are looked up by key in the layout stored with the data, not the one the entity type would compile to today,
+ * so entities can still read data written before their fields changed. A field read with a different codec than it
+ * was written with, or one that was written as a tag, is decoded through that codec.
+ */
+public final class PositionalEntityReader {
+    private static final BinaryTag EMPTY = new CompoundTag(Map.of());
+
+    private final BinaryTagInput input;
+    private final List<EntitySchema> schemas = new ArrayList<>();
+    private final FieldReader fieldReader = new FieldReader();
+
+    public PositionalEntityReader(BinaryTagInput input) {
+        this.input = Objects.requireNonNull(input, "input");
+    }
+
+    /**
+     * Reads the next entity and creates it for the given world. The entity is not added to the world.
+     */
+    public Entity read(World world) throws IOException {
+        int reference = this.input.readVarInt();
+        if (reference == PositionalEntityWriter.TAG_ENTRY) {
+            Entity entity = create(Identifier.parse(this.input.readKey()), world);
+            entity.readData(new BinaryEntityDataReader(this.input.read()));
+            return entity;
+        }
+
+        EntitySchema schema;
+        if (reference == PositionalEntityWriter.NEW_SCHEMA) {
+            schema = EntitySchema.read(this.input);
+            this.schemas.add(schema);
+        } else {
+            int schemaId = reference - PositionalEntityWriter.SCHEMA_ID_OFFSET;
+            if (schemaId < 0 || schemaId >= this.schemas.size())
+                throw new IOException("Unknown schema id " + schemaId);
+
+            schema = this.schemas.get(schemaId);
+        }
+
+        this.fieldReader.readFields(schema);
+        Entity entity = create(schema.getTypeId(), world);
+        entity.readData(this.fieldReader);
+        this.fieldReader.clear();
+        return entity;
+    }
+
+    private static Entity create(Identifier typeId, World world) throws IOException {
+        EntityType<?> type = Registries.ENTITY_TYPES.getOptional(typeId)
+                .orElseThrow(() -> new IOException("Unknown entity type: " + typeId));
+        return type.create(world);
+    }
+
+    /**
+     * Holds the decoded values of one entity. Primitives are kept unboxed, floats and doubles as their raw bits.
+     */
+    private final class FieldReader extends EntityDataReader<BinaryTag> {
+        private EntitySchema schema;
+        private long[] primitives = new long[16];
+        private Object[] objects = new Object[16];
+
+        private FieldReader() {
+            super(BinaryOps.INSTANCE, EMPTY);
+        }
+
+        private void readFields(EntitySchema schema) throws IOException {
+            this.schema = schema;
+            if (this.primitives.length < schema.size()) {
+                this.primitives = new long[schema.size()];
+                this.objects = new Object[schema.size()];
+            }
+
+            for (int i = 0; i < schema.size(); i++) {
+                switch (schema.kind(i)) {
+                    case BOOLEAN -> this.primitives[i] = input.readByte();
+                    case BYTE, SHORT, INT, LONG -> this.primitives[i] = input.readVarLong();
+                    case FLOAT -> this.primitives[i] = Float.floatToRawIntBits(input.readFloat());
+                    case DOUBLE -> this.primitives[i] = input.readLong();
+                    case STRING -> this.objects[i] = input.readString();
+                    case UUID -> this.objects[i] = new UUID(input.readLong(), input.readLong());
+                    case VECTOR2D -> this.objects[i] = new Vector2d(input.readDouble(), input.readDouble());
+                    case CODEC -> this.objects[i] = input.read();
+                }
+            }
+        }
+
+        private void clear() {
+            Arrays.fill(this.objects, 0, this.schema.size(), null);
+        }
+
+        private int indexOf(String key, FieldKind kind) {
+            int index = this.schema.indexOf(key);
+            return index >= 0 && this.schema.kind(index) == kind ? index : -1;
+        }
+
+        private Object value(int index) {
+            long bits = this.primitives[index];
+            return switch (this.schema.kind(index)) {
+                case BOOLEAN -> bits != 0;
+                case BYTE -> (byte) bits;
+                case SHORT -> (short) bits;
+                case INT -> (int) bits;
+                case LONG -> bits;
+                case FLOAT -> Float.intBitsToFloat((int) bits);
+                case DOUBLE -> Double.longBitsToDouble(bits);
+                case STRING, UUID, VECTOR2D, CODEC -> this.objects[index];
+            };
+        }
+
+        private BinaryTag tag(int index) {
+            long bits = this.primitives[index];
+            return switch (this.schema.kind(index)) {
+                case BOOLEAN, BYTE, SHORT, INT, LONG -> new IntTag(bits);
+                case FLOAT -> new FloatTag(Float.intBitsToFloat((int) bits));
+                case DOUBLE -> new DoubleTag(Double.longBitsToDouble(bits));
+                case STRING -> new StringTag((String) this.objects[index]);
+                case UUID -> new StringTag(this.objects[index].toString());
+                case VECTOR2D -> {
+                    var vector = (Vector2d) this.objects[index];
+                    yield new DoubleArrayTag(new double[]{vector.x, vector.y});
+                }
+                case CODEC -> (BinaryTag) this.objects[index];
+            };
+        }
+
+        @Override
+        public BinaryTag root() {
+            Map<String, BinaryTag> values = new LinkedHashMap<>();
+            for (int i = 0; i < this.schema.size(); i++) {
+                values.put(this.schema.key(i), tag(i));
+            }
+
+            return new CompoundTag(values);
+        }
+
+        @Override
+        public boolean has(String key) {
+            return this.schema.indexOf(key) >= 0;
+        }
+
+        @Override
+        public <V> DataResult<V> read(String key, Codec<V> codec) {
+            Objects.requireNonNull(key, "key");
+            Objects.requireNonNull(codec, "codec");
+
+            int index = this.schema.indexOf(key);
+            if (index < 0)
+                return DataResult.error(() -> "Missing required field '" + key + "'");
+
+            FieldKind kind = this.schema.kind(index);
+            if (kind != FieldKind.CODEC && kind == FieldKind.of(codec)) {
+                @SuppressWarnings("unchecked")
+                V value = (V) value(index);
+                return DataResult.success(value);
+            }
+
+            return codec.parse(BinaryOps.INSTANCE, tag(index));
+        }
+
+        @Override
+        public <V> Optional<V> readOptional(String key, Codec<V> codec) {
+            if (!has(key))
+                return Optional.empty();
+
+            return read(key, codec).result();
+        }
+
+        @Override
+        public boolean readBoolean(String key) {
+            int index = indexOf(key, FieldKind.BOOLEAN);
+            return index >= 0 ? this.primitives[index] != 0 : super.readBoolean(key);
+        }
+
+        @Override
+        public boolean readBooleanOrDefault(String key, boolean defaultValue) {
+            int index = indexOf(key, FieldKind.BOOLEAN);
+            return index >= 0 ? this.primitives[index] != 0 : super.readBooleanOrDefault(key, defaultValue);
+        }
+
+        @Override
+        public int readInt(String key) {
+            int index = indexOf(key, FieldKind.INT);
+            return index >= 0 ? (int) this.primitives[index] : super.readInt(key);
+        }
+
+        @Override
+        public int readIntOrDefault(String key, int defaultValue) {
+            int index = indexOf(key, FieldKind.INT);
+            return index >= 0 ? (int) this.primitives[index] : super.readIntOrDefault(key, defaultValue);
+        }
+
+        @Override
+        public long readLong(String key) {
+            int index = indexOf(key, FieldKind.LONG);
+            return index >= 0 ? this.primitives[index] : super.readLong(key);
+        }
+
+        @Override
+        public long readLongOrDefault(String key, long defaultValue) {
+            int index = indexOf(key, FieldKind.LONG);
+            return index >= 0 ? this.primitives[index] : super.readLongOrDefault(key, defaultValue);
+        }
+
+        @Override
+        public float readFloat(String key) {
+            int index = indexOf(key, FieldKind.FLOAT);
+            return index >= 0 ? Float.intBitsToFloat((int) this.primitives[index]) : super.readFloat(key);
+        }
+
+        @Override
+        public float readFloatOrDefault(String key, float defaultValue) {
+            int index = indexOf(key, FieldKind.FLOAT);
+            return index >= 0 ?
+                    Float.intBitsToFloat((int) this.primitives[index]) :
+                    super.readFloatOrDefault(key, defaultValue);
+        }
+
+        @Override
+        public double readDouble(String key) {
+            int index = indexOf(key, FieldKind.DOUBLE);
+            return index >= 0 ? Double.longBitsToDouble(this.primitives[index]) : super.readDouble(key);
+        }
+
+        @Override
+        public double readDoubleOrDefault(String key, double defaultValue) {
+            int index = indexOf(key, FieldKind.DOUBLE);
+            return index >= 0 ?
+                    Double.longBitsToDouble(this.primitives[index]) :
+                    super.readDoubleOrDefault(key, defaultValue);
+        }
+    }
+}
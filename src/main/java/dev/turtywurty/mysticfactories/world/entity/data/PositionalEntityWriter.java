@@ -0,0 +1,231 @@
+package dev.turtywurty.mysticfactories.world.entity.data;
+
+import com.mojang.serialization.Codec;
+import dev.turtywurty.mysticfactories.util.binary.BinaryOps;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTag;
+import dev.turtywurty.mysticfactories.util.binary.BinaryTagOutput;
+import dev.turtywurty.mysticfactories.world.entity.Entity;
+import dev.turtywurty.mysticfactories.world.entity.EntityType;
+import dev.turtywurty.mysticfactories.world.entity.data.EntitySchema.FieldKind;
+import org.joml.Vector2d;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Writes entities to a {@link BinaryTagOutput} using the {@link EntitySchema} layouts compiled for their type.
+ * <p>
+ * A layout is written out in full the first time it is used in the output. After that, each entity is written as a
+ * schema id followed by its values in layout order, with no keys, type bytes or intermediate tree. Fields without a
+ * positional encoding are written as {@link BinaryOps} tags.
+ * <p>
+ * Each type keeps every layout its entities have written, up to {@link #MAX_LAYOUTS_PER_TYPE}, so entities that
+ * leave out an optional value get a layout of their own rather than depending on which entity was written first.
+ * Only a type with more layouts than that writes the rest as full tags. Read the result with a
+ * {@link PositionalEntityReader}.
+ */
+public final class PositionalEntityWriter {
+    static final int TAG_ENTRY = 0;
+    static final int NEW_SCHEMA = 1;
+    static final int SCHEMA_ID_OFFSET = 2;
+    static final int MAX_LAYOUTS_PER_TYPE = 8;
+
+    private static final Map<EntityType<?>, List<EntitySchema>> SCHEMAS = new ConcurrentHashMap<>();
+
+    private final BinaryTagOutput output;
+    private final Map<EntitySchema, Integer> schemaIds = new HashMap<>();
+    private final FieldWriter fieldWriter = new FieldWriter();
+
+    public PositionalEntityWriter(BinaryTagOutput output) {
+        this.output = Objects.requireNonNull(output, "output");
+    }
+
+    /**
+     * @return the layouts compiled so far for the given type, in the order they were first written
+     */
+    public static List<EntitySchema> getSchemas(EntityType<?> type) {
+        List<EntitySchema> schemas = SCHEMAS.get(type);
+        return schemas == null ? List.of() : Collections.unmodifiableList(schemas);
+    }
+
+    public void write(Entity entity) {
+        List<EntitySchema> schemas = SCHEMAS.computeIfAbsent(entity.getType(), type -> new CopyOnWriteArrayList<>());
+        for (EntitySchema schema : schemas) {
+            if (tryWrite(schema, entity))
+                return;
+        }
+
+        // None of the known layouts match, so record the one this entity writes.
+        EntitySchema schema = EntitySchema.compile(entity);
+        synchronized (schemas) {
+            if (schemas.size() < MAX_LAYOUTS_PER_TYPE && !schemas.contains(schema)) {
+                schemas.add(schema);
+            }
+        }
+
+        if (schemas.contains(schema) && tryWrite(schema, entity))
+            return;
+
+        var writer = new BinaryEntityDataWriter();
+        entity.writeData(writer);
+        this.output.writeVarInt(TAG_ENTRY);
+        this.output.writeKey(schema.getTypeId().toString());
+        this.output.write(writer.toTag());
+    }
+
+    /**
+     * Writes the entity with the given layout, or leaves the output as it was if the entity does not follow it.
+     */
+    private boolean tryWrite(EntitySchema schema, Entity entity) {
+        int size = this.output.size();
+        int keyCount = this.output.keyCount();
+
+        Integer schemaId = this.schemaIds.get(schema);
+        if (schemaId == null) {
+            this.output.writeVarInt(NEW_SCHEMA);
+            schema.write(this.output);
+        } else {
+            this.output.writeVarInt(schemaId + SCHEMA_ID_OFFSET);
+        }
+
+        if (!this.fieldWriter.writeFields(schema, entity)) {
+            this.output.truncate(size, keyCount);
+            return false;
+        }
+
+        if (schemaId == null) {
+            this.schemaIds.put(schema, this.schemaIds.size());
+        }
+
+        return true;
+    }
+
+    /**
+     * Writes values straight into the output while checking that they follow the layout being written.
+     */
+    private final class FieldWriter extends EntityDataWriter<BinaryTag> {
+        private EntitySchema schema;
+        private int index;
+        private boolean mismatched;
+
+        private FieldWriter() {
+            super(BinaryOps.INSTANCE);
+        }
+
+        private boolean writeFields(EntitySchema schema, Entity entity) {
+            this.schema = schema;
+            this.index = 0;
+            this.mismatched = false;
+            entity.writeData(this);
+            return !this.mismatched && this.index == schema.size();
+        }
+
+        private boolean next(String key, FieldKind kind) {
+            if (this.mismatched)
+                return false;
+
+            if (this.index >= this.schema.size()
+                    || this.schema.kind(this.index) != kind
+                    || !this.schema.key(this.index).equals(key)) {
+                this.mismatched = true;
+                return false;
+            }
+
+            this.index++;
+            return true;
+        }
+
+        @Override
+        public <V> EntityDataWriter<BinaryTag> write(String key, Codec<V> codec, V value) {
+            Objects.requireNonNull(value, "value");
+            FieldKind kind = FieldKind.of(codec);
+            if (!next(key, kind))
+                return this;
+
+            switch (kind) {
+                case BOOLEAN -> output.writeByte((byte) ((Boolean) value ? 1 : 0));
+                case BYTE, SHORT, INT, LONG -> output.writeVarLong(((Number) value).longValue());
+                case FLOAT -> output.writeFloat((Float) value);
+                case DOUBLE -> output.writeDouble((Double) value);
+                case STRING -> output.writeString((String) value);
+                case UUID -> {
+                    var uuid = (UUID) value;
+                    output.writeLong(uuid.getMostSignificantBits());
+                    output.writeLong(uuid.getLeastSignificantBits());
+                }
+                case VECTOR2D -> {
+                    var vector = (Vector2d) value;
+                    output.writeDouble(vector.x);
+                    output.writeDouble(vector.y);
+                }
+                case CODEC -> output.write(codec.encodeStart(BinaryOps.INSTANCE, value)
+                        .getOrThrow(message -> new IllegalStateException(
+                                "Failed to encode field '" + key + "': " + message)));
+            }
+
+            return this;
+        }
+
+        @Override
+        public EntityDataWriter<BinaryTag> writeBoolean(String key, boolean value) {
+            if (next(key, FieldKind.BOOLEAN)) {
+                output.writeByte((byte) (value ? 1 : 0));
+            }
+            return this;
+        }
+
+        @Override
+        public EntityDataWriter<BinaryTag> writeByte(String key, byte value) {
+            if (next(key, FieldKind.BYTE)) {
+                output.writeVarLong(value);
+            }
+            return this;
+        }
+
+        @Override
+        public EntityDataWriter<BinaryTag> writeShort(String key, short value) {
+            if (next(key, FieldKind.SHORT)) {
+                output.writeVarLong(value);
+            }
+            return this;
+        }
+
+        @Override
+        public EntityDataWriter<BinaryTag> writeInt(String key, int value) {
+            if (next(key, FieldKind.INT)) {
+                output.writeVarLong(value);
+            }
+            return this;
+        }
+
+        @Override
+        public EntityDataWriter<BinaryTag> writeLong(String key, long value) {
+            if (next(key, FieldKind.LONG)) {
+                output.writeVarLong(value);
+            }
+            return this;
+        }
+
+        @Override
+        public EntityDataWriter<BinaryTag> writeFloat(String key, float value) {
+            if (next(key, FieldKind.FLOAT)) {
+                output.writeFloat(value);
+            }
+            return this;
+        }
+
+        @Override
+        public EntityDataWriter<BinaryTag> writeDouble(String key, double value) {
+            if (next(key, FieldKind.DOUBLE)) {
+                output.writeDouble(value);
+            }
+            return this;
+        }
+    }
+}
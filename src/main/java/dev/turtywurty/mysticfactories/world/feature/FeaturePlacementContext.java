@@ -1,10 +1,15 @@
 package dev.turtywurty.mysticfactories.world.feature;
 
-import dev.turtywurty.mysticfactories.world.World;
-import dev.turtywurty.mysticfactories.world.WorldView;
+import dev.turtywurty.mysticfactories.world.WorldRegion;
+import dev.turtywurty.mysticfactories.world.gen.ChunkGenerationContext;
 import dev.turtywurty.mysticfactories.world.tile.TilePos;
 
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
-public record FeaturePlacementContext(World world, Random random, TilePos origin) {
+/**
+ * @param region     the origin's chunk and its neighbours, resolved once for the whole feature pass
+ * @param generation what has been sampled for the chunk being generated; its noise fields and biomes cover the
+ *                   origin's chunk only
+ */
+public record FeaturePlacementContext(WorldRegion region, ChunkGenerationContext generation, RandomGenerator random, TilePos origin) {
 }
@@ -1,27 +1,27 @@
 package dev.turtywurty.mysticfactories.world.feature.impl;
 
 import dev.turtywurty.mysticfactories.init.TileTypes;
-import dev.turtywurty.mysticfactories.world.World;
+import dev.turtywurty.mysticfactories.world.WorldRegion;
 import dev.turtywurty.mysticfactories.world.feature.Feature;
 import dev.turtywurty.mysticfactories.world.feature.FeaturePlacementContext;
 import dev.turtywurty.mysticfactories.world.tile.TilePos;
 import dev.turtywurty.mysticfactories.world.tileentity.impl.CactusTileEntity;
 
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class CactusFeature extends Feature {
     @Override
     public boolean place(FeaturePlacementContext context) {
-        World world = context.world();
+        WorldRegion region = context.region();
         TilePos pos = context.origin();
-        Random rng = context.random();
+        RandomGenerator rng = context.random();
 
-        if (world.getTile(pos).orElse(null) != TileTypes.SAND || world.getTileEntity(pos).isPresent())
+        if (region.getTileRaw(pos.x, pos.y) != TileTypes.SAND || region.getTileEntityRaw(pos.x, pos.y) != null)
             return false;
 
         int height = 1 + rng.nextInt(3);
         for (int i = 0; i < height; i++) {
-            world.pushTileEntity(pos, new CactusTileEntity());
+            region.pushTileEntity(pos, new CactusTileEntity());
         }
 
         return true;
@@ -1,11 +1,12 @@
 package dev.turtywurty.mysticfactories.world.feature.shape;
 
 import dev.turtywurty.mysticfactories.world.WorldView;
+import dev.turtywurty.mysticfactories.world.gen.ChunkGenerationContext;
 import dev.turtywurty.mysticfactories.world.tile.TilePos;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class CompoundPlacementShape implements PlacementShape {
     private final PlacementShape[] shapes;
@@ -15,7 +16,7 @@ public class CompoundPlacementShape implements PlacementShape {
     }
 
     @Override
-    public List<TilePos> getPositions(WorldView world, Random random, int chunkX, int chunkY, int attempts) {
+    public List<TilePos> getPositions(WorldView world, RandomGenerator random, int chunkX, int chunkY, int attempts) {
         List<TilePos> positions = new ArrayList<>();
         for (PlacementShape shape : shapes) {
             positions.addAll(shape.getPositions(world, random, chunkX, chunkY, attempts));
@@ -23,4 +24,14 @@ public class CompoundPlacementShape implements PlacementShape {
 
         return positions;
     }
+
+    @Override
+    public List<TilePos> getPositions(ChunkGenerationContext context, WorldView world, RandomGenerator random, int attempts) {
+        List<TilePos> positions = new ArrayList<>();
+        for (PlacementShape shape : shapes) {
+            positions.addAll(shape.getPositions(context, world, random, attempts));
+        }
+
+        return positions;
+    }
 }
@@ -6,7 +6,7 @@ import dev.turtywurty.mysticfactories.world.tile.TilePos;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class GridAlignedPlacementShape implements PlacementShape {
     private final int gridSize;
@@ -16,7 +16,7 @@ public class GridAlignedPlacementShape implements PlacementShape {
     }
 
     @Override
-    public List<TilePos> getPositions(WorldView world, Random random, int chunkX, int chunkY, int attempts) {
+    public List<TilePos> getPositions(WorldView world, RandomGenerator random, int chunkX, int chunkY, int attempts) {
         List<TilePos> positions = new ArrayList<>();
         int chunkStartX = chunkX * ChunkPos.SIZE;
         int chunkStartY = chunkY * ChunkPos.SIZE;
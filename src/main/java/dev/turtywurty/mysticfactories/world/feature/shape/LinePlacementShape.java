@@ -7,7 +7,7 @@ import dev.turtywurty.mysticfactories.world.tile.TilePos;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class LinePlacementShape implements PlacementShape {
     private final Direction direction;
@@ -19,7 +19,7 @@ public class LinePlacementShape implements PlacementShape {
     }
 
     @Override
-    public List<TilePos> getPositions(WorldView world, Random random, int chunkX, int chunkY, int attempts) {
+    public List<TilePos> getPositions(WorldView world, RandomGenerator random, int chunkX, int chunkY, int attempts) {
         List<TilePos> positions = new ArrayList<>();
         for (int i = 0; i < attempts; i++) {
             int startX = chunkX * ChunkPos.SIZE + random.nextInt(ChunkPos.SIZE);
@@ -2,13 +2,15 @@ package dev.turtywurty.mysticfactories.world.feature.shape;
 
 import dev.turtywurty.mysticfactories.world.ChunkPos;
 import dev.turtywurty.mysticfactories.world.WorldView;
+import dev.turtywurty.mysticfactories.world.gen.ChunkGenerationContext;
+import dev.turtywurty.mysticfactories.world.gen.NoiseGrid;
 import dev.turtywurty.mysticfactories.world.tile.TilePos;
 import personthecat.fastnoise.FastNoise;
 import personthecat.fastnoise.data.NoiseType;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class PerlinClusterPlacementShape implements PlacementShape {
     private final float noiseScale;
@@ -28,15 +30,28 @@ public class PerlinClusterPlacementShape implements PlacementShape {
     }
 
     @Override
-    public List<TilePos> getPositions(WorldView world, Random random, int chunkX, int chunkY, int attempts) {
-        List<TilePos> positions = new ArrayList<>();
+    public List<TilePos> getPositions(WorldView world, RandomGenerator random, int chunkX, int chunkY, int attempts) {
         int baseX = chunkX * ChunkPos.SIZE;
         int baseY = chunkY * ChunkPos.SIZE;
+        float[] noiseValues = NoiseGrid.sample(this.noise, baseX, baseY, ChunkPos.SIZE, ChunkPos.SIZE, 1, this.noiseScale, null);
+        return getPositions(noiseValues, baseX, baseY, attempts);
+    }
+
+    /**
+     * Reads the cluster noise from the context, so rules sharing this shape sample it once per chunk.
+     */
+    @Override
+    public List<TilePos> getPositions(ChunkGenerationContext context, WorldView world, RandomGenerator random, int attempts) {
+        ChunkPos pos = context.getChunk().getPos();
+        return getPositions(context.getNoiseField(this.noise, this.noiseScale), pos.x * ChunkPos.SIZE,
+                pos.y * ChunkPos.SIZE, attempts);
+    }
 
+    private List<TilePos> getPositions(float[] noiseValues, int baseX, int baseY, int attempts) {
+        List<TilePos> positions = new ArrayList<>();
         for (int x = 0; x < ChunkPos.SIZE; x++) {
             for (int y = 0; y < ChunkPos.SIZE; y++) {
-                float noiseValue = noise.getNoise((baseX + x) * noiseScale, (baseY + y) * noiseScale);
-                if (noiseValue > threshold && positions.size() < attempts) {
+                if (noiseValues[y * ChunkPos.SIZE + x] > threshold && positions.size() < attempts) {
                     positions.add(new TilePos(baseX + x, baseY + y));
                 }
             }
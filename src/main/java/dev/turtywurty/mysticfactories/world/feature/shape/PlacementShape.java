@@ -1,12 +1,23 @@
 package dev.turtywurty.mysticfactories.world.feature.shape;
 
+import dev.turtywurty.mysticfactories.world.ChunkPos;
 import dev.turtywurty.mysticfactories.world.WorldView;
+import dev.turtywurty.mysticfactories.world.gen.ChunkGenerationContext;
 import dev.turtywurty.mysticfactories.world.tile.TilePos;
 
 import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 @FunctionalInterface
 public interface PlacementShape {
-    List<TilePos> getPositions(WorldView world, Random random, int chunkX, int chunkY, int attempts);
+    List<TilePos> getPositions(WorldView world, RandomGenerator random, int chunkX, int chunkY, int attempts);
+
+    /**
+     * Like {@link #getPositions(WorldView, RandomGenerator, int, int, int)} for the chunk being generated, letting shapes read
+     * what the context has already sampled instead of sampling it again.
+     */
+    default List<TilePos> getPositions(ChunkGenerationContext context, WorldView world, RandomGenerator random, int attempts) {
+        ChunkPos pos = context.getChunk().getPos();
+        return getPositions(world, random, pos.x, pos.y, attempts);
+    }
 }
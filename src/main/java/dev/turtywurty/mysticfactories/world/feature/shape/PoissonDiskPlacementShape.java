@@ -8,7 +8,7 @@ import dev.turtywurty.mysticfactories.world.tile.TilePos;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class PoissonDiskPlacementShape implements PlacementShape {
     private final double minDistance;
@@ -20,11 +20,11 @@ public class PoissonDiskPlacementShape implements PlacementShape {
     }
 
     @Override
-    public List<TilePos> getPositions(WorldView world, Random random, int chunkX, int chunkY, int attempts) {
+    public List<TilePos> getPositions(WorldView world, RandomGenerator random, int chunkX, int chunkY, int attempts) {
         if (attempts <= 0)
             return Collections.emptyList();
 
-        Chunk chunk = world.getChunk(chunkX, chunkY).orElse(null);
+        Chunk chunk = world.getChunkRaw(chunkX, chunkY);
         if (chunk == null)
             return Collections.emptyList();
 
@@ -39,11 +39,11 @@ public class PoissonDiskPlacementShape implements PlacementShape {
         // Seed: pick a random starting position in this chunk
         int sx = chunkStartX + random.nextInt(ChunkPos.SIZE);
         int sy = chunkStartY + random.nextInt(ChunkPos.SIZE);
-        TilePos first = new TilePos(sx, sy);
-
-        if (!chunk.contains(first))
+        if (!chunk.contains(sx, sy))
             return Collections.emptyList();
 
+        var first = new TilePos(sx, sy);
+
         samples.add(first);
         active.add(first);
 
@@ -66,14 +66,15 @@ public class PoissonDiskPlacementShape implements PlacementShape {
                 int cx = base.x() + (int) Math.round(Math.cos(angle) * radius);
                 int cy = base.y() + (int) Math.round(Math.sin(angle) * radius);
 
-                var candidate = new TilePos(cx, cy);
-                if (!chunk.contains(candidate))
+                if (!chunk.contains(cx, cy))
                     continue;
 
                 // Check distance to all existing samples
-                if (!isFarEnough(candidate, samples, minDistSq))
+                if (!isFarEnough(cx, cy, samples, minDistSq))
                     continue;
 
+                var candidate = new TilePos(cx, cy);
+
                 samples.add(candidate);
                 active.add(candidate);
                 foundNewSample = true;
@@ -89,10 +90,11 @@ public class PoissonDiskPlacementShape implements PlacementShape {
         return samples;
     }
 
-    private boolean isFarEnough(TilePos candidate, List<TilePos> samples, double minDistSq) {
-        for (TilePos sample : samples) {
-            double dx = candidate.x() - sample.x();
-            double dy = candidate.y() - sample.y();
+    private boolean isFarEnough(int x, int y, List<TilePos> samples, double minDistSq) {
+        for (int i = 0; i < samples.size(); i++) {
+            TilePos sample = samples.get(i);
+            double dx = x - sample.x;
+            double dy = y - sample.y;
             double distSq = dx * dx + dy * dy;
             if (distSq < minDistSq)
                 return false;
@@ -6,11 +6,11 @@ import dev.turtywurty.mysticfactories.world.tile.TilePos;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class RandomScatterPlacementShape implements PlacementShape {
     @Override
-    public List<TilePos> getPositions(WorldView world, Random random, int chunkX, int chunkY, int attempts) {
+    public List<TilePos> getPositions(WorldView world, RandomGenerator random, int chunkX, int chunkY, int attempts) {
         List<TilePos> positions = new ArrayList<>();
         for (int i = 0; i < attempts; i++) {
             int x = chunkX * ChunkPos.SIZE + random.nextInt(ChunkPos.SIZE);
@@ -11,7 +11,7 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class RandomWalkPlacementShape implements PlacementShape {
     private final IntProvider steps;
@@ -23,8 +23,8 @@ public class RandomWalkPlacementShape implements PlacementShape {
     }
 
     @Override
-    public List<TilePos> getPositions(@MonotonicNonNull WorldView world, Random random, int chunkX, int chunkY, int attempts) {
-        Chunk chunk = world.getChunk(chunkX, chunkY).orElse(null);
+    public List<TilePos> getPositions(@MonotonicNonNull WorldView world, RandomGenerator random, int chunkX, int chunkY, int attempts) {
+        Chunk chunk = world.getChunkRaw(chunkX, chunkY);
         if (chunk == null)
             return Collections.emptyList();
 
@@ -46,10 +46,10 @@ public class RandomWalkPlacementShape implements PlacementShape {
                 Chunk checkChunk = chunk;
 
                 if (crossChunks) {
-                    checkChunk = world.getChunk(offset.toChunkPos()).orElse(null);
+                    checkChunk = world.getChunkRaw(ChunkPos.toChunkCoordinate(offset.x), ChunkPos.toChunkCoordinate(offset.y));
                 }
 
-                if (checkChunk == null || !checkChunk.contains(offset)) {
+                if (checkChunk == null || !checkChunk.contains(offset.x, offset.y)) {
                     failed = true;
                     break;
                 }
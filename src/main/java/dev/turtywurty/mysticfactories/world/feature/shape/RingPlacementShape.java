@@ -7,7 +7,7 @@ import dev.turtywurty.mysticfactories.world.tile.TilePos;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class RingPlacementShape implements PlacementShape {
     private final IntProvider radius;
@@ -17,7 +17,7 @@ public class RingPlacementShape implements PlacementShape {
     }
 
     @Override
-    public List<TilePos> getPositions(WorldView world, Random random, int chunkX, int chunkY, int attempts) {
+    public List<TilePos> getPositions(WorldView world, RandomGenerator random, int chunkX, int chunkY, int attempts) {
         List<TilePos> positions = new ArrayList<>();
         int centerX = chunkX * ChunkPos.SIZE + ChunkPos.HALF_SIZE;
         int centerY = chunkY * ChunkPos.SIZE + ChunkPos.HALF_SIZE;
@@ -0,0 +1,87 @@
+package dev.turtywurty.mysticfactories.world.gen;
+
+import dev.turtywurty.mysticfactories.world.Chunk;
+import dev.turtywurty.mysticfactories.world.biome.Biome;
+import dev.turtywurty.mysticfactories.world.biome.BiomeResolution;
+import lombok.Getter;
+import personthecat.fastnoise.FastNoise;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * What the generation stages of one chunk have computed about it, so each noise field and the biome grid are
+ * sampled once however many surface rules, biome lookups, placement shapes and features read them.
+ * <p>
+ * Everything is computed lazily and only covers the chunk's own tiles. A context lives while its chunk is being
+ * generated and is dropped with it; the stages of a chunk run one after another, so it is not thread safe.
+ */
+public class ChunkGenerationContext {
+    @Getter
+    private final WorldGenerator generator;
+    @Getter
+    private final Chunk chunk;
+    private final int baseX, baseZ;
+    private final Map<NoiseKey, float[]> noiseFields = new HashMap<>();
+    private Biome[] cellBiomes;
+
+    public ChunkGenerationContext(WorldGenerator generator, Chunk chunk) {
+        this.generator = generator;
+        this.chunk = chunk;
+        this.baseX = chunk.getPos().x * Chunk.SIZE;
+        this.baseZ = chunk.getPos().y * Chunk.SIZE;
+    }
+
+    /**
+     * @return the noise at every tile of the chunk, laid out like {@link NoiseGrid#sampleChunk}
+     */
+    public float[] getNoiseField(FastNoise noise) {
+        return getNoiseField(noise, 1.0f);
+    }
+
+    /**
+     * @return the noise at every tile of the chunk with each coordinate multiplied by {@code scale}, laid out like
+     * {@link NoiseGrid#sampleChunk}
+     */
+    public float[] getNoiseField(FastNoise noise, float scale) {
+        return this.noiseFields.computeIfAbsent(new NoiseKey(noise, scale), key ->
+                NoiseGrid.sample(noise, this.baseX, this.baseZ, Chunk.SIZE, Chunk.SIZE, 1, scale, null));
+    }
+
+    /**
+     * @return the noise at a tile of the chunk, from {@link #getNoiseField(FastNoise)}
+     */
+    public float getNoise(FastNoise noise, int x, int z) {
+        return getNoiseField(noise)[localIndex(x, z)];
+    }
+
+    /**
+     * @return the biome of every cell of the chunk, indexed by {@link BiomeResolution#cellIndex(int, int)}
+     */
+    public Biome[] getCellBiomes() {
+        if (this.cellBiomes == null) {
+            this.cellBiomes = this.generator.sampleCellBiomes(this);
+        }
+
+        return this.cellBiomes;
+    }
+
+    /**
+     * @return the biome at a tile of the chunk, from {@link #getCellBiomes()}
+     */
+    public Biome getBiome(int x, int z) {
+        localIndex(x, z);
+        return getCellBiomes()[this.chunk.getBiomeResolution().cellIndex(x - this.baseX, z - this.baseZ)];
+    }
+
+    private int localIndex(int x, int z) {
+        int localX = x - this.baseX;
+        int localZ = z - this.baseZ;
+        if (localX < 0 || localX >= Chunk.SIZE || localZ < 0 || localZ >= Chunk.SIZE)
+            throw new IllegalArgumentException("Tile " + x + ", " + z + " is outside of chunk " + this.chunk.getPos());
+
+        return localZ * Chunk.SIZE + localX;
+    }
+
+    private record NoiseKey(FastNoise noise, float scale) {}
+}
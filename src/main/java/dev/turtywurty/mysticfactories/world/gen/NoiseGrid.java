@@ -0,0 +1,64 @@
+package dev.turtywurty.mysticfactories.world.gen;
+
+import dev.turtywurty.mysticfactories.world.ChunkPos;
+import org.jetbrains.annotations.Nullable;
+import personthecat.fastnoise.FastNoise;
+
+/**
+ * Samples a noise over a regular grid into a flat {@code float[]}, so generators evaluate each noise layer in one
+ * tight loop and post-process it in loops the JIT can vectorise.
+ * <p>
+ * Grids are row-major: the sample in column {@code i} and row {@code j} is at {@code j * width + i}. A chunk grid
+ * sampled every {@link dev.turtywurty.mysticfactories.world.biome.BiomeResolution#getCellSize() cell size} tiles
+ * therefore lines up with {@link dev.turtywurty.mysticfactories.world.biome.BiomeResolution#cellIndex(int, int)}.
+ */
+public final class NoiseGrid {
+    private NoiseGrid() {}
+
+    /**
+     * Samples {@code width} by {@code height} positions, starting at ({@code originX}, {@code originZ}) and
+     * {@code step} tiles apart, with each coordinate multiplied by {@code scale} before sampling.
+     *
+     * @param out the array to fill, or {@code null} to allocate one
+     * @return the filled array
+     */
+    public static float[] sample(FastNoise noise, int originX, int originZ, int width, int height, int step, float scale,
+                                 @Nullable float[] out) {
+        if (width <= 0 || height <= 0 || step <= 0)
+            throw new IllegalArgumentException("Grid size and step must be positive");
+
+        int count = width * height;
+        if (out != null && out.length < count)
+            throw new IllegalArgumentException("Output array holds " + out.length + " samples, " + count + " needed");
+
+        if (out == null) {
+            out = new float[count];
+        }
+
+        int index = 0;
+        for (int j = 0; j < height; j++) {
+            float z = (originZ + j * step) * scale;
+            for (int i = 0; i < width; i++) {
+                out[index++] = noise.getNoise((originX + i * step) * scale, z);
+            }
+        }
+
+        return out;
+    }
+
+    /**
+     * Samples {@code width} by {@code height} positions, starting at ({@code originX}, {@code originZ}) and
+     * {@code step} tiles apart.
+     */
+    public static float[] sample(FastNoise noise, int originX, int originZ, int width, int height, int step,
+                                 @Nullable float[] out) {
+        return sample(noise, originX, originZ, width, height, step, 1.0f, out);
+    }
+
+    /**
+     * Samples every tile of a chunk.
+     */
+    public static float[] sampleChunk(FastNoise noise, int chunkX, int chunkZ, @Nullable float[] out) {
+        return sample(noise, chunkX * ChunkPos.SIZE, chunkZ * ChunkPos.SIZE, ChunkPos.SIZE, ChunkPos.SIZE, 1, out);
+    }
+}
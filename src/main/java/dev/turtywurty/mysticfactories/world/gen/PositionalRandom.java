@@ -0,0 +1,89 @@
+package dev.turtywurty.mysticfactories.world.gen;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Random values for world generation that are a pure function of the seed, a position and a salt, so they do not
+ * depend on what was sampled before, on the order chunks are generated in or on the thread doing it.
+ * <p>
+ * Single values come straight from {@link #nextLong(int, int, long)} and friends without allocating. Code that needs
+ * several values at one position, such as placement shapes, takes a {@link #at(int, int, long) sequence} started
+ * there. Different purposes should use different salts, or a {@link #split(long) split} source, so their values are
+ * independent.
+ */
+@EqualsAndHashCode
+public final class PositionalRandom {
+    private static final long X_PRIME = 0x9E3779B97F4A7C15L;
+    private static final long Z_PRIME = 0xC2B2AE3D27D4EB4FL;
+    private static final long SALT_PRIME = 0x165667B19E3779F9L;
+
+    @Getter
+    private final long seed;
+
+    public PositionalRandom(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * The SplitMix64 finaliser, which spreads every input bit over the whole output.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * @return a source whose values are independent of this one's
+     */
+    public PositionalRandom split(long salt) {
+        return new PositionalRandom(mix(this.seed ^ mix(salt * SALT_PRIME)));
+    }
+
+    public long nextLong(int x, int z, long salt) {
+        return mix(this.seed ^ mix(x * X_PRIME ^ z * Z_PRIME ^ salt * SALT_PRIME));
+    }
+
+    /**
+     * @return a value in {@code [0, bound)}
+     */
+    public int nextInt(int x, int z, long salt, int bound) {
+        if (bound <= 0)
+            throw new IllegalArgumentException("Bound must be positive");
+
+        return (int) (((nextLong(x, z, salt) >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * @return a value in {@code [0, 1)}
+     */
+    public float nextFloat(int x, int z, long salt) {
+        return (nextLong(x, z, salt) >>> 40) * 0x1.0p-24f;
+    }
+
+    /**
+     * @return a sequence of values starting at the given position, which is the same every time it is started there
+     */
+    public RandomGenerator at(int x, int z, long salt) {
+        return new Sequence(nextLong(x, z, salt));
+    }
+
+    /**
+     * A SplitMix64 stream: cheap to create and step, and good enough for scattering features.
+     */
+    private static final class Sequence implements RandomGenerator {
+        private long state;
+
+        private Sequence(long state) {
+            this.state = state;
+        }
+
+        @Override
+        public long nextLong() {
+            return mix(this.state += X_PRIME);
+        }
+    }
+}
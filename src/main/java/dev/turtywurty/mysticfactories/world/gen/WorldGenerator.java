@@ -5,6 +5,7 @@ import dev.turtywurty.mysticfactories.util.registry.Registerable;
 import dev.turtywurty.mysticfactories.world.Chunk;
 import dev.turtywurty.mysticfactories.world.World;
 import dev.turtywurty.mysticfactories.world.biome.Biome;
+import dev.turtywurty.mysticfactories.world.biome.BiomeResolution;
 import dev.turtywurty.mysticfactories.world.biome.source.BiomeSource;
 import dev.turtywurty.mysticfactories.world.seed.SeedSource;
 import lombok.EqualsAndHashCode;
@@ -12,7 +13,7 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 @EqualsAndHashCode
 @ToString
@@ -20,9 +21,11 @@ import java.util.Random;
 public abstract class WorldGenerator implements Registerable {
     protected final SeedSource seedSource;
     protected final long seed;
+    protected final PositionalRandom random;
     @Setter
     protected Identifier id;
     protected BiomeSource biomeSource;
+    protected BiomeResolution biomeResolution = BiomeResolution.CELL_1X1;
 
     public WorldGenerator(SeedSource seedSource) {
         this(seedSource, null);
@@ -34,10 +37,88 @@ public abstract class WorldGenerator implements Registerable {
 
         this.seedSource = seedSource;
         this.seed = seedSource.get();
+        this.random = new PositionalRandom(this.seed);
         this.biomeSource = biomeSource;
     }
 
-    public abstract void generate(World world, Chunk chunk);
+    /**
+     * Generates the whole chunk, see {@link #generateTerrain(ChunkGenerationContext)} and
+     * {@link #generateFeatures(World, ChunkGenerationContext)}.
+     */
+    public void generate(World world, Chunk chunk) {
+        ChunkGenerationContext context = createContext(chunk);
+        generateTerrain(context);
+        generateFeatures(world, context);
+    }
+
+    /**
+     * @return a context for generating the chunk, shared by all of its generation stages
+     */
+    public ChunkGenerationContext createContext(Chunk chunk) {
+        return new ChunkGenerationContext(this, chunk);
+    }
+
+    /**
+     * Fills in the chunk's biomes, then its tiles. Depends on nothing but the seed and the chunk's position and must
+     * not touch any world, so chunks can be generated on any thread and in any order with identical results.
+     */
+    public void generateTerrain(ChunkGenerationContext context) {
+        generateBiomes(context);
+        generateSurface(context);
+    }
+
+    /**
+     * Stores the context's {@link ChunkGenerationContext#getCellBiomes() cell biomes} in the chunk, under the same
+     * rules as {@link #generateTerrain(ChunkGenerationContext)}.
+     */
+    public void generateBiomes(ChunkGenerationContext context) {
+        Chunk chunk = context.getChunk();
+        BiomeResolution resolution = chunk.getBiomeResolution();
+        int baseX = chunk.getPos().x * Chunk.SIZE;
+        int baseY = chunk.getPos().y * Chunk.SIZE;
+        int cellSize = resolution.getCellSize();
+        Biome[] cellBiomes = context.getCellBiomes();
+        for (int cellY = 0; cellY < Chunk.SIZE; cellY += cellSize) {
+            for (int cellX = 0; cellX < Chunk.SIZE; cellX += cellSize) {
+                chunk.setBiome(baseX + cellX, baseY + cellY, cellBiomes[resolution.cellIndex(cellX, cellY)]);
+            }
+        }
+    }
+
+    /**
+     * Fills in the tiles of a chunk whose biomes have been generated, under the same rules as
+     * {@link #generateTerrain(ChunkGenerationContext)}.
+     */
+    public abstract void generateSurface(ChunkGenerationContext context);
+
+    /**
+     * Places features in a chunk whose terrain has been generated and which has been added to the world, while the
+     * terrain of its neighbours can be read through the world. Features may read the world, but should only write to
+     * their own chunk; this runs on the thread that owns the world.
+     */
+    public void generateFeatures(World world, ChunkGenerationContext context) {}
+
+    /**
+     * Computes the biome of every cell of the context's chunk, indexed by {@link BiomeResolution#cellIndex(int, int)}.
+     * Called once per chunk by {@link ChunkGenerationContext#getCellBiomes()}; must agree with
+     * {@link #getBiome(int, int)} at each cell's origin.
+     */
+    public Biome[] sampleCellBiomes(ChunkGenerationContext context) {
+        Chunk chunk = context.getChunk();
+        BiomeResolution resolution = chunk.getBiomeResolution();
+        int cellSize = resolution.getCellSize();
+        int cellsPerSide = resolution.getCellsPerSide();
+        var cellBiomes = new Biome[resolution.getCellCount()];
+        int baseX = chunk.getPos().x * Chunk.SIZE;
+        int baseY = chunk.getPos().y * Chunk.SIZE;
+        for (int cellY = 0; cellY < cellsPerSide; cellY++) {
+            for (int cellX = 0; cellX < cellsPerSide; cellX++) {
+                cellBiomes[cellY * cellsPerSide + cellX] = getBiome(baseX + cellX * cellSize, baseY + cellY * cellSize);
+            }
+        }
+
+        return cellBiomes;
+    }
 
     public Biome getBiome(int x, int z) {
         if (this.biomeSource == null)
@@ -50,15 +131,15 @@ public abstract class WorldGenerator implements Registerable {
         this.biomeSource = biomeSource;
     }
 
-    protected Random chunkRandom(int chunkX, int chunkZ) {
-        long mixed = this.seed
-                ^ ((long) chunkX * 341873128712L)
-                ^ ((long) chunkZ * 132897987541L);
-        return new Random(mixed);
+    /**
+     * @return the random sequence for one purpose in a chunk, independent of every other chunk and salt
+     */
+    protected RandomGenerator chunkRandom(int chunkX, int chunkZ, long salt) {
+        return this.random.at(chunkX, chunkZ, salt);
     }
 
     @FunctionalInterface
     public interface WorldGeneratorFactory {
-        WorldGenerator create();
+        WorldGenerator create(SeedSource seedSource);
     }
 }
@@ -2,6 +2,7 @@ package dev.turtywurty.mysticfactories.world.gen;
 
 import dev.turtywurty.mysticfactories.util.Identifier;
 import dev.turtywurty.mysticfactories.util.registry.Registerable;
+import dev.turtywurty.mysticfactories.world.seed.SeedSource;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
@@ -26,8 +27,8 @@ public class WorldGeneratorType implements Registerable {
         return new Builder();
     }
 
-    public WorldGenerator createGenerator() {
-        return this.factory.create();
+    public WorldGenerator createGenerator(SeedSource seedSource) {
+        return this.factory.create(seedSource);
     }
 
     public static class Builder {
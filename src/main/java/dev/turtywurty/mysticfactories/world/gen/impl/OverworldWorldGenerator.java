@@ -1,10 +1,15 @@
 package dev.turtywurty.mysticfactories.world.gen.impl;
 
 import dev.turtywurty.mysticfactories.init.Biomes;
+import dev.turtywurty.mysticfactories.util.Identifier;
 import dev.turtywurty.mysticfactories.util.registry.Registries;
 import dev.turtywurty.mysticfactories.world.Chunk;
+import dev.turtywurty.mysticfactories.world.ChunkPos;
+import dev.turtywurty.mysticfactories.world.ChunkStatus;
 import dev.turtywurty.mysticfactories.world.World;
+import dev.turtywurty.mysticfactories.world.WorldRegion;
 import dev.turtywurty.mysticfactories.world.biome.Biome;
+import dev.turtywurty.mysticfactories.world.biome.BiomeResolution;
 import dev.turtywurty.mysticfactories.world.biome.source.BiomeSource;
 import dev.turtywurty.mysticfactories.world.biome.source.MultiNoiseBiomeSource;
 import dev.turtywurty.mysticfactories.world.biome.surface.SurfaceContext;
@@ -13,6 +18,7 @@ import dev.turtywurty.mysticfactories.world.biome.surface.SurfaceRule;
 import dev.turtywurty.mysticfactories.world.feature.Feature;
 import dev.turtywurty.mysticfactories.world.feature.FeaturePlacementContext;
 import dev.turtywurty.mysticfactories.world.feature.FeatureRule;
+import dev.turtywurty.mysticfactories.world.gen.ChunkGenerationContext;
 import dev.turtywurty.mysticfactories.world.gen.WorldGenerator;
 import dev.turtywurty.mysticfactories.world.seed.SeedSource;
 import dev.turtywurty.mysticfactories.world.tile.TilePos;
@@ -22,10 +28,8 @@ import personthecat.fastnoise.FastNoise;
 import personthecat.fastnoise.data.FractalType;
 import personthecat.fastnoise.data.NoiseType;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
-import java.util.Set;
+import java.util.random.RandomGenerator;
 
 public class OverworldWorldGenerator extends WorldGenerator {
     private static final Logger LOGGER = LoggerFactory.getLogger(OverworldWorldGenerator.class);
@@ -35,6 +39,7 @@ public class OverworldWorldGenerator extends WorldGenerator {
         super(seedSource);
         this.biomeSource = createBiomeSource(this.seed);
         this.noise = createOverworldNoise(seed);
+        this.biomeResolution = BiomeResolution.CELL_4X4;
     }
 
     private static FastNoise createOverworldNoise(long seed) {
@@ -57,29 +62,48 @@ public class OverworldWorldGenerator extends WorldGenerator {
         ));
     }
 
+    /**
+     * Looks every cell up in one batch, reusing the terrain noise the surface pass samples anyway.
+     */
     @Override
-    public void generate(World world, Chunk chunk) {
-        generateSurface(world, chunk);
-        generateFeatures(world, chunk);
+    public Biome[] sampleCellBiomes(ChunkGenerationContext context) {
+        Chunk chunk = context.getChunk();
+        int baseX = chunk.getPos().x * Chunk.SIZE;
+        int baseY = chunk.getPos().y * Chunk.SIZE;
+        int cellSize = this.biomeResolution.getCellSize();
+        int cellsPerSide = this.biomeResolution.getCellsPerSide();
+        float[] terrainNoise = context.getNoiseField(this.noise);
+        var cellNoise = new float[this.biomeResolution.getCellCount()];
+        for (int cellY = 0; cellY < cellsPerSide; cellY++) {
+            for (int cellX = 0; cellX < cellsPerSide; cellX++) {
+                cellNoise[cellY * cellsPerSide + cellX] = terrainNoise[cellY * cellSize * Chunk.SIZE + cellX * cellSize];
+            }
+        }
+
+        var cellBiomes = new Biome[this.biomeResolution.getCellCount()];
+        this.biomeSource.getBiomes(baseX, baseY, cellsPerSide, cellsPerSide, cellSize, cellNoise, cellBiomes);
+        return cellBiomes;
     }
 
-    private void generateSurface(World world, Chunk chunk) {
+    @Override
+    public void generateSurface(ChunkGenerationContext context) {
+        Chunk chunk = context.getChunk();
+        int baseX = chunk.getPos().x * Chunk.SIZE;
+        int baseY = chunk.getPos().y * Chunk.SIZE;
+        float[] terrainNoise = context.getNoiseField(this.noise);
         for (int x = 0; x < Chunk.SIZE; x++) {
             for (int z = 0; z < Chunk.SIZE; z++) {
-                var pos = new TilePos(
-                        chunk.getPos().x * Chunk.SIZE + x,
-                        chunk.getPos().y * Chunk.SIZE + z
-                );
+                var pos = new TilePos(baseX + x, baseY + z);
 
-                float noiseValue = this.noise.getNoise(pos.x, pos.y);
-                Biome biome = this.biomeSource.getBiome(pos.x(), pos.y(), noiseValue);
+                float noiseValue = terrainNoise[z * Chunk.SIZE + x];
+                Biome biome = context.getBiome(pos.x, pos.y);
                 SurfaceProfile surfaceProfile = biome.getSurfaceProfile();
                 var ctx = new SurfaceContext(noiseValue, pos.x(), pos.y());
 
                 boolean matchedRule = false;
                 for (SurfaceRule surfaceRule : surfaceProfile.surfaceRules()) {
                     if (surfaceRule.matches(ctx)) {
-                        chunk.setTile(pos, surfaceRule.resultTile(), biome);
+                        chunk.setTile(pos, surfaceRule.resultTile());
                         matchedRule = true;
                         break;
                     }
@@ -89,41 +113,56 @@ public class OverworldWorldGenerator extends WorldGenerator {
                     continue;
 
                 if (surfaceProfile.primaryFluid() != null && noiseValue < 0.0f) {
-                    chunk.setTile(pos, surfaceProfile.primaryFluid(), biome);
+                    chunk.setTile(pos, surfaceProfile.primaryFluid());
                 } else {
-                    chunk.setTile(pos, surfaceProfile.primarySurface(), biome);
+                    chunk.setTile(pos, surfaceProfile.primarySurface());
                 }
             }
         }
     }
 
-    private void generateFeatures(World world, Chunk chunk) {
-        Random rng = chunkRandom(chunk.getPos().x(), chunk.getPos().y());
+    @Override
+    public void generateFeatures(World world, ChunkGenerationContext context) {
+        Chunk chunk = context.getChunk();
+        ChunkPos pos = chunk.getPos();
+        int radius = ChunkStatus.FEATURES.getNeighbourRadius();
+        try (var region = new WorldRegion(world, pos.x - radius, pos.y - radius, pos.x + radius, pos.y + radius)) {
+            placeFeatures(region, context);
+        }
+    }
+
+    private void placeFeatures(WorldRegion region, ChunkGenerationContext context) {
+        Chunk chunk = context.getChunk();
         int totalSuccessfulPlacements = 0;
         int totalRulesWithPlacements = 0;
 
-        Set<Biome> biomes = new HashSet<>(chunk.getBiomes().values());
-        for (Biome biome : biomes) {
-            for (FeatureRule rule : biome.getFeatureRules()) {
+        for (Biome biome : chunk.getBiomePalette()) {
+            List<FeatureRule> rules = biome.getFeatureRules();
+            for (int ruleIndex = 0; ruleIndex < rules.size(); ruleIndex++) {
+                FeatureRule rule = rules.get(ruleIndex);
                 Feature feature = Registries.FEATURES.getOrThrow(rule.featureId());
                 int attempts = Math.max(0, rule.attemptsPerChunk());
+                // Each rule, and each origin within it, draws from its own sequence, so no placement depends on another.
+                long salt = ruleSalt(biome, ruleIndex);
                 List<TilePos> origins = rule.placementShape()
-                        .getPositions(world, rng, chunk.getPos().x(), chunk.getPos().y(), attempts);
+                        .getPositions(context, region, chunkRandom(chunk.getPos().x(), chunk.getPos().y(), salt), attempts);
                 int successfulPlacements = 0;
 
                 for (TilePos origin : origins) {
                     if (!chunk.contains(origin))
                         continue;
 
-                    if (chunk.getBiome(origin).orElse(null) != biome)
+                    if (context.getBiome(origin.x, origin.y) != biome)
                         continue;
 
-                    if (!rule.placementCondition().canPlace(world, origin))
+                    if (!rule.placementCondition().canPlace(region, origin))
                         continue;
 
+                    // Inverted salt, so tile sequences never repeat the chunk sequences of the same coordinates.
+                    RandomGenerator rng = this.random.at(origin.x, origin.y, ~salt);
                     int count = Math.max(1, rule.countProvider().get(rng));
                     for (int i = 0; i < count; i++) {
-                        if (feature.place(new FeaturePlacementContext(world, rng, origin))) {
+                        if (feature.place(new FeaturePlacementContext(region, context, rng, origin))) {
                             successfulPlacements++;
                         }
                     }
@@ -153,9 +192,20 @@ public class OverworldWorldGenerator extends WorldGenerator {
         }
     }
 
+    private static long ruleSalt(Biome biome, int ruleIndex) {
+        Identifier id = biome.getId();
+        return ((long) id.namespace().hashCode() << 32 ^ id.path().hashCode()) * 31 + ruleIndex;
+    }
+
+    /**
+     * Samples the biome at the origin of the biome cell containing the given tile, so lookups for tiles that
+     * were never generated agree with what a generated chunk would have stored.
+     */
     @Override
     public Biome getBiome(int x, int z) {
-        float noiseValue = this.noise.getNoise(x, z);
-        return this.biomeSource.getBiome(x, z, noiseValue);
+        int cellX = this.biomeResolution.toCellOrigin(x);
+        int cellZ = this.biomeResolution.toCellOrigin(z);
+        float noiseValue = this.noise.getNoise(cellX, cellZ);
+        return this.biomeSource.getBiome(cellX, cellZ, noiseValue);
     }
 }
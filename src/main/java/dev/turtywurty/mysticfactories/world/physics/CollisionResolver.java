@@ -2,9 +2,8 @@ package dev.turtywurty.mysticfactories.world.physics;
 
 import dev.turtywurty.mysticfactories.util.AABB;
 import dev.turtywurty.mysticfactories.world.World;
+import dev.turtywurty.mysticfactories.world.WorldRegion;
 import dev.turtywurty.mysticfactories.world.entity.Entity;
-import dev.turtywurty.mysticfactories.world.tile.TilePos;
-import dev.turtywurty.mysticfactories.world.tile.TileType;
 import dev.turtywurty.mysticfactories.world.tileentity.StackedTileEntity;
 
 import java.util.List;
@@ -31,14 +30,16 @@ public final class CollisionResolver {
         boolean collidesWithTiles = entity.shouldCollideWithTiles();
 
         AABB box = entity.getAABB();
+        // Both sweeps stay within the box swept by the full move, so its chunks are resolved once.
+        WorldRegion tiles = collidesWithTiles ? getRegion(world, box.union(box.offset(deltaX, deltaY))) : null;
         if (collidesWithTiles) {
-            deltaX = clipAgainstSolidTiles(world, box, deltaX, 0);
+            deltaX = clipAgainstSolidTiles(tiles, box, deltaX, 0);
         }
         deltaX = clipAgainstEntities(world, entity, box, deltaX, 0);
         box = box.offset(deltaX, 0);
 
         if (collidesWithTiles) {
-            deltaY = clipAgainstSolidTiles(world, box, 0, deltaY);
+            deltaY = clipAgainstSolidTiles(tiles, box, 0, deltaY);
         }
         deltaY = clipAgainstEntities(world, entity, box, 0, deltaY);
         box = box.offset(0, deltaY);
@@ -59,7 +60,15 @@ public final class CollisionResolver {
         }
     }
 
-    private static double clipAgainstSolidTiles(World world, AABB box, double deltaX, double deltaY) {
+    private static WorldRegion getRegion(World world, AABB box) {
+        int minTileX = (int) Math.floor(box.minX());
+        int minTileY = (int) Math.floor(box.minY());
+        int maxTileX = Math.max(minTileX, (int) Math.floor(box.maxX() - EPSILON));
+        int maxTileY = Math.max(minTileY, (int) Math.floor(box.maxY() - EPSILON));
+        return world.getRegion(minTileX, minTileY, maxTileX, maxTileY);
+    }
+
+    private static double clipAgainstSolidTiles(WorldRegion tiles, AABB box, double deltaX, double deltaY) {
         if (deltaX == 0 && deltaY == 0)
             return 0;
 
@@ -73,10 +82,7 @@ public final class CollisionResolver {
 
         for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
             for (int tileY = minTileY; tileY <= maxTileY; tileY++) {
-                boolean isSolid = world.getTile(new TilePos(tileX, tileY))
-                        .map(TileType::isSolid)
-                        .orElse(false);
-                if (!isSolid)
+                if (!tiles.isSolid(tileX, tileY))
                     continue;
 
                 double tileMinX = tileX;
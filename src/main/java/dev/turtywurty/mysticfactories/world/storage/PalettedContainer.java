@@ -0,0 +1,504 @@
+package dev.turtywurty.mysticfactories.world.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Fixed-size container that stores values as indices into a per-container palette.
+ * <p>
+ * While only a single value has ever been stored the container runs in single-value mode and holds no index
+ * array at all. Once a second value appears the indices are bit-packed into a {@code long[]}, growing the number
+ * of bits per entry as the palette grows. Entries never straddle two longs, so reads are a shift and a mask.
+ * <p>
+ * Palette entries are compared by identity, which is what registry objects such as tile types and biomes want.
+ * {@code null} is a valid value and is used to mean "nothing stored here".
+ * <p>
+ * The packed indices of a container that is not being used can be {@link #compress(int) deflated} in place. The
+ * palette stays as it is, and the indices are inflated again by the next read or write.
+ */
+public class PalettedContainer<T> {
+    private static final int INDEX_MAP_THRESHOLD = 16;
+    private static final long OBJECT_HEADER_BYTES = 16;
+    private static final long REFERENCE_BYTES = 4;
+
+    private final int size;
+    private Object[] palette;
+    private int paletteSize;
+    private Map<Object, Integer> paletteIndex;
+    private int bitsPerEntry;
+    private int valuesPerLong;
+    private long mask;
+    private long[] data;
+    // The deflated indices while compressed, in which case data is null.
+    private byte[] compressedData;
+
+    public PalettedContainer(int size, T initialValue) {
+        if (size <= 0)
+            throw new IllegalArgumentException("Size must be positive");
+
+        this.size = size;
+        this.palette = new Object[]{initialValue};
+        this.paletteSize = 1;
+    }
+
+    private PalettedContainer(PalettedContainer<T> other) {
+        this.size = other.size;
+        this.palette = Arrays.copyOf(other.palette, other.palette.length);
+        this.paletteSize = other.paletteSize;
+        this.paletteIndex = other.paletteIndex == null ? null : new IdentityHashMap<>(other.paletteIndex);
+        this.bitsPerEntry = other.bitsPerEntry;
+        this.valuesPerLong = other.valuesPerLong;
+        this.mask = other.mask;
+        this.data = other.data == null ? null : other.data.clone();
+        this.compressedData = other.compressedData;
+    }
+
+    private static int bitsFor(int paletteSize) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(paletteSize - 1));
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        return (T) this.palette[getPaletteIndex(index)];
+    }
+
+    /**
+     * @return the palette slot used by the value at {@code index}, suitable for {@link #getPaletteEntry(int)}
+     */
+    public int getPaletteIndex(int index) {
+        if (this.data == null) {
+            if (this.compressedData == null)
+                return 0;
+
+            decompress();
+        }
+
+        int cell = index / this.valuesPerLong;
+        int shift = (index - cell * this.valuesPerLong) * this.bitsPerEntry;
+        return (int) ((this.data[cell] >>> shift) & this.mask);
+    }
+
+    public void set(int index, T value) {
+        Objects.checkIndex(index, this.size);
+        decompress();
+        int paletteIdx = indexOf(value);
+        if (paletteIdx < 0) {
+            paletteIdx = addToPalette(value);
+        }
+
+        if (this.data == null) {
+            if (paletteIdx == 0)
+                return;
+
+            resize(bitsFor(this.paletteSize));
+        }
+
+        int cell = index / this.valuesPerLong;
+        int shift = (index - cell * this.valuesPerLong) * this.bitsPerEntry;
+        this.data[cell] = (this.data[cell] & ~(this.mask << shift)) | ((long) paletteIdx << shift);
+    }
+
+    /**
+     * Replaces every entry with {@code value} and drops back to single-value mode.
+     */
+    public void fill(T value) {
+        this.palette = new Object[]{value};
+        this.paletteSize = 1;
+        this.paletteIndex = null;
+        this.bitsPerEntry = 0;
+        this.valuesPerLong = 0;
+        this.mask = 0;
+        this.data = null;
+        this.compressedData = null;
+    }
+
+    public boolean isSingleValue() {
+        return this.data == null && this.compressedData == null;
+    }
+
+    public boolean isCompressed() {
+        return this.compressedData != null;
+    }
+
+    /**
+     * Deflates the packed indices and drops the uncompressed array. Does nothing in single-value mode, or if the
+     * indices do not compress.
+     *
+     * @param level the {@link Deflater} compression level
+     * @return whether the container is compressed now
+     */
+    public boolean compress(int level) {
+        if (this.data == null)
+            return this.compressedData != null;
+
+        byte[] raw = new byte[this.data.length * Long.BYTES];
+        ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().put(this.data);
+
+        var deflater = new Deflater(level);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            // Output that would not fit in the raw size is not worth keeping.
+            byte[] buffer = new byte[raw.length];
+            int length = deflater.deflate(buffer);
+            if (!deflater.finished())
+                return false;
+
+            this.compressedData = Arrays.copyOf(buffer, length);
+            this.data = null;
+            return true;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Inflates the packed indices if the container is compressed.
+     */
+    public void decompress() {
+        byte[] compressed = this.compressedData;
+        if (compressed == null)
+            return;
+
+        this.data = inflate(compressed);
+        this.compressedData = null;
+    }
+
+    /**
+     * Writes the palette slot of every index into {@code out}, for bulk readers. Unlike
+     * {@link #getPaletteIndex(int)} this leaves a compressed container compressed, inflating into a temporary
+     * array instead.
+     */
+    public void copyPaletteIndices(int[] out) {
+        if (out.length < this.size)
+            throw new IllegalArgumentException("Output holds " + out.length + " indices, need " + this.size);
+
+        long[] data = this.data;
+        if (data == null) {
+            if (this.compressedData == null) {
+                Arrays.fill(out, 0, this.size, 0);
+                return;
+            }
+
+            data = inflate(this.compressedData);
+        }
+
+        for (int i = 0; i < this.size; i++) {
+            int cell = i / this.valuesPerLong;
+            int shift = (i - cell * this.valuesPerLong) * this.bitsPerEntry;
+            out[i] = (int) ((data[cell] >>> shift) & this.mask);
+        }
+    }
+
+    private long[] inflate(byte[] compressed) {
+        byte[] raw = new byte[longCount(this.valuesPerLong) * Long.BYTES];
+        var inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            if (inflater.inflate(raw) != raw.length || !inflater.finished())
+                throw new IllegalStateException("Compressed palette indices are truncated");
+        } catch (DataFormatException exception) {
+            throw new IllegalStateException("Compressed palette indices are corrupt", exception);
+        } finally {
+            inflater.end();
+        }
+
+        long[] data = new long[raw.length / Long.BYTES];
+        ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(data);
+        return data;
+    }
+
+    public int getBitsPerEntry() {
+        return this.bitsPerEntry;
+    }
+
+    public int getPaletteSize() {
+        return this.paletteSize;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T getPaletteEntry(int paletteIndex) {
+        return (T) this.palette[paletteIndex];
+    }
+
+    /**
+     * @return the distinct non-null values in the palette, in palette order
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> getPaletteValues() {
+        List<T> values = new ArrayList<>(this.paletteSize);
+        for (int i = 0; i < this.paletteSize; i++) {
+            Object value = this.palette[i];
+            if (value != null) {
+                values.add((T) value);
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * Rebuilds the palette so it only holds values that are still referenced, packing the indices with as few
+     * bits as possible. A container that turns out to hold a single value drops back to single-value mode.
+     */
+    public void compact() {
+        decompress();
+        if (this.data == null)
+            return;
+
+        int[] remap = new int[this.paletteSize];
+        Arrays.fill(remap, -1);
+        Object[] newPalette = new Object[this.paletteSize];
+        int newPaletteSize = 0;
+        int[] indices = new int[this.size];
+        for (int i = 0; i < this.size; i++) {
+            int old = getPaletteIndex(i);
+            if (remap[old] < 0) {
+                remap[old] = newPaletteSize;
+                newPalette[newPaletteSize++] = this.palette[old];
+            }
+
+            indices[i] = remap[old];
+        }
+
+        if (newPaletteSize == 1) {
+            fill(castValue(newPalette[0]));
+            return;
+        }
+
+        this.palette = Arrays.copyOf(newPalette, newPaletteSize);
+        this.paletteSize = newPaletteSize;
+        this.paletteIndex = null;
+        if (newPaletteSize > INDEX_MAP_THRESHOLD) {
+            this.paletteIndex = new IdentityHashMap<>();
+            for (int i = 0; i < newPaletteSize; i++) {
+                this.paletteIndex.put(this.palette[i], i);
+            }
+        }
+
+        this.data = null;
+        resize(bitsFor(newPaletteSize));
+        for (int i = 0; i < this.size; i++) {
+            int cell = i / this.valuesPerLong;
+            int shift = (i - cell * this.valuesPerLong) * this.bitsPerEntry;
+            this.data[cell] |= (long) indices[i] << shift;
+        }
+    }
+
+    /**
+     * Writes the palette (as ids, {@code null} values as an empty string) followed by the packed indices.
+     */
+    public void write(DataOutput out, Function<T, String> idMapper) throws IOException {
+        decompress();
+        out.writeShort(this.paletteSize);
+        for (int i = 0; i < this.paletteSize; i++) {
+            T value = castValue(this.palette[i]);
+            out.writeUTF(value == null ? "" : idMapper.apply(value));
+        }
+
+        if (this.data == null) {
+            out.writeByte(0);
+            return;
+        }
+
+        out.writeByte(this.bitsPerEntry);
+        for (long word : this.data) {
+            out.writeLong(word);
+        }
+    }
+
+    /**
+     * Reads a container written by {@link #write(DataOutput, Function)}. Ids the resolver maps to {@code null}
+     * read back as empty entries.
+     */
+    public static <T> PalettedContainer<T> read(DataInput in, int size, Function<String, T> resolver) throws IOException {
+        int paletteSize = in.readUnsignedShort();
+        if (paletteSize == 0)
+            throw new IOException("Palette cannot be empty");
+
+        Object[] palette = new Object[paletteSize];
+        for (int i = 0; i < paletteSize; i++) {
+            String id = in.readUTF();
+            palette[i] = id.isEmpty() ? null : resolver.apply(id);
+        }
+
+        var container = new PalettedContainer<T>(size, null);
+        container.palette = palette;
+        container.paletteSize = paletteSize;
+        if (paletteSize > INDEX_MAP_THRESHOLD) {
+            container.paletteIndex = new IdentityHashMap<>();
+            for (int i = 0; i < paletteSize; i++) {
+                container.paletteIndex.putIfAbsent(palette[i], i);
+            }
+        }
+
+        int bits = in.readUnsignedByte();
+        if (bits == 0)
+            return container;
+
+        if (bits > 32 || (1L << bits) < paletteSize)
+            throw new IOException("Invalid bits per entry: " + bits);
+
+        container.resize(bits);
+        for (int i = 0; i < container.data.length; i++) {
+            container.data[i] = in.readLong();
+        }
+
+        return container;
+    }
+
+    /**
+     * @return a hash of the value at each index, consistent with {@link #contentEquals(PalettedContainer)} and
+     * independent of palette order or packing
+     */
+    public int contentHashCode() {
+        int hash = this.size;
+        for (int i = 0; i < this.size; i++) {
+            hash = 31 * hash + System.identityHashCode(get(i));
+        }
+
+        return hash;
+    }
+
+    /**
+     * @return whether both containers hold the same value at every index
+     */
+    public boolean contentEquals(PalettedContainer<?> other) {
+        if (this == other)
+            return true;
+
+        if (this.size != other.size)
+            return false;
+
+        for (int i = 0; i < this.size; i++) {
+            if (get(i) != other.get(i))
+                return false;
+        }
+
+        return true;
+    }
+
+    public PalettedContainer<T> copy() {
+        return new PalettedContainer<>(this);
+    }
+
+    /**
+     * @return a copy with the packed indices inflated, leaving this container as it is
+     */
+    public PalettedContainer<T> inflatedCopy() {
+        PalettedContainer<T> copy = copy();
+        copy.decompress();
+        return copy;
+    }
+
+    /**
+     * @return an estimate of the heap used by this container, including the palette and packed data
+     */
+    public long getByteSize() {
+        long bytes = OBJECT_HEADER_BYTES + 8 * 4;
+        bytes += OBJECT_HEADER_BYTES + REFERENCE_BYTES * this.palette.length;
+        if (this.data != null) {
+            bytes += OBJECT_HEADER_BYTES + 8L * this.data.length;
+        } else if (this.compressedData != null) {
+            bytes += OBJECT_HEADER_BYTES + this.compressedData.length;
+        }
+
+        if (this.paletteIndex != null) {
+            bytes += this.paletteIndex.size() * 48L;
+        }
+
+        return bytes;
+    }
+
+    /**
+     * @return what {@link #getByteSize()} would be with the indices inflated
+     */
+    public long getUncompressedByteSize() {
+        if (this.compressedData == null)
+            return getByteSize();
+
+        return getByteSize() - this.compressedData.length + 8L * longCount(this.valuesPerLong);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T castValue(Object value) {
+        return (T) value;
+    }
+
+    private int indexOf(Object value) {
+        if (this.paletteIndex != null) {
+            Integer idx = this.paletteIndex.get(value);
+            return idx == null ? -1 : idx;
+        }
+
+        for (int i = 0; i < this.paletteSize; i++) {
+            if (this.palette[i] == value)
+                return i;
+        }
+
+        return -1;
+    }
+
+    private int addToPalette(Object value) {
+        if (this.paletteSize == this.palette.length) {
+            this.palette = Arrays.copyOf(this.palette, this.palette.length * 2);
+        }
+
+        int idx = this.paletteSize++;
+        this.palette[idx] = value;
+
+        if (this.paletteIndex != null) {
+            this.paletteIndex.put(value, idx);
+        } else if (this.paletteSize > INDEX_MAP_THRESHOLD) {
+            this.paletteIndex = new IdentityHashMap<>();
+            for (int i = 0; i < this.paletteSize; i++) {
+                this.paletteIndex.put(this.palette[i], i);
+            }
+        }
+
+        if (this.data != null && this.paletteSize > (1 << this.bitsPerEntry)) {
+            resize(bitsFor(this.paletteSize));
+        }
+
+        return idx;
+    }
+
+    private int longCount(int valuesPerLong) {
+        return (this.size + valuesPerLong - 1) / valuesPerLong;
+    }
+
+    private void resize(int newBits) {
+        int newValuesPerLong = 64 / newBits;
+        long[] newData = new long[longCount(newValuesPerLong)];
+        if (this.data != null) {
+            for (int i = 0; i < this.size; i++) {
+                long value = getPaletteIndex(i);
+                int cell = i / newValuesPerLong;
+                int shift = (i - cell * newValuesPerLong) * newBits;
+                newData[cell] |= value << shift;
+            }
+        }
+
+        this.bitsPerEntry = newBits;
+        this.valuesPerLong = newValuesPerLong;
+        this.mask = (1L << newBits) - 1;
+        this.data = newData;
+    }
+}
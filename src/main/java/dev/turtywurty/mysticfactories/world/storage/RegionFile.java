@@ -0,0 +1,302 @@
+package dev.turtywurty.mysticfactories.world.storage;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+/**
+ * A file holding up to {@value #CHUNKS_PER_SIDE}x{@value #CHUNKS_PER_SIDE} chunks.
+ * <p>
+ * The file starts with a header of one (sector offset, byte length) pair of ints per chunk, followed by the chunk
+ * payloads, each starting on a {@value #SECTOR_BYTES} byte sector boundary. The header stays memory mapped while
+ * the file is open; payloads are mapped individually, so reading a chunk only touches that chunk's bytes.
+ * <p>
+ * Payloads are never rewritten in place. A write goes to free sectors, or to the end of the file, and the header
+ * keeps pointing at the old payload until {@link #flush()} has forced the new one to disk; only then are the header
+ * entries updated and forced, and only after that are the old sectors reused. A crash at any point therefore leaves
+ * every header entry pointing at a complete payload, old or new. A batch of writes to one file only needs to be
+ * flushed once.
+ * <p>
+ * Chunks whose payloads are byte for byte identical and fit in one sector, such as untouched ocean chunks, share
+ * that sector: their header entries point at the same offset.
+ */
+public class RegionFile implements AutoCloseable {
+    public static final int CHUNKS_PER_SIDE = 32;
+    public static final int SECTOR_BYTES = 4096;
+    private static final int ENTRY_COUNT = CHUNKS_PER_SIDE * CHUNKS_PER_SIDE;
+    private static final int HEADER_BYTES = ENTRY_COUNT * 2 * Integer.BYTES;
+    private static final int HEADER_SECTORS = HEADER_BYTES / SECTOR_BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    // Payloads written since the last flush, forced to disk together.
+    private final List<MappedByteBuffer> unflushed = new ArrayList<>();
+    // Header entries written since the last flush, by entry offset, as sector << 32 | length.
+    private final Map<Integer, Long> pendingEntries = new HashMap<>();
+    private int sectorCount;
+    // Built on the first write: how many entries start at each sector, the single-sector payloads by content, and
+    // the runs of free sectors by start. Sectors freed since the last flush are still referenced on disk.
+    private Map<Integer, Integer> sectorUsers;
+    private Map<Long, Integer> sectorsByContent;
+    private Map<Integer, Long> contentBySector;
+    private TreeMap<Integer, Integer> freeRuns;
+    private final List<int[]> pendingFreeRuns = new ArrayList<>();
+
+    public RegionFile(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.header = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        this.sectorCount = (int) Math.max(HEADER_SECTORS, (this.channel.size() + SECTOR_BYTES - 1) / SECTOR_BYTES);
+    }
+
+    private static int entryIndex(int chunkX, int chunkZ) {
+        return (chunkZ & (CHUNKS_PER_SIDE - 1)) * CHUNKS_PER_SIDE + (chunkX & (CHUNKS_PER_SIDE - 1));
+    }
+
+    private static int sectorsFor(int length) {
+        return (length + SECTOR_BYTES - 1) / SECTOR_BYTES;
+    }
+
+    public synchronized boolean contains(int chunkX, int chunkZ) {
+        return entryLength(entryIndex(chunkX, chunkZ) * 8) > 0;
+    }
+
+    private int entrySector(int entry) {
+        Long pending = this.pendingEntries.get(entry);
+        return pending != null ? (int) (pending >>> 32) : this.header.getInt(entry);
+    }
+
+    private int entryLength(int entry) {
+        Long pending = this.pendingEntries.get(entry);
+        return pending != null ? (int) (long) pending : this.header.getInt(entry + 4);
+    }
+
+    private void putEntry(int entry, int sector, int length) {
+        this.pendingEntries.put(entry, (long) sector << 32 | (length & 0xFFFFFFFFL));
+    }
+
+    /**
+     * @return a read-only view of the chunk's payload, or {@code null} if the chunk has never been written
+     */
+    @Nullable
+    public synchronized ByteBuffer read(int chunkX, int chunkZ) throws IOException {
+        int entry = entryIndex(chunkX, chunkZ) * 8;
+        int sector = entrySector(entry);
+        int length = entryLength(entry);
+        if (length <= 0)
+            return null;
+
+        if (sector < HEADER_SECTORS || (long) sector * SECTOR_BYTES + length > this.channel.size())
+            throw new IOException("Corrupt region header for chunk " + chunkX + ", " + chunkZ);
+
+        return this.channel.map(FileChannel.MapMode.READ_ONLY, (long) sector * SECTOR_BYTES, length);
+    }
+
+    /**
+     * @return whether the payload was identical to one already in this file and now shares its sector
+     */
+    public synchronized boolean write(int chunkX, int chunkZ, byte[] payload) throws IOException {
+        if (payload.length == 0)
+            throw new IllegalArgumentException("Chunk payload cannot be empty");
+
+        indexPayloads();
+        int entry = entryIndex(chunkX, chunkZ) * 8;
+        int oldSector = entrySector(entry);
+        int oldLength = entryLength(entry);
+        long contentKey = payload.length <= SECTOR_BYTES ? contentKey(payload) : -1;
+        if (contentKey != -1) {
+            Integer shared = this.sectorsByContent.get(contentKey);
+            if (shared != null && matches(shared, payload)) {
+                if (oldLength <= 0 || oldSector != shared) {
+                    releaseSector(oldSector, oldLength);
+                    this.sectorUsers.merge(shared, 1, Integer::sum);
+                }
+
+                putEntry(entry, shared, payload.length);
+                return true;
+            }
+        }
+
+        int sector = allocate(sectorsFor(payload.length));
+        this.sectorUsers.put(sector, 1);
+        MappedByteBuffer target = this.channel.map(FileChannel.MapMode.READ_WRITE, (long) sector * SECTOR_BYTES, payload.length);
+        target.put(payload);
+        this.unflushed.add(target);
+        if (contentKey != -1 && this.sectorsByContent.putIfAbsent(contentKey, sector) == null) {
+            this.contentBySector.put(sector, contentKey);
+        }
+
+        releaseSector(oldSector, oldLength);
+        putEntry(entry, sector, payload.length);
+        return false;
+    }
+
+    /**
+     * Forces every payload written since the last flush to disk, then points the header at them and forces it too.
+     * Sectors the old payloads occupied can be reused after that.
+     */
+    public synchronized void flush() {
+        for (MappedByteBuffer buffer : this.unflushed) {
+            buffer.force();
+        }
+
+        this.unflushed.clear();
+        this.pendingEntries.forEach((entry, value) -> {
+            this.header.putInt(entry, (int) (value >>> 32));
+            this.header.putInt(entry + 4, (int) (long) value);
+        });
+        this.pendingEntries.clear();
+        this.header.force();
+        for (int[] run : this.pendingFreeRuns) {
+            addFreeRun(run[0], run[1]);
+        }
+
+        this.pendingFreeRuns.clear();
+    }
+
+    /**
+     * @return the number of chunk entries that point at a sector another entry also points at
+     */
+    public synchronized int getSharedEntryCount() throws IOException {
+        indexPayloads();
+        int shared = 0;
+        for (int users : this.sectorUsers.values()) {
+            if (users > 1) {
+                shared += users - 1;
+            }
+        }
+
+        return shared;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        this.channel.close();
+    }
+
+    private static long contentKey(byte[] payload) {
+        var crc = new CRC32C();
+        crc.update(payload);
+        return (long) payload.length << 32 | crc.getValue();
+    }
+
+    private boolean matches(int sector, byte[] payload) throws IOException {
+        if ((long) sector * SECTOR_BYTES + payload.length > this.channel.size())
+            return false;
+
+        return this.channel.map(FileChannel.MapMode.READ_ONLY, (long) sector * SECTOR_BYTES, payload.length)
+                .equals(ByteBuffer.wrap(payload));
+    }
+
+    private void releaseSector(int sector, int length) {
+        if (length <= 0)
+            return;
+
+        Integer users = this.sectorUsers.get(sector);
+        if (users == null)
+            return;
+
+        if (users > 1) {
+            this.sectorUsers.put(sector, users - 1);
+            return;
+        }
+
+        this.sectorUsers.remove(sector);
+        Long contentKey = this.contentBySector.remove(sector);
+        if (contentKey != null) {
+            this.sectorsByContent.remove(contentKey, sector);
+        }
+
+        // The header on disk may still point here, so the sectors are only reused after the next flush.
+        this.pendingFreeRuns.add(new int[]{sector, sectorsFor(length)});
+    }
+
+    /**
+     * @return the first sector of a run of free sectors, from the free list or the end of the file
+     */
+    private int allocate(int sectors) {
+        for (Map.Entry<Integer, Integer> run : this.freeRuns.entrySet()) {
+            int start = run.getKey();
+            int length = run.getValue();
+            if (length < sectors)
+                continue;
+
+            this.freeRuns.remove(start);
+            if (length > sectors) {
+                this.freeRuns.put(start + sectors, length - sectors);
+            }
+
+            return start;
+        }
+
+        int start = this.sectorCount;
+        this.sectorCount += sectors;
+        return start;
+    }
+
+    private void addFreeRun(int start, int sectors) {
+        Map.Entry<Integer, Integer> before = this.freeRuns.floorEntry(start - 1);
+        if (before != null && before.getKey() + before.getValue() == start) {
+            start = before.getKey();
+            sectors += before.getValue();
+        }
+
+        Integer after = this.freeRuns.remove(start + sectors);
+        if (after != null) {
+            sectors += after;
+        }
+
+        this.freeRuns.put(start, sectors);
+    }
+
+    private void indexPayloads() throws IOException {
+        if (this.sectorUsers != null)
+            return;
+
+        this.sectorUsers = new HashMap<>();
+        this.sectorsByContent = new HashMap<>();
+        this.contentBySector = new HashMap<>();
+        this.freeRuns = new TreeMap<>();
+        var used = new BitSet(this.sectorCount);
+        for (int entry = 0; entry < ENTRY_COUNT * 8; entry += 8) {
+            int sector = this.header.getInt(entry);
+            int length = this.header.getInt(entry + 4);
+            if (length <= 0 || sector < HEADER_SECTORS || (long) sector * SECTOR_BYTES + length > this.channel.size())
+                continue;
+
+            used.set(sector, sector + sectorsFor(length));
+            if (this.sectorUsers.merge(sector, 1, Integer::sum) > 1 || length > SECTOR_BYTES)
+                continue;
+
+            byte[] payload = new byte[length];
+            this.channel.map(FileChannel.MapMode.READ_ONLY, (long) sector * SECTOR_BYTES, length).get(payload);
+            long contentKey = contentKey(payload);
+            if (this.sectorsByContent.putIfAbsent(contentKey, sector) == null) {
+                this.contentBySector.put(sector, contentKey);
+            }
+        }
+
+        int free = used.nextClearBit(HEADER_SECTORS);
+        while (free < this.sectorCount) {
+            int end = used.nextSetBit(free);
+            if (end < 0 || end > this.sectorCount) {
+                end = this.sectorCount;
+            }
+
+            addFreeRun(free, end - free);
+            free = used.nextClearBit(end);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package dev.turtywurty.mysticfactories.world.storage;
+
+import dev.turtywurty.mysticfactories.world.ChunkPos;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps chunk positions to {@link RegionFile}s in one directory, keeping the most recently used ones open.
+ */
+public class RegionStorage implements AutoCloseable {
+    private static final int MAX_OPEN_REGIONS = 64;
+    private static final int REGION_SHIFT = Integer.numberOfTrailingZeros(RegionFile.CHUNKS_PER_SIDE);
+
+    private final Path directory;
+    private final LinkedHashMap<Long, RegionFile> openRegions = new LinkedHashMap<>(16, 0.75f, true);
+
+    public RegionStorage(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return the chunk's payload, or {@code null} if it has never been saved
+     */
+    @Nullable
+    public synchronized ByteBuffer read(int chunkX, int chunkZ) throws IOException {
+        RegionFile region = getRegion(chunkX, chunkZ, false);
+        return region == null ? null : region.read(chunkX, chunkZ);
+    }
+
+    /**
+     * @return whether the payload shares its sector with an identical one, see {@link RegionFile}
+     */
+    public synchronized boolean write(int chunkX, int chunkZ, byte[] payload) throws IOException {
+        return getRegion(chunkX, chunkZ, true).write(chunkX, chunkZ, payload);
+    }
+
+    /**
+     * Writes a batch of chunks, flushing each region file the batch touched once at the end.
+     *
+     * @return how many of the payloads share their sector with an identical one
+     */
+    public synchronized int writeAll(Map<ChunkPos, byte[]> payloads) throws IOException {
+        Set<RegionFile> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+        int shared = 0;
+        for (Map.Entry<ChunkPos, byte[]> entry : payloads.entrySet()) {
+            ChunkPos pos = entry.getKey();
+            RegionFile region = getRegion(pos.x, pos.y, true);
+            if (region.write(pos.x, pos.y, entry.getValue())) {
+                shared++;
+            }
+
+            touched.add(region);
+        }
+
+        for (RegionFile region : touched) {
+            region.flush();
+        }
+
+        return shared;
+    }
+
+    /**
+     * @return a key identifying the region file holding the given chunk
+     */
+    public static long regionKey(int chunkX, int chunkZ) {
+        return ((long) (chunkX >> REGION_SHIFT) << 32) | ((chunkZ >> REGION_SHIFT) & 0xFFFFFFFFL);
+    }
+
+    public synchronized void flush() {
+        for (RegionFile region : this.openRegions.values()) {
+            region.flush();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        IOException failure = null;
+        for (RegionFile region : this.openRegions.values()) {
+            try {
+                region.close();
+            } catch (IOException exception) {
+                if (failure == null) {
+                    failure = exception;
+                } else {
+                    failure.addSuppressed(exception);
+                }
+            }
+        }
+
+        this.openRegions.clear();
+        if (failure != null)
+            throw failure;
+    }
+
+    @Nullable
+    private RegionFile getRegion(int chunkX, int chunkZ, boolean create) throws IOException {
+        int regionX = chunkX >> REGION_SHIFT;
+        int regionZ = chunkZ >> REGION_SHIFT;
+        long key = regionKey(chunkX, chunkZ);
+        RegionFile region = this.openRegions.get(key);
+        if (region != null)
+            return region;
+
+        Path path = this.directory.resolve("r." + regionX + "." + regionZ + ".region");
+        if (!create && !Files.exists(path))
+            return null;
+
+        Files.createDirectories(this.directory);
+        region = new RegionFile(path);
+        this.openRegions.put(key, region);
+        if (this.openRegions.size() > MAX_OPEN_REGIONS) {
+            Iterator<Map.Entry<Long, RegionFile>> iterator = this.openRegions.entrySet().iterator();
+            RegionFile eldest = iterator.next().getValue();
+            iterator.remove();
+            eldest.close();
+        }
+
+        return region;
+    }
+}
@@ -64,6 +64,6 @@ public class TilePos extends Vector2i {
     }
 
     public TilePos offset(Direction direction, int steps) {
-        return add(direction.toDelta().mul(steps));
+        return new TilePos(this.x + direction.toDeltaX() * steps, this.y + direction.toDeltaY() * steps);
     }
 }
@@ -35,13 +35,16 @@ public class StackedTileEntity extends TileEntity {
 
         this.entries.add(tileEntity);
         syncEntry(tileEntity);
+        markDirty();
     }
 
     public Optional<TileEntity> pop() {
         if (this.entries.isEmpty())
             return Optional.empty();
 
-        return Optional.of(this.entries.removeLast());
+        TileEntity popped = this.entries.removeLast();
+        markDirty();
+        return Optional.of(popped);
     }
 
     public Optional<TileEntity> peek() {
@@ -39,6 +39,39 @@ public abstract class TileEntity extends Entity {
         super.setPosition(Math.floor(x), Math.floor(y));
     }
 
+    @Override
+    public void setRotation(float rotation) {
+        float previous = getRotation();
+        super.setRotation(rotation);
+        if (getRotation() != previous) {
+            markDirty();
+        }
+    }
+
+    @Override
+    public void setOnGround(boolean onGround) {
+        if (onGround != isOnGround()) {
+            super.setOnGround(onGround);
+            markDirty();
+        }
+    }
+
+    @Override
+    public void setSilent(boolean silent) {
+        if (silent != isSilent()) {
+            super.setSilent(silent);
+            markDirty();
+        }
+    }
+
+    @Override
+    public void addVelocity(double x, double y) {
+        super.addVelocity(x, y);
+        if (x != 0 || y != 0) {
+            markDirty();
+        }
+    }
+
     @Override
     public void tick(double delta) {}
 
@@ -51,13 +84,25 @@ public abstract class TileEntity extends Entity {
     public void setWorld(@Nullable World world) {
         super.setWorld(world);
         if (getWorld() != null && this.tileType == null) {
-            this.tileType = getWorld().getTile(TilePos.fromVector2d(getPosition())).orElse(null);
+            this.tileType = getWorld().getTileRaw((int) Math.floor(getPosition().x), (int) Math.floor(getPosition().y));
+        }
+    }
+
+    /**
+     * Call after changing state written by {@link #writeData}, so the chunk holding this tile entity is saved again.
+     * The setters of the state every tile entity writes already call it; subclasses must call it from their own
+     * mutators, since chunks are only saved once something marks them as changed.
+     */
+    public void markDirty() {
+        World world = getWorld();
+        if (world != null) {
+            world.markTileEntityDirty((int) Math.floor(getPosition().x), (int) Math.floor(getPosition().y));
         }
     }
 
     public TileType getTileType() {
         if (tileType == null && getWorld() != null) {
-            tileType = getWorld().getTile(TilePos.fromVector2d(getPosition())).orElse(null);
+            tileType = getWorld().getTileRaw((int) Math.floor(getPosition().x), (int) Math.floor(getPosition().y));
         }
 
         return tileType;